@@ -0,0 +1,141 @@
+package finance.tradista.flow.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.Action;
+import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.SimpleAction;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.service.WorkflowManager;
+import finance.tradista.flow.test.TestCondition;
+import finance.tradista.flow.test.WorkflowTestObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Benchmarks of the transition hot path, on workflows of 10, 1k and 10k
+ * statuses persisted in the embedded Derby unit of the tests. The workflows
+ * are chains of statuses s0 -> s1 -> ... linked by a "next" action, with a
+ * conditional "route" action from s1 routing to s2 or s3.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowBenchmark {
+
+	private static final String NEXT = "next";
+
+	private static final String ROUTE = "route";
+
+	@Param({ "10", "1000", "10000" })
+	private int statusCount;
+
+	private Workflow<WorkflowTestObject> workflow;
+
+	private Status<WorkflowTestObject> middleStatus;
+
+	private WorkflowTestObject simpleObject;
+
+	private WorkflowTestObject conditionalObject;
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Setup(Level.Trial)
+	public void setUp() throws TradistaFlowBusinessException {
+		String workflowName = "benchmark" + statusCount;
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject>[] statuses = new Status[statusCount];
+		for (int i = 0; i < statusCount; i++) {
+			statuses[i] = new Status<>(wkf, "s" + i);
+		}
+		for (int i = 0; i < statusCount - 1; i++) {
+			new SimpleAction<WorkflowTestObject>(wkf, NEXT, statuses[i], statuses[i + 1]);
+		}
+		// TestCondition returns the digit following the "s" of the status name: 1
+		// for s1.
+		Map<Integer, Status> conditionalRouting = new HashMap<>();
+		conditionalRouting.put(1, statuses[2]);
+		conditionalRouting.put(2, statuses[3]);
+		new ConditionalAction<WorkflowTestObject>(wkf, statuses[1], ROUTE, new TestCondition(), conditionalRouting,
+				statuses[2], statuses[3]);
+		try {
+			WorkflowManager.getWorkflowByName(workflowName);
+		} catch (TradistaFlowBusinessException _) {
+			// Saved only once when the benchmarks are not forked
+			WorkflowManager.saveWorkflow(wkf);
+		}
+		workflow = WorkflowManager.getWorkflowByName(workflowName);
+		middleStatus = statuses[statusCount / 2];
+		simpleObject = new WorkflowTestObject();
+		simpleObject.setWorkflow(workflowName);
+		simpleObject.setStatus(middleStatus);
+		conditionalObject = new WorkflowTestObject();
+		conditionalObject.setWorkflow(workflowName);
+		conditionalObject.setStatus(statuses[1]);
+		// Warms up the workflow cache
+		WorkflowManager.applyAction(simpleObject, NEXT);
+	}
+
+	@Benchmark
+	public WorkflowTestObject applySimpleAction() throws TradistaFlowBusinessException {
+		return WorkflowManager.applyAction(simpleObject, NEXT);
+	}
+
+	@Benchmark
+	public WorkflowTestObject applyConditionalAction() throws TradistaFlowBusinessException {
+		return WorkflowManager.applyAction(conditionalObject, ROUTE);
+	}
+
+	@Benchmark
+	public boolean isValid() {
+		return workflow.isValid();
+	}
+
+	@Benchmark
+	public Set<String> getAvailableActionsFromStatus() {
+		return workflow.getAvailableActionsFromStatus(middleStatus);
+	}
+
+	@Benchmark
+	public Action<WorkflowTestObject> getActionByDepartureStatusAndName() {
+		return workflow.getActionByDepartureStatusAndName(middleStatus, NEXT);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package finance.tradista.flow.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import finance.tradista.flow.model.Condition;
+import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.Guard;
+import finance.tradista.flow.model.Process;
+import finance.tradista.flow.model.SimpleAction;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.store.WorkflowCodec;
+import finance.tradista.flow.test.WorkflowTestObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Benchmarks of the WorkflowCodec against Java serialization, on workflows of
+ * 10, 1k and 10k statuses. The workflows are chains of statuses s0 -> s1 ->
+ * ... linked by a "next" action with a guard and a process, plus a
+ * conditional action routing s1 to s2 or s3. The guards, conditions and
+ * processes of the tests are lambdas, which Java serialization cannot write,
+ * so the benchmark defines its own. The size of the encoded workflows
+ * compared to the serialized ones is checked by the tests.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowCodecBenchmark {
+
+	public static class BenchmarkGuard extends Guard<WorkflowTestObject> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean test(WorkflowTestObject obj) {
+			return true;
+		}
+
+	}
+
+	public static class BenchmarkProcess extends Process<WorkflowTestObject> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void apply(WorkflowTestObject obj) {
+		}
+
+	}
+
+	public static class BenchmarkCondition extends Condition<WorkflowTestObject> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int apply(WorkflowTestObject obj) {
+			return 1;
+		}
+
+	}
+
+	@Param({ "10", "1000", "10000" })
+	private int statusCount;
+
+	private final WorkflowCodec codec = new WorkflowCodec();
+
+	private Workflow<WorkflowTestObject> workflow;
+
+	private ByteBuffer encoded;
+
+	private byte[] serialized;
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		workflow = new Workflow<>("codecBenchmark" + statusCount);
+		Status<WorkflowTestObject>[] statuses = new Status[statusCount];
+		for (int i = 0; i < statusCount; i++) {
+			statuses[i] = new Status<>(workflow, "s" + i);
+		}
+		for (int i = 0; i < statusCount - 1; i++) {
+			new SimpleAction<WorkflowTestObject>(workflow, "next", statuses[i], statuses[i + 1],
+					new Guard[] { new BenchmarkGuard() }, new BenchmarkProcess());
+		}
+		Map<Integer, Status> conditionalRouting = new HashMap<>();
+		conditionalRouting.put(1, statuses[2]);
+		conditionalRouting.put(2, statuses[3]);
+		new ConditionalAction<WorkflowTestObject>(workflow, statuses[1], "route", new BenchmarkCondition(),
+				conditionalRouting, statuses[2], statuses[3]);
+		encoded = codec.encode(workflow);
+		serialized = javaSerialize();
+	}
+
+	@Benchmark
+	public ByteBuffer encode() {
+		return codec.encode(workflow);
+	}
+
+	@Benchmark
+	public Workflow<WorkflowTestObject> decode() {
+		return codec.decode(encoded.duplicate());
+	}
+
+	@Benchmark
+	public byte[] javaSerialize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(workflow);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public Object javaDeserialize() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return in.readObject();
+		}
+	}
+
+}
\ No newline at end of file
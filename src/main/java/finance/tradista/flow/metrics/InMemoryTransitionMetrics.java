@@ -0,0 +1,121 @@
+package finance.tradista.flow.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Transition metrics kept in memory: counts and latency histograms per
+ * workflow, action and step, queryable at runtime.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public class InMemoryTransitionMetrics implements TransitionMetrics {
+
+	private static final class Key {
+
+		private final String workflow;
+
+		private final String action;
+
+		private final Step step;
+
+		private final String name;
+
+		private Key(String workflow, String action, Step step, String name) {
+			this.workflow = workflow;
+			this.action = action;
+			this.step = step;
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(workflow, action, step, name);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key other))
+				return false;
+			return Objects.equals(workflow, other.workflow) && Objects.equals(action, other.action)
+					&& step == other.step && Objects.equals(name, other.name);
+		}
+
+	}
+
+	private final ConcurrentMap<Key, StepMetrics> metrics = new ConcurrentHashMap<>();
+
+	@Override
+	public void record(String workflow, String action, Step step, String name, long durationNanos,
+			boolean success) {
+		metrics.computeIfAbsent(new Key(workflow, action, step, name), _ -> new StepMetrics(workflow, action, step, name))
+				.record(durationNanos, success);
+	}
+
+	/**
+	 * Gets all the step metrics recorded so far.
+	 * 
+	 * @return the step metrics
+	 */
+	public List<StepMetrics> getMetrics() {
+		return new ArrayList<>(metrics.values());
+	}
+
+	/**
+	 * Gets the step metrics of a workflow action. A null action gives the metrics
+	 * of the workflow lookup.
+	 * 
+	 * @param workflow the name of the workflow
+	 * @param action   the name of the action
+	 * @return the step metrics of the action
+	 */
+	public List<StepMetrics> getMetrics(String workflow, String action) {
+		return metrics.values().stream()
+				.filter(m -> Objects.equals(workflow, m.getWorkflow()) && Objects.equals(action, m.getAction()))
+				.toList();
+	}
+
+	/**
+	 * Gets the metrics of a step.
+	 * 
+	 * @param workflow the name of the workflow
+	 * @param action   the name of the action, null for the workflow lookup
+	 * @param step     the step
+	 * @param name     the name of the guard, condition or process, the name of
+	 *                 the workflow for the workflow lookup
+	 * @return the metrics of the step, null if the step was never recorded
+	 */
+	public StepMetrics getMetrics(String workflow, String action, Step step, String name) {
+		return metrics.get(new Key(workflow, action, step, name));
+	}
+
+	/**
+	 * Removes all the recorded metrics.
+	 */
+	public void reset() {
+		metrics.clear();
+	}
+
+}
\ No newline at end of file
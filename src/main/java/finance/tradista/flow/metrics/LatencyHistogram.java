@@ -0,0 +1,158 @@
+package finance.tradista.flow.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Thread-safe histogram of latencies, in nanoseconds. Like HdrHistogram, values
+ * are counted in log-linear buckets: each power of two is split in 32 linear
+ * sub buckets, so recorded values are kept with a relative precision of about
+ * 3%, from 1 ns up to Long.MAX_VALUE, in a fixed amount of memory.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAdder totalCount = new LongAdder();
+
+	private final LongAdder totalValue = new LongAdder();
+
+	private final LongAccumulator minValue = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+	private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 * 
+	 * @param value the value to record, in nanoseconds
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.increment();
+		totalValue.add(value);
+		minValue.accumulate(value);
+		maxValue.accumulate(value);
+	}
+
+	public long getCount() {
+		return totalCount.sum();
+	}
+
+	/**
+	 * Gets the minimum recorded value.
+	 * 
+	 * @return the minimum recorded value, 0 if no value was recorded
+	 */
+	public long getMin() {
+		return getCount() == 0 ? 0 : minValue.get();
+	}
+
+	public long getMax() {
+		return maxValue.get();
+	}
+
+	/**
+	 * Gets the mean of the recorded values.
+	 * 
+	 * @return the mean of the recorded values, 0 if no value was recorded
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) totalValue.sum() / count;
+	}
+
+	/**
+	 * Gets the value at a given percentile, for instance 99 for the 99th
+	 * percentile. The returned value is the highest value of the bucket
+	 * containing the percentile, so it is precise within the bucket precision.
+	 * 
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the value at the given percentile, 0 if no value was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+		}
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long cumulatedCount = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulatedCount += counts.get(i);
+			if (cumulatedCount >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Resets the histogram. Values recorded during the reset may be partially
+	 * lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.reset();
+		totalValue.reset();
+		minValue.reset();
+		maxValue.reset();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long highestValueOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long lowestValue = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+		return lowestValue + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, min=%d, mean=%.1f, p50=%d, p99=%d, max=%d (ns)", getCount(), getMin(),
+				getMean(), getValueAtPercentile(50), getValueAtPercentile(99), getMax());
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package finance.tradista.flow.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import finance.tradista.flow.metrics.TransitionMetrics.Step;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Metrics of a step (a guard, a condition, a process or the workflow lookup)
+ * for a given workflow and action: count of executions and failures, and
+ * latency histogram.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class StepMetrics {
+
+	private final String workflow;
+
+	private final String action;
+
+	private final Step step;
+
+	private final String name;
+
+	private final LongAdder failureCount = new LongAdder();
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	StepMetrics(String workflow, String action, Step step, String name) {
+		this.workflow = workflow;
+		this.action = action;
+		this.step = step;
+		this.name = name;
+	}
+
+	void record(long durationNanos, boolean success) {
+		latencies.record(durationNanos);
+		if (!success) {
+			failureCount.increment();
+		}
+	}
+
+	public String getWorkflow() {
+		return workflow;
+	}
+
+	/**
+	 * Gets the name of the action.
+	 * 
+	 * @return the name of the action, null for the workflow lookup
+	 */
+	public String getAction() {
+		return action;
+	}
+
+	public Step getStep() {
+		return step;
+	}
+
+	/**
+	 * Gets the name of the guard, condition or process.
+	 * 
+	 * @return the name of the guard, condition or process, the name of the
+	 *         workflow for the workflow lookup
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return latencies.getCount();
+	}
+
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s %s %s: failures=%d, %s", workflow, action, step, name, getFailureCount(),
+				latencies);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package finance.tradista.flow.metrics;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Metrics of the transitions performed by the WorkflowManager. The
+ * WorkflowManager calls it after the workflow lookup and after each guard,
+ * condition and process, with the time it took. Implementations must be
+ * thread-safe and fast, they are called in the transition hot path.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public interface TransitionMetrics {
+
+	/**
+	 * The steps of a transition.
+	 */
+	enum Step {
+		/**
+		 * Lookup of the workflow in the workflow cache, including its loading in
+		 * case of cache miss.
+		 */
+		WORKFLOW_LOOKUP,
+		/**
+		 * Test of a guard.
+		 */
+		GUARD,
+		/**
+		 * Application of a condition.
+		 */
+		CONDITION,
+		/**
+		 * Application of a process.
+		 */
+		PROCESS
+	}
+
+	/**
+	 * Metrics doing nothing, used by default.
+	 */
+	TransitionMetrics NOOP = (_, _, _, _, _, _) -> {
+	};
+
+	/**
+	 * Records a transition step.
+	 * 
+	 * @param workflow      the name of the workflow
+	 * @param action        the name of the action, null for the workflow lookup
+	 * @param step          the step
+	 * @param name          the name of the guard, condition or process, the name
+	 *                      of the workflow for the workflow lookup
+	 * @param durationNanos the duration of the step, in nanoseconds
+	 * @param success       false if the step raised an exception
+	 */
+	void record(String workflow, String action, Step step, String name, long durationNanos, boolean success);
+
+}
\ No newline at end of file
@@ -1,11 +1,13 @@
 package finance.tradista.flow.model;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import finance.tradista.flow.util.TradistaFlowUtil;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -39,6 +41,7 @@ import jakarta.persistence.OrderBy;
  *
  */
 @Entity
+@Cacheable
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class Action<X extends WorkflowObject> extends TradistaFlowObject {
 
@@ -91,6 +94,9 @@ public abstract class Action<X extends WorkflowObject> extends TradistaFlowObjec
 
 	@SuppressWarnings("unchecked")
 	public Status<X> getDepartureStatus() {
+		if (isFrozen()) {
+			return departureStatus;
+		}
 		return TradistaFlowUtil.clone(departureStatus);
 	}
 
@@ -100,29 +106,47 @@ public abstract class Action<X extends WorkflowObject> extends TradistaFlowObjec
 	}
 
 	public void setWorkflow(Workflow<X> workflow) {
+		checkNotFrozen();
 		this.workflow = workflow;
 	}
 
 	public void setName(String name) {
+		checkNotFrozen();
 		this.name = name;
 	}
 
 	public void setDepartureStatus(Status<X> departureStatus) {
+		checkNotFrozen();
 		this.departureStatus = departureStatus;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public Set<Guard> getGuards() {
+		if (isFrozen() && guards != null) {
+			return Collections.unmodifiableSet(guards);
+		}
 		return guards;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void setGuards(Set<Guard> guards) {
+		checkNotFrozen();
 		this.guards = guards;
 	}
 
 	public abstract boolean isDepartureStatus(Status<X> status);
 
+	/**
+	 * Checks whether the given status is the departure status of this action,
+	 * without copying the departure status.
+	 * 
+	 * @param status the status to be checked
+	 * @return true if the status is the departure status of this action
+	 */
+	protected boolean hasDepartureStatus(Status<X> status) {
+		return departureStatus != null && departureStatus.equals(status);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Action<X> clone() {
@@ -150,6 +174,14 @@ public abstract class Action<X extends WorkflowObject> extends TradistaFlowObjec
 				&& Objects.equals(workflow, other.workflow);
 	}
 
+	@Override
+	void freeze() {
+		super.freeze();
+		if (departureStatus != null) {
+			departureStatus.freeze();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return name;
@@ -0,0 +1,750 @@
+package finance.tradista.flow.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Immutable form of a workflow, optimized to apply actions. It is built once
+ * from a workflow. Each status and each action name of the compiled workflow
+ * gets a dense int ordinal, and the transitions available from a status (an
+ * action applied from this status) are stored in int-indexed tables. Guards,
+ * processes, arrival status or condition and routing of the transitions are
+ * resolved at compilation time.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class CompiledWorkflow<X extends WorkflowObject> {
+
+	private final String name;
+
+	private final long version;
+
+	private final Status<X>[] statuses;
+
+	private final Map<String, Integer> statusOrdinals;
+
+	private final String[] actionNames;
+
+	private final Map<String, Integer> actionOrdinals;
+
+	/*
+	 * Transitions available from the status of ordinal s are stored between
+	 * indexes transitionOffsets[s] (inclusive) and transitionOffsets[s + 1]
+	 * (exclusive) of transitionActions and transitions.
+	 */
+	private final int[] transitionOffsets;
+
+	private final int[] transitionActions;
+
+	private final Transition<X>[] transitions;
+
+	/*
+	 * Open addressing table of the transitions, keyed by the ordinals of their
+	 * departure status and action: a slot holds the index of a transition in
+	 * transitions + 1, 0 if it is empty. The table has at least twice as many
+	 * slots as transitions, so a transition is found in constant time whatever
+	 * the number of actions available from its status.
+	 */
+	private final int[] transitionTable;
+
+	private final Set<String>[] availableActions;
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private CompiledWorkflow(String name, long version, Status<X>[] statuses, String[] actionNames,
+			List<TransitionDefinition<X>> definitions) {
+		this.name = name;
+		this.version = version;
+		this.statuses = statuses;
+		this.actionNames = actionNames;
+		statusOrdinals = ordinals(Arrays.stream(statuses).map(Status::getName).toArray(String[]::new));
+		actionOrdinals = ordinals(actionNames);
+		transitionOffsets = new int[statuses.length + 1];
+		for (TransitionDefinition<X> def : definitions) {
+			transitionOffsets[def.departureOrdinal + 1]++;
+		}
+		for (int i = 0; i < statuses.length; i++) {
+			transitionOffsets[i + 1] += transitionOffsets[i];
+		}
+		int[] next = Arrays.copyOf(transitionOffsets, statuses.length);
+		transitionActions = new int[definitions.size()];
+		transitions = new Transition[definitions.size()];
+		int tableSize = 2;
+		while (tableSize < definitions.size() * 2) {
+			tableSize <<= 1;
+		}
+		transitionTable = new int[tableSize];
+		for (TransitionDefinition<X> def : definitions) {
+			int actionOrdinal = actionOrdinals.get(def.name);
+			int index = next[def.departureOrdinal]++;
+			transitionActions[index] = actionOrdinal;
+			transitions[index] = new Transition<>(this, def, actionOrdinal);
+			int slot = slot(def.departureOrdinal, actionOrdinal);
+			while (transitionTable[slot] != 0) {
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			transitionTable[slot] = index + 1;
+		}
+		availableActions = new Set[statuses.length];
+		for (int s = 0; s < statuses.length; s++) {
+			String[] names = new String[transitionOffsets[s + 1] - transitionOffsets[s]];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = actionNames[transitionActions[transitionOffsets[s] + i]];
+			}
+			availableActions[s] = Set.of(names);
+		}
+	}
+
+	private int slot(int statusOrdinal, int actionOrdinal) {
+		int hash = statusOrdinal * 0x9E3779B9 + actionOrdinal;
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		return hash & (transitionTable.length - 1);
+	}
+
+	private static Map<String, Integer> ordinals(String[] names) {
+		Map<String, Integer> ordinals = new HashMap<>(names.length * 2);
+		for (int i = 0; i < names.length; i++) {
+			ordinals.put(names[i], i);
+		}
+		return Collections.unmodifiableMap(ordinals);
+	}
+
+	/**
+	 * Compiles a workflow. The statuses of a frozen workflow are shared with the
+	 * compiled workflow and set as is on the objects moved through it. A frozen
+	 * workflow is compiled as is, otherwise a frozen clone of the workflow is
+	 * compiled, so the given workflow can still be modified.
+	 * 
+	 * @param workflow the workflow to compile
+	 * @return the compiled workflow
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static <X extends WorkflowObject> CompiledWorkflow<X> compile(Workflow<X> workflow) {
+		if (!workflow.isFrozen()) {
+			workflow = workflow.clone();
+			workflow.freeze();
+		}
+		// Statuses and actions are sorted by name so compiling a given workflow always
+		// gives the same ordinals.
+		Status<X>[] statuses = workflow.getStatus().stream().filter(s -> !(s instanceof PseudoStatus))
+				.sorted(Comparator.comparing(Status::getName)).toArray(Status[]::new);
+		Map<String, Integer> statusOrdinals = ordinals(
+				Arrays.stream(statuses).map(Status::getName).toArray(String[]::new));
+		List<TransitionDefinition<X>> definitions = new ArrayList<>();
+		Set<String> keys = new HashSet<>();
+		for (Action<X> action : workflow.getActions()) {
+			if (action instanceof SimpleAction<X> simpleAction) {
+				TransitionDefinition<X> def = new TransitionDefinition<>();
+				def.name = simpleAction.getName();
+				def.departureOrdinal = statusOrdinals.get(simpleAction.getDepartureStatus().getName());
+				def.guards = guards(simpleAction.getGuards(), null);
+				def.processes = processes(simpleAction.getProcesses());
+				def.arrivalOrdinal = statusOrdinals.get(simpleAction.getArrivalStatus().getName());
+				addDefinition(definitions, keys, def);
+			} else {
+				ConditionalAction<X> condAction = (ConditionalAction<X>) action;
+				Status<X> choicePseudoStatus = condAction.getChoicePseudoStatus();
+				List<SimpleAction<X>> departureActions = new ArrayList<>();
+				Map<String, List<Process<X>>> processesByArrivalStatus = new HashMap<>();
+				for (SimpleAction<X> sa : condAction.getConditionalActions()) {
+					if (choicePseudoStatus.equals(sa.getDepartureStatus())) {
+						processesByArrivalStatus.put(sa.getArrivalStatus().getName(), processes(sa.getProcesses()));
+					} else {
+						departureActions.add(sa);
+					}
+				}
+				Map<Integer, Status> conditionalRouting = condAction.getConditionalRouting() != null
+						? new TreeMap<>(condAction.getConditionalRouting())
+						: Map.of();
+				int[] routingResults = new int[conditionalRouting.size()];
+				int[] routingArrivals = new int[conditionalRouting.size()];
+				List<Process<X>>[] routingProcesses = new List[conditionalRouting.size()];
+				int i = 0;
+				for (Map.Entry<Integer, Status> entry : conditionalRouting.entrySet()) {
+					String arrivalStatusName = entry.getValue().getName();
+					routingResults[i] = entry.getKey();
+					routingArrivals[i] = statusOrdinals.get(arrivalStatusName);
+					routingProcesses[i] = processesByArrivalStatus.getOrDefault(arrivalStatusName, List.of());
+					i++;
+				}
+				for (SimpleAction<X> departureAction : departureActions) {
+					TransitionDefinition<X> def = new TransitionDefinition<>();
+					def.name = departureAction.getName();
+					def.departureOrdinal = statusOrdinals.get(departureAction.getDepartureStatus().getName());
+					def.guards = guards(condAction.getGuards(), departureAction.getGuards());
+					def.arrivalOrdinal = -1;
+					def.condition = condAction.getCondition();
+					def.routingResults = routingResults;
+					def.routingArrivals = routingArrivals;
+					def.routingProcesses = routingProcesses;
+					addDefinition(definitions, keys, def);
+				}
+			}
+		}
+		String[] actionNames = definitions.stream().map(d -> d.name).distinct().sorted().toArray(String[]::new);
+		return new CompiledWorkflow<>(workflow.getName(), workflow.getVersion(), statuses, actionNames, definitions);
+	}
+
+	private static <X extends WorkflowObject> void addDefinition(List<TransitionDefinition<X>> definitions,
+			Set<String> keys, TransitionDefinition<X> def) {
+		// In case of duplicates, the first transition found is kept.
+		if (keys.add(def.departureOrdinal + ":" + def.name)) {
+			definitions.add(def);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static <X extends WorkflowObject> List<Guard<X>> guards(Set<Guard> actionGuards,
+			Set<Guard> departureGuards) {
+		List<Guard<X>> guards = new ArrayList<>();
+		if (actionGuards != null) {
+			actionGuards.stream().filter(Objects::nonNull).forEach(g -> guards.add(g));
+		}
+		if (departureGuards != null) {
+			departureGuards.stream().filter(Objects::nonNull).forEach(g -> guards.add(g));
+		}
+		return Collections.unmodifiableList(guards);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static <X extends WorkflowObject> List<Process<X>> processes(Set<Process> processes) {
+		if (processes == null) {
+			return List.of();
+		}
+		return (List<Process<X>>) (List) processes.stream().filter(Objects::nonNull).toList();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the version of the workflow this compiled workflow was built from.
+	 * 
+	 * @return the version of the workflow
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the number of statuses of the compiled workflow. Status ordinals range
+	 * from 0 to this number (exclusive).
+	 * 
+	 * @return the number of statuses
+	 */
+	public int getStatusCount() {
+		return statuses.length;
+	}
+
+	/**
+	 * Gets the number of distinct action names of the compiled workflow. Action
+	 * ordinals range from 0 to this number (exclusive).
+	 * 
+	 * @return the number of distinct action names
+	 */
+	public int getActionCount() {
+		return actionNames.length;
+	}
+
+	/**
+	 * Gets a status given its ordinal.
+	 * 
+	 * @param ordinal the ordinal of the status
+	 * @return the status
+	 */
+	public Status<X> getStatus(int ordinal) {
+		return statuses[ordinal];
+	}
+
+	/**
+	 * Gets the ordinal of a status given its name.
+	 * 
+	 * @param statusName the name of the status
+	 * @return the ordinal of the status, -1 if the status doesn't exist
+	 */
+	public int getStatusOrdinal(String statusName) {
+		Integer ordinal = statusName != null ? statusOrdinals.get(statusName) : null;
+		return ordinal != null ? ordinal : -1;
+	}
+
+	/**
+	 * Gets an action name given its ordinal.
+	 * 
+	 * @param ordinal the ordinal of the action
+	 * @return the action name
+	 */
+	public String getActionName(int ordinal) {
+		return actionNames[ordinal];
+	}
+
+	/**
+	 * Gets the ordinal of an action given its name.
+	 * 
+	 * @param actionName the name of the action
+	 * @return the ordinal of the action, -1 if the action doesn't exist
+	 */
+	public int getActionOrdinal(String actionName) {
+		Integer ordinal = actionName != null ? actionOrdinals.get(actionName) : null;
+		return ordinal != null ? ordinal : -1;
+	}
+
+	/**
+	 * Gets the transition corresponding to an action applied from a given status.
+	 * 
+	 * @param statusOrdinal the ordinal of the status from where the action is
+	 *                      applied
+	 * @param actionOrdinal the ordinal of the action
+	 * @return the transition, null if the action is not available from the status
+	 */
+	public Transition<X> getTransition(int statusOrdinal, int actionOrdinal) {
+		if (statusOrdinal < 0 || statusOrdinal >= statuses.length || actionOrdinal < 0) {
+			return null;
+		}
+		int mask = transitionTable.length - 1;
+		for (int slot = slot(statusOrdinal, actionOrdinal);; slot = (slot + 1) & mask) {
+			int index = transitionTable[slot] - 1;
+			if (index < 0) {
+				return null;
+			}
+			// The transitions of the status are stored between its offsets
+			if (transitionActions[index] == actionOrdinal && index >= transitionOffsets[statusOrdinal]
+					&& index < transitionOffsets[statusOrdinal + 1]) {
+				return transitions[index];
+			}
+		}
+	}
+
+	/**
+	 * Gets the transitions available from a given status.
+	 * 
+	 * @param statusOrdinal the ordinal of the status
+	 * @return the transitions available from the status, an empty list if there
+	 *         is none or if the ordinal is invalid
+	 */
+	public List<Transition<X>> getTransitions(int statusOrdinal) {
+		if (statusOrdinal < 0 || statusOrdinal >= statuses.length) {
+			return List.of();
+		}
+		return Collections.unmodifiableList(Arrays.asList(transitions).subList(transitionOffsets[statusOrdinal],
+				transitionOffsets[statusOrdinal + 1]));
+	}
+
+	/**
+	 * Gets the transition corresponding to an action applied from a given status.
+	 * 
+	 * @param status     the status from where the action is applied
+	 * @param actionName the name of the action
+	 * @return the transition, null if the action is not available from the status
+	 */
+	public Transition<X> getTransition(Status<X> status, String actionName) {
+		if (status == null) {
+			return null;
+		}
+		return getTransition(getStatusOrdinal(status.getName()), getActionOrdinal(actionName));
+	}
+
+	/**
+	 * Gets the names of the actions available from a given status.
+	 * 
+	 * @param status the status from where actions are searched
+	 * @return the names of the available actions, an empty set if there is none
+	 */
+	public Set<String> getAvailableActions(Status<X> status) {
+		return getAvailableActions(status != null ? getStatusOrdinal(status.getName()) : -1);
+	}
+
+	/**
+	 * Gets the names of the actions available from a given status.
+	 * 
+	 * @param statusOrdinal the ordinal of the status from where actions are
+	 *                      searched
+	 * @return the names of the available actions, an empty set if there is none
+	 *         or if the ordinal is invalid
+	 */
+	public Set<String> getAvailableActions(int statusOrdinal) {
+		if (statusOrdinal < 0 || statusOrdinal >= statuses.length) {
+			return Set.of();
+		}
+		return availableActions[statusOrdinal];
+	}
+
+	/**
+	 * Builds a compiled workflow without workflow entities, for instance from a
+	 * workflow store. Statuses and transitions are referenced by ordinal: the
+	 * ordinal of a status is its index in the status names given to the builder.
+	 * 
+	 * @author Olivier Asuncion
+	 *
+	 */
+	public static final class Builder<X extends WorkflowObject> {
+
+		private final String name;
+
+		private final Status<X>[] statuses;
+
+		private final List<TransitionDefinition<X>> definitions = new ArrayList<>();
+
+		private final Set<String> keys = new HashSet<>();
+
+		private long version;
+
+		/**
+		 * Creates a builder of compiled workflow.
+		 * 
+		 * @param name        the name of the workflow
+		 * @param statusNames the names of the statuses of the workflow, pseudo
+		 *                    statuses excluded
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public Builder(String name, String... statusNames) {
+			if (name == null) {
+				throw new IllegalArgumentException("The workflow name cannot be null.");
+			}
+			this.name = name;
+			// The statuses belong to a frozen workflow with the same name, so they are
+			// equal to the statuses of the stored workflow.
+			Workflow<X> workflow = new Workflow<>(name);
+			statuses = new Status[statusNames.length];
+			for (int i = 0; i < statusNames.length; i++) {
+				statuses[i] = new Status<>(workflow, statusNames[i]);
+			}
+			workflow.freeze();
+		}
+
+		/**
+		 * Adds a simple transition.
+		 * 
+		 * @param actionName       the name of the action
+		 * @param departureOrdinal the ordinal of the departure status
+		 * @param guards           the guards of the transition, in execution order
+		 * @param processes        the processes of the transition, in execution
+		 *                         order
+		 * @param arrivalOrdinal   the ordinal of the arrival status
+		 * @return this builder
+		 */
+		public Builder<X> addTransition(String actionName, int departureOrdinal, List<Guard<X>> guards,
+				List<Process<X>> processes, int arrivalOrdinal) {
+			TransitionDefinition<X> def = newDefinition(actionName, departureOrdinal, guards);
+			checkOrdinal(arrivalOrdinal);
+			def.processes = processes != null ? List.copyOf(processes) : List.of();
+			def.arrivalOrdinal = arrivalOrdinal;
+			addDefinition(definitions, keys, def);
+			return this;
+		}
+
+		/**
+		 * Adds a conditional transition.
+		 * 
+		 * @param actionName       the name of the action
+		 * @param departureOrdinal the ordinal of the departure status
+		 * @param guards           the guards of the transition, in execution order
+		 * @param condition        the condition of the transition
+		 * @param routingResults   the results of the condition
+		 * @param routingArrivals  the ordinals of the arrival statuses of the
+		 *                         results
+		 * @param routingProcesses the processes executed for each result
+		 * @return this builder
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public Builder<X> addConditionalTransition(String actionName, int departureOrdinal, List<Guard<X>> guards,
+				Condition<X> condition, int[] routingResults, int[] routingArrivals,
+				List<List<Process<X>>> routingProcesses) {
+			if (condition == null) {
+				throw new IllegalArgumentException("The condition cannot be null.");
+			}
+			if (routingResults.length != routingArrivals.length || routingResults.length != routingProcesses.size()) {
+				throw new IllegalArgumentException("The routing arrays must have the same length.");
+			}
+			TransitionDefinition<X> def = newDefinition(actionName, departureOrdinal, guards);
+			for (int arrivalOrdinal : routingArrivals) {
+				checkOrdinal(arrivalOrdinal);
+			}
+			def.arrivalOrdinal = -1;
+			def.condition = condition;
+			def.routingResults = routingResults.clone();
+			def.routingArrivals = routingArrivals.clone();
+			def.routingProcesses = new List[routingProcesses.size()];
+			for (int i = 0; i < def.routingProcesses.length; i++) {
+				List<Process<X>> processes = routingProcesses.get(i);
+				def.routingProcesses[i] = processes != null ? List.copyOf(processes) : List.of();
+			}
+			addDefinition(definitions, keys, def);
+			return this;
+		}
+
+		/**
+		 * Sets the version of the workflow, 0 by default.
+		 * 
+		 * @param version the version of the workflow
+		 * @return this builder
+		 */
+		public Builder<X> setVersion(long version) {
+			this.version = version;
+			return this;
+		}
+
+		public CompiledWorkflow<X> build() {
+			String[] actionNames = definitions.stream().map(d -> d.name).distinct().sorted().toArray(String[]::new);
+			return new CompiledWorkflow<>(name, version, statuses, actionNames, definitions);
+		}
+
+		private TransitionDefinition<X> newDefinition(String actionName, int departureOrdinal,
+				List<Guard<X>> guards) {
+			if (actionName == null) {
+				throw new IllegalArgumentException("The action name cannot be null.");
+			}
+			checkOrdinal(departureOrdinal);
+			TransitionDefinition<X> def = new TransitionDefinition<>();
+			def.name = actionName;
+			def.departureOrdinal = departureOrdinal;
+			def.guards = guards != null ? List.copyOf(guards) : List.of();
+			return def;
+		}
+
+		private void checkOrdinal(int ordinal) {
+			if (ordinal < 0 || ordinal >= statuses.length) {
+				throw new IllegalArgumentException(String.format("The status ordinal %d is invalid.", ordinal));
+			}
+		}
+
+	}
+
+	private static final class TransitionDefinition<X extends WorkflowObject> {
+
+		private String name;
+
+		private int departureOrdinal;
+
+		private List<Guard<X>> guards;
+
+		private List<Process<X>> processes;
+
+		private int arrivalOrdinal;
+
+		private Condition<X> condition;
+
+		private int[] routingResults;
+
+		private int[] routingArrivals;
+
+		private List<Process<X>>[] routingProcesses;
+
+	}
+
+	/**
+	 * A transition of a compiled workflow: an action applied from a given status.
+	 * 
+	 * @author Olivier Asuncion
+	 *
+	 */
+	public static final class Transition<X extends WorkflowObject> {
+
+		private final CompiledWorkflow<X> workflow;
+
+		private final int departureOrdinal;
+
+		private final int actionOrdinal;
+
+		private final List<Guard<X>> guards;
+
+		private final List<Process<X>> processes;
+
+		private final int arrivalOrdinal;
+
+		private final Condition<X> condition;
+
+		private final int[] routingResults;
+
+		private final int[] routingArrivals;
+
+		private final List<Process<X>>[] routingProcesses;
+
+		private Transition(CompiledWorkflow<X> workflow, TransitionDefinition<X> def, int actionOrdinal) {
+			this.workflow = workflow;
+			this.departureOrdinal = def.departureOrdinal;
+			this.actionOrdinal = actionOrdinal;
+			this.guards = def.guards;
+			this.processes = def.processes;
+			this.arrivalOrdinal = def.arrivalOrdinal;
+			this.condition = def.condition;
+			this.routingResults = def.routingResults;
+			this.routingArrivals = def.routingArrivals;
+			this.routingProcesses = def.routingProcesses;
+		}
+
+		public String getName() {
+			return workflow.getActionName(actionOrdinal);
+		}
+
+		public int getActionOrdinal() {
+			return actionOrdinal;
+		}
+
+		public Status<X> getDepartureStatus() {
+			return workflow.getStatus(departureOrdinal);
+		}
+
+		public int getDepartureOrdinal() {
+			return departureOrdinal;
+		}
+
+		/**
+		 * Gets the guards of the transition, in execution order. For a conditional
+		 * transition, the guards of the conditional action come first, followed by
+		 * the guards of the departure action.
+		 * 
+		 * @return the guards of the transition
+		 */
+		public List<Guard<X>> getGuards() {
+			return guards;
+		}
+
+		public boolean isConditional() {
+			return condition != null;
+		}
+
+		/**
+		 * Checks if the transition only moves the objects to its arrival status: it
+		 * is a simple transition without guard or process, so it can be applied
+		 * without loading the objects.
+		 * 
+		 * @return true if the transition only changes the status of the objects
+		 */
+		public boolean isStatusMoveOnly() {
+			return !isConditional() && guards.isEmpty() && processes.isEmpty();
+		}
+
+		/**
+		 * Gets the arrival status of a simple transition.
+		 * 
+		 * @return the arrival status, null if the transition is conditional
+		 */
+		public Status<X> getArrivalStatus() {
+			return arrivalOrdinal != -1 ? workflow.getStatus(arrivalOrdinal) : null;
+		}
+
+		/**
+		 * Gets the arrival status ordinal of a simple transition.
+		 * 
+		 * @return the arrival status ordinal, -1 if the transition is conditional
+		 */
+		public int getArrivalOrdinal() {
+			return arrivalOrdinal;
+		}
+
+		public Condition<X> getCondition() {
+			return condition;
+		}
+
+		/**
+		 * Gets the arrival status ordinal of a conditional transition given the
+		 * result of its condition.
+		 * 
+		 * @param res the result of the condition
+		 * @return the arrival status ordinal, -1 if the result is not routed
+		 */
+		public int getArrivalOrdinalByResult(int res) {
+			if (routingResults != null) {
+				for (int i = 0; i < routingResults.length; i++) {
+					if (routingResults[i] == res) {
+						return routingArrivals[i];
+					}
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Gets the arrival status of a conditional transition given the result of
+		 * its condition.
+		 * 
+		 * @param res the result of the condition
+		 * @return the arrival status, null if the result is not routed
+		 */
+		public Status<X> getArrivalStatusByResult(int res) {
+			int ordinal = getArrivalOrdinalByResult(res);
+			return ordinal != -1 ? workflow.getStatus(ordinal) : null;
+		}
+
+		/**
+		 * Gets the number of results routed by the condition of a conditional
+		 * transition.
+		 * 
+		 * @return the number of routed results, 0 if the transition is simple
+		 */
+		public int getRoutingCount() {
+			return routingResults != null ? routingResults.length : 0;
+		}
+
+		/**
+		 * Gets a result routed by the condition of a conditional transition.
+		 * 
+		 * @param index the index of the routing, between 0 and getRoutingCount()
+		 *              (exclusive)
+		 * @return the result of the condition
+		 */
+		public int getRoutingResult(int index) {
+			return routingResults[index];
+		}
+
+		/**
+		 * Gets the arrival status ordinal of a routing of a conditional transition.
+		 * 
+		 * @param index the index of the routing, between 0 and getRoutingCount()
+		 *              (exclusive)
+		 * @return the arrival status ordinal
+		 */
+		public int getRoutingArrivalOrdinal(int index) {
+			return routingArrivals[index];
+		}
+
+		/**
+		 * Gets the processes to execute when the transition leads to a given arrival
+		 * status.
+		 * 
+		 * @param arrivalOrdinal the ordinal of the arrival status
+		 * @return the processes to execute, an empty list if there is none
+		 */
+		public List<Process<X>> getProcesses(int arrivalOrdinal) {
+			if (!isConditional()) {
+				return processes;
+			}
+			for (int i = 0; i < routingArrivals.length; i++) {
+				if (routingArrivals[i] == arrivalOrdinal) {
+					return routingProcesses[i];
+				}
+			}
+			return List.of();
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package finance.tradista.flow.model;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
@@ -8,6 +9,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import finance.tradista.flow.util.TradistaFlowUtil;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -189,16 +191,21 @@ public class ConditionalAction<X extends WorkflowObject> extends Action<X> {
 	}
 
 	public void setCondition(Condition<X> condition) {
+		checkNotFrozen();
 		this.condition = condition;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public Map<Integer, Status> getConditionalRouting() {
+		if (isFrozen() && conditionalRouting != null) {
+			return Collections.unmodifiableMap(conditionalRouting);
+		}
 		return conditionalRouting;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void setConditionalRouting(Map<Integer, Status> conditionalRouting) {
+		checkNotFrozen();
 		this.conditionalRouting = conditionalRouting;
 	}
 
@@ -213,16 +220,21 @@ public class ConditionalAction<X extends WorkflowObject> extends Action<X> {
 	}
 
 	public void setChoicePseudoStatus(Status<X> choicePseudoStatus) {
+		checkNotFrozen();
 		this.choicePseudoStatus = choicePseudoStatus;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public Set<SimpleAction> getConditionalActions() {
+		if (isFrozen() && conditionalActions != null) {
+			return Collections.unmodifiableSet(conditionalActions);
+		}
 		return conditionalActions;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void setConditionalActions(Set<SimpleAction> conditionalActions) {
+		checkNotFrozen();
 		this.conditionalActions = conditionalActions;
 	}
 
@@ -260,6 +272,30 @@ public class ConditionalAction<X extends WorkflowObject> extends Action<X> {
 		return null;
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public ConditionalAction<X> clone() {
+		ConditionalAction<X> action = (ConditionalAction<X>) super.clone();
+		action.choicePseudoStatus = TradistaFlowUtil.clone(choicePseudoStatus);
+		action.conditionalRouting = (Map<Integer, Status>) TradistaFlowUtil.deepCopy(conditionalRouting);
+		action.conditionalActions = (Set<SimpleAction>) TradistaFlowUtil.deepCopy(conditionalActions);
+		return action;
+	}
+
+	@Override
+	void freeze() {
+		super.freeze();
+		if (choicePseudoStatus != null) {
+			choicePseudoStatus.freeze();
+		}
+		if (conditionalRouting != null) {
+			conditionalRouting.values().forEach(TradistaFlowObject::freeze);
+		}
+		if (conditionalActions != null) {
+			conditionalActions.forEach(TradistaFlowObject::freeze);
+		}
+	}
+
 	@Override
 	public boolean isConnectedToPseudoStatus() {
 		return false;
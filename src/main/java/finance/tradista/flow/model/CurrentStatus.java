@@ -0,0 +1,81 @@
+package finance.tradista.flow.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Current status of an object in the transition event store, materialized
+ * from its last transition event. It is updated in the transaction appending
+ * each event, with a compare-and-set on the sequence number, so that the
+ * current state of an object is read from a single row, whatever the number of
+ * its events.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@Entity
+public class CurrentStatus extends TradistaFlowObject {
+
+	private static final long serialVersionUID = 6208475133162946902L;
+
+	@Column(unique = true, nullable = false)
+	private String objectKey;
+
+	private String workflowName;
+
+	private String statusName;
+
+	private long sequenceNumber;
+
+	public CurrentStatus(String objectKey, String workflowName, String statusName, long sequenceNumber) {
+		this.objectKey = objectKey;
+		this.workflowName = workflowName;
+		this.statusName = statusName;
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	protected CurrentStatus() {
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getStatusName() {
+		return statusName;
+	}
+
+	/**
+	 * Gets the sequence number of the last event of the object.
+	 * 
+	 * @return the sequence number of the last event
+	 */
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s in %s (event: %d)", objectKey, statusName, workflowName, sequenceNumber);
+	}
+
+}
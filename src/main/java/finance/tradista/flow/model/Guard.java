@@ -2,6 +2,7 @@ package finance.tradista.flow.model;
 
 import java.util.Objects;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Transient;
 
@@ -28,6 +29,7 @@ import jakarta.persistence.Transient;
  *
  */
 @Entity
+@Cacheable
 public class Guard<X extends WorkflowObject> extends TradistaFlowObject {
 
 	private static final long serialVersionUID = 3817044564143531144L;
@@ -0,0 +1,30 @@
+package finance.tradista.flow.model;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * 
+ * Used to mark a guard as side-effect free: the guard doesn't modify the
+ * objects it tests. When applying an action, the object is not copied again
+ * after the evaluation of a read-only guard, so read-only guards are all
+ * evaluated against the same copy of the object.
+ * 
+ * @author Olivier Asuncion
+ */
+public interface ReadOnlyGuard {
+
+}
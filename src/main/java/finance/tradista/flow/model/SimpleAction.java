@@ -1,6 +1,7 @@
 package finance.tradista.flow.model;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -121,20 +122,28 @@ public class SimpleAction<X extends WorkflowObject> extends Action<X> {
 
 	@SuppressWarnings("unchecked")
 	public Status<X> getArrivalStatus() {
+		if (isFrozen()) {
+			return arrivalStatus;
+		}
 		return TradistaFlowUtil.clone(arrivalStatus);
 	}
 
 	public void setArrivalStatus(Status<X> arrivalStatus) {
+		checkNotFrozen();
 		this.arrivalStatus = arrivalStatus;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public Set<Process> getProcesses() {
+		if (isFrozen() && processes != null) {
+			return Collections.unmodifiableSet(processes);
+		}
 		return processes;
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void setProcesses(Set<Process> processes) {
+		checkNotFrozen();
 		this.processes = processes;
 	}
 
@@ -147,7 +156,9 @@ public class SimpleAction<X extends WorkflowObject> extends Action<X> {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(arrivalStatus, getDepartureStatus(), getName(), getWorkflow());
+		// Relies on Action.hashCode, which uses the departure status without copying
+		// it.
+		return Objects.hash(super.hashCode(), arrivalStatus);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -160,9 +171,15 @@ public class SimpleAction<X extends WorkflowObject> extends Action<X> {
 		if (getClass() != obj.getClass())
 			return false;
 		SimpleAction<X> other = (SimpleAction<X>) obj;
-		return Objects.equals(arrivalStatus, other.arrivalStatus)
-				&& Objects.equals(getDepartureStatus(), other.getDepartureStatus())
-				&& Objects.equals(getName(), other.getName()) && Objects.equals(getWorkflow(), other.getWorkflow());
+		return super.equals(other) && Objects.equals(arrivalStatus, other.arrivalStatus);
+	}
+
+	@Override
+	void freeze() {
+		super.freeze();
+		if (arrivalStatus != null) {
+			arrivalStatus.freeze();
+		}
 	}
 
 	@Override
@@ -172,7 +189,7 @@ public class SimpleAction<X extends WorkflowObject> extends Action<X> {
 
 	@Override
 	public boolean isDepartureStatus(Status<X> status) {
-		return getDepartureStatus().equals(status);
+		return hasDepartureStatus(status);
 	}
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package finance.tradista.flow.model;
 
 import java.util.Objects;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
@@ -29,6 +30,7 @@ import jakarta.persistence.ManyToOne;
  *
  */
 @Entity
+@Cacheable
 public class Status<X extends WorkflowObject> extends TradistaFlowObject {
 
 	private static final long serialVersionUID = -2572527032257168988L;
@@ -45,6 +47,7 @@ public class Status<X extends WorkflowObject> extends TradistaFlowObject {
 	}
 
 	public void setWorkflow(Workflow<X> workflow) {
+		checkNotFrozen();
 		this.workflow = workflow;
 	}
 
@@ -71,6 +74,7 @@ public class Status<X extends WorkflowObject> extends TradistaFlowObject {
 	}
 
 	public void setName(String name) {
+		checkNotFrozen();
 		this.name = name;
 	}
 
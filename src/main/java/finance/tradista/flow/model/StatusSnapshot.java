@@ -0,0 +1,95 @@
+package finance.tradista.flow.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Snapshot of the status of an object after one of its transition events, so
+ * that its status can be rebuilt without reading all its events. Snapshots are
+ * never updated.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "objectKey", "sequenceNumber" }))
+public class StatusSnapshot extends TradistaFlowObject {
+
+	private static final long serialVersionUID = -2890534785036291176L;
+
+	private String objectKey;
+
+	private long sequenceNumber;
+
+	private String workflowName;
+
+	private String statusName;
+
+	private Instant snapshotTime;
+
+	public StatusSnapshot(String objectKey, long sequenceNumber, String workflowName, String statusName,
+			Instant snapshotTime) {
+		this.objectKey = objectKey;
+		this.sequenceNumber = sequenceNumber;
+		this.workflowName = workflowName;
+		this.statusName = statusName;
+		this.snapshotTime = snapshotTime;
+	}
+
+	protected StatusSnapshot() {
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	/**
+	 * Gets the sequence number of the event after which the snapshot was taken.
+	 * 
+	 * @return the sequence number of the snapshot event
+	 */
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getStatusName() {
+		return statusName;
+	}
+
+	/**
+	 * Gets the time of the event after which the snapshot was taken.
+	 * 
+	 * @return the time of the snapshot event
+	 */
+	public Instant getSnapshotTime() {
+		return snapshotTime;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s #%d: %s", objectKey, sequenceNumber, statusName);
+	}
+
+}
\ No newline at end of file
@@ -3,8 +3,11 @@ package finance.tradista.flow.model;
 import java.io.Serializable;
 
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Transient;
 
 /********************************************************************************
  * Copyright (c) 2023 Olivier Asuncion
@@ -34,10 +37,37 @@ public abstract class TradistaFlowObject implements Serializable, Cloneable {
 
 	private static final long serialVersionUID = 1547063575791139565L;
 
+	/**
+	 * Name of the generator of the TradistaFlowObject ids. The allocation size
+	 * can be changed by overriding this generator in an orm.xml mapping file.
+	 */
+	public static final String ID_GENERATOR = "tradistaFlowIdGenerator";
+
+	/**
+	 * Name of the database sequence shared by all the TradistaFlowObjects.
+	 */
+	public static final String ID_SEQUENCE = "TRADISTA_FLOW_SEQ";
+
+	/**
+	 * Default number of ids allocated per sequence call. The increment of the
+	 * sequence must be equal to the allocation size, and a sequence created for
+	 * existing rows must start at their highest id + the allocation size.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 50;
+
+	/*
+	 * All the TradistaFlowObjects share a pooled sequence: ids are allocated by
+	 * blocks of ID_ALLOCATION_SIZE, so saving a workflow with its statuses,
+	 * actions, guards and processes costs a single sequence call in most cases.
+	 */
 	@Id
-	@GeneratedValue
+	@SequenceGenerator(name = ID_GENERATOR, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_GENERATOR)
 	private Long id;
 
+	@Transient
+	private boolean frozen;
+
 	/**
 	 * Gets the id of this TradistaFlowObject. The persistence provider should auto
 	 * generate a unique id for new TradistaFlowObjects.
@@ -57,11 +87,47 @@ public abstract class TradistaFlowObject implements Serializable, Cloneable {
 		this.id = id;
 	}
 
+	/**
+	 * Checks whether this TradistaFlowObject is frozen. A frozen
+	 * TradistaFlowObject is read-only and can be shared: its getters return
+	 * shared instances instead of copies, and its setters throw an
+	 * UnsupportedOperationException.
+	 * 
+	 * @return true if this TradistaFlowObject is frozen, false otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Freezes this TradistaFlowObject.
+	 */
+	void freeze() {
+		frozen = true;
+	}
+
+	/**
+	 * Checks that this TradistaFlowObject can be modified.
+	 * 
+	 * @throws UnsupportedOperationException if this TradistaFlowObject is frozen
+	 */
+	protected void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException(
+					String.format("%s %s is frozen and cannot be modified.", getClass().getSimpleName(), this));
+		}
+	}
+
+	/**
+	 * Clones this TradistaFlowObject. The clone of a frozen TradistaFlowObject is
+	 * not frozen.
+	 */
 	@Override
 	public TradistaFlowObject clone() {
 		TradistaFlowObject clone = null;
 		try {
 			clone = (TradistaFlowObject) super.clone();
+			clone.frozen = false;
 		} catch (CloneNotSupportedException e) {
 			// Not expected, TradistaFlowObjects are subclasses are Cloneable
 		}
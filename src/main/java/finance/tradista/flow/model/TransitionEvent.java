@@ -0,0 +1,106 @@
+package finance.tradista.flow.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Immutable event recording that an action moved an object from a status to
+ * another. The events of an object are numbered from 1, without gap: the
+ * unique sequence number prevents two concurrent transitions of the same
+ * object from both being appended.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "objectKey", "sequenceNumber" }))
+public class TransitionEvent extends TradistaFlowObject {
+
+	private static final long serialVersionUID = 8034618841254378513L;
+
+	private String objectKey;
+
+	private long sequenceNumber;
+
+	private String workflowName;
+
+	private String fromStatus;
+
+	private String actionName;
+
+	private String toStatus;
+
+	private Instant eventTime;
+
+	public TransitionEvent(String objectKey, long sequenceNumber, String workflowName, String fromStatus,
+			String actionName, String toStatus, Instant eventTime) {
+		this.objectKey = objectKey;
+		this.sequenceNumber = sequenceNumber;
+		this.workflowName = workflowName;
+		this.fromStatus = fromStatus;
+		this.actionName = actionName;
+		this.toStatus = toStatus;
+		this.eventTime = eventTime;
+	}
+
+	protected TransitionEvent() {
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	/**
+	 * Gets the position of this event in the events of its object, starting at 1.
+	 * 
+	 * @return the sequence number of this event
+	 */
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getFromStatus() {
+		return fromStatus;
+	}
+
+	public String getActionName() {
+		return actionName;
+	}
+
+	public String getToStatus() {
+		return toStatus;
+	}
+
+	public Instant getEventTime() {
+		return eventTime;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s #%d: %s -(%s)-> %s at %s", objectKey, sequenceNumber, fromStatus, actionName,
+				toStatus, eventTime);
+	}
+
+}
\ No newline at end of file
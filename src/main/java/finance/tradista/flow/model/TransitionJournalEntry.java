@@ -0,0 +1,110 @@
+package finance.tradista.flow.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Entry of the transition journal: records that an action moved an object from
+ * a status to another. Entries are never updated.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@Entity
+@Table(indexes = @Index(columnList = "objectKey"))
+public class TransitionJournalEntry extends TradistaFlowObject {
+
+	private static final long serialVersionUID = -1796478230158377403L;
+
+	private String objectKey;
+
+	private String workflowName;
+
+	private String fromStatus;
+
+	private String actionName;
+
+	private String toStatus;
+
+	private Instant transitionTime;
+
+	private long durationNanos;
+
+	public TransitionJournalEntry(String objectKey, String workflowName, String fromStatus, String actionName,
+			String toStatus, Instant transitionTime, long durationNanos) {
+		this.objectKey = objectKey;
+		this.workflowName = workflowName;
+		this.fromStatus = fromStatus;
+		this.actionName = actionName;
+		this.toStatus = toStatus;
+		this.transitionTime = transitionTime;
+		this.durationNanos = durationNanos;
+	}
+
+	protected TransitionJournalEntry() {
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getFromStatus() {
+		return fromStatus;
+	}
+
+	public String getActionName() {
+		return actionName;
+	}
+
+	public String getToStatus() {
+		return toStatus;
+	}
+
+	/**
+	 * Gets the time at which the transition was completed.
+	 * 
+	 * @return the time of the transition
+	 */
+	public Instant getTransitionTime() {
+		return transitionTime;
+	}
+
+	/**
+	 * Gets the duration of the transition, guards, condition and processes
+	 * included.
+	 * 
+	 * @return the duration of the transition in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s -(%s)-> %s at %s", objectKey, fromStatus, actionName, toStatus, transitionTime);
+	}
+
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package finance.tradista.flow.model;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -10,11 +11,13 @@ import org.jgrapht.GraphTests;
 import org.jgrapht.graph.DirectedPseudograph;
 
 import finance.tradista.flow.util.TradistaFlowUtil;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 /********************************************************************************
  * Copyright (c) 2023 Olivier Asuncion
@@ -39,6 +42,7 @@ import jakarta.persistence.Transient;
  *
  */
 @Entity
+@Cacheable
 public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 
 	private static final long serialVersionUID = 3469347171038496805L;
@@ -48,6 +52,13 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 
 	private String description;
 
+	/*
+	 * Incremented each time the workflow is updated, it is used to detect
+	 * concurrent updates of the workflow.
+	 */
+	@Version
+	private long version;
+
 	@SuppressWarnings("rawtypes")
 	@Transient
 	private Graph<Status, Action> graph;
@@ -80,16 +91,31 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 	}
 
 	public void setDescription(String description) {
+		checkNotFrozen();
 		this.description = description;
 	}
 
+	/**
+	 * Gets the version of this workflow. The version is incremented each time the
+	 * workflow is updated.
+	 * 
+	 * @return the version of this workflow
+	 */
+	public long getVersion() {
+		return version;
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Set<Action> getActions() {
+		if (isFrozen()) {
+			return Collections.unmodifiableSet(actions);
+		}
 		return (Set<Action>) TradistaFlowUtil.deepCopy(actions);
 	}
 
 	@SuppressWarnings({ "unchecked"})
 	public void setActions(@SuppressWarnings("rawtypes") Set<Action> actions) {
+		checkNotFrozen();
 		graph.removeAllEdges(this.actions);
 		this.actions = actions;
 		if (actions != null) {
@@ -110,13 +136,17 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 		setActions(actions);
 	}
 
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Set<Status<X>> getStatus() {
+		if (isFrozen()) {
+			return (Set) Collections.unmodifiableSet(status);
+		}
 		return (Set<Status<X>>) TradistaFlowUtil.deepCopy(status);
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public void setStatus(Set<Status> status) {
+		checkNotFrozen();
 		graph.removeAllVertices(this.status);
 		this.status = status;
 		if (status != null) {
@@ -127,11 +157,13 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 	}
 
 	public void setName(String name) {
+		checkNotFrozen();
 		this.name = name;
 	}
 
 	@SuppressWarnings("unchecked")
 	public void addAction(Action<X> action) {
+		checkNotFrozen();
 		if (action instanceof ConditionalAction<X>
 				|| ((SimpleAction<X>) action).getArrivalStatus() != null && !action.isConnectedToPseudoStatus()) {
 			actions.add(action);
@@ -147,19 +179,62 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 	}
 
 	public void addStatus(Status<X> status) {
+		checkNotFrozen();
 		this.status.add(status);
 		graph.addVertex(status);
 	}
 
+	/**
+	 * Freezes this workflow, its statuses and its actions. A frozen workflow is
+	 * read-only: its getters return shared instances and unmodifiable views
+	 * instead of copies, and its setters throw an UnsupportedOperationException.
+	 * Frozen workflows are used by the engine to apply actions. A clone of a
+	 * frozen workflow can be used to modify it.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public void freeze() {
+		if (!isFrozen()) {
+			super.freeze();
+			status.forEach(Status::freeze);
+			actions.forEach(Action::freeze);
+			// The graph is rebuilt so that its vertices are the frozen statuses, and not
+			// copies of them.
+			buildGraph();
+		}
+	}
+
+	/**
+	 * Clones this workflow. The statuses, the actions and the graph are copied,
+	 * so the clone can be modified without affecting this workflow.
+	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	public Workflow<X> clone() {
 		Workflow<X> workflow = (Workflow<X>) super.clone();
 		workflow.status = (Set<Status>) TradistaFlowUtil.deepCopy(status);
 		workflow.actions = (Set<Action>) TradistaFlowUtil.deepCopy(actions);
+		workflow.buildGraph();
 		return workflow;
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void buildGraph() {
+		graph = new DirectedPseudograph<>(Action.class);
+		for (Status<X> s : status) {
+			graph.addVertex(s);
+		}
+		for (Action<X> action : actions) {
+			if (action instanceof SimpleAction<X> simpleAction) {
+				graph.addEdge(simpleAction.getDepartureStatus(), simpleAction.getArrivalStatus(), simpleAction);
+			} else {
+				for (SimpleAction<X> condAction : ((ConditionalAction<X>) action).getConditionalActions()) {
+					graph.addEdge(condAction.getDepartureStatus(), condAction.getArrivalStatus(), condAction);
+				}
+			}
+		}
+	}
+
 	@Transient
 	public boolean isValid() {
 		return GraphTests.isConnected(graph)
@@ -201,6 +276,9 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 
 	@SuppressWarnings("unchecked")
 	public Status<X> getTargetStatus(SimpleAction<X> action) {
+		if (isFrozen()) {
+			return graph.getEdgeTarget(action);
+		}
 		return TradistaFlowUtil.clone(graph.getEdgeTarget(action));
 	}
 
@@ -226,7 +304,10 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 	public Status<X> getInitialStatus() {
 		Status<X> status = null;
 		if (this.status != null) {
-			status = TradistaFlowUtil.clone(this.status.stream().filter(this::isInitialStatus).findFirst().get());
+			status = this.status.stream().filter(this::isInitialStatus).findFirst().get();
+			if (!isFrozen()) {
+				status = TradistaFlowUtil.clone(status);
+			}
 		}
 		return status;
 	}
@@ -235,8 +316,12 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 	public Set<Status> getFinalStatus() {
 		Set<Status> status = null;
 		if (this.status != null) {
-			status = (Set<Status>) TradistaFlowUtil
-					.deepCopy(this.status.stream().filter(this::isFinalStatus).collect(Collectors.toSet()));
+			status = this.status.stream().filter(this::isFinalStatus).collect(Collectors.toSet());
+			if (isFrozen()) {
+				status = Collections.unmodifiableSet(status);
+			} else {
+				status = (Set<Status>) TradistaFlowUtil.deepCopy(status);
+			}
 		}
 		return status;
 	}
@@ -261,11 +346,11 @@ public class Workflow<X extends WorkflowObject> extends TradistaFlowObject {
 							.filter(act -> act.isDepartureStatus(status) && act.getName().equals(actionName))
 							.count() > 0;
 					if (exists) {
-						return a.clone();
+						return isFrozen() ? a : a.clone();
 					}
 				} else {
 					if (a.getName().equals(actionName)) {
-						return a.clone();
+						return isFrozen() ? a : a.clone();
 					}
 				}
 			}
@@ -0,0 +1,82 @@
+package finance.tradista.flow.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Persisted state of an object managed by a workflow: its workflow, its
+ * current status and a version incremented at each transition. Instances are
+ * only updated by compare-and-set statements (see WorkflowInstanceStore), so
+ * concurrent transitions on the same object are detected without locking it.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@Entity
+@Table(name = "WorkflowInstance")
+public class WorkflowInstance extends TradistaFlowObject {
+
+	private static final long serialVersionUID = 4263188093612405377L;
+
+	@Column(unique = true, nullable = false)
+	private String objectKey;
+
+	private String workflowName;
+
+	private String statusName;
+
+	private long version;
+
+	public WorkflowInstance(String objectKey, String workflowName, String statusName) {
+		this.objectKey = objectKey;
+		this.workflowName = workflowName;
+		this.statusName = statusName;
+	}
+
+	protected WorkflowInstance() {
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getStatusName() {
+		return statusName;
+	}
+
+	/**
+	 * Gets the version of this instance: 0 when it is registered, incremented at
+	 * each transition.
+	 * 
+	 * @return the version of this instance
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s in %s (version: %d)", objectKey, statusName, workflowName, version);
+	}
+
+}
\ No newline at end of file
@@ -32,4 +32,42 @@ public interface WorkflowObject extends Cloneable {
 
 	WorkflowObject clone() throws CloneNotSupportedException;
 
+	/**
+	 * Gets the key identifying this object in the workflow instance store, the
+	 * transition event store and the transition journal, typically its business
+	 * id. The key must be stable: it must not change when the object is cloned or
+	 * updated. It must be overridden to use these stores, by default an
+	 * UnsupportedOperationException is thrown.
+	 * 
+	 * @return the key of this object
+	 */
+	default String getObjectKey() {
+		throw new UnsupportedOperationException(
+				String.format("%s doesn't define an object key.", getClass().getName()));
+	}
+
+	/**
+	 * Gets the version of this object in the workflow instance store, as read
+	 * from WorkflowInstance.getVersion(). When the store is used, a transition
+	 * is only committed if the stored instance still has this version. By
+	 * default, -1 is returned: only the status of the stored instance is checked.
+	 * 
+	 * @return the version of this object in the workflow instance store, -1 if
+	 *         it is not known
+	 */
+	default long getInstanceVersion() {
+		return -1;
+	}
+
+	/**
+	 * Sets the version of this object in the workflow instance store. Called by
+	 * the WorkflowManager on the updated object once its transition is committed,
+	 * when the previous version was known. It does nothing by default.
+	 * 
+	 * @param version the new version of this object in the workflow instance
+	 *                store
+	 */
+	default void setInstanceVersion(long version) {
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package finance.tradista.flow.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.lang3.StringUtils;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Applies an action to a collection of objects in parallel, with the same
+ * semantics as WorkflowManager.applyAction. Useful when guards and processes do
+ * I/O. At most "parallelism" transitions run at the same time, whatever the
+ * executor. The results are given in the iteration order of the objects.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class BatchTransitionExecutor implements AutoCloseable {
+
+	private final ExecutorService executor;
+
+	private final int parallelism;
+
+	private final boolean ownsExecutor;
+
+	/**
+	 * Creates a batch transition executor running the transitions on the given
+	 * executor. The executor is not shut down when this batch transition executor
+	 * is closed.
+	 * 
+	 * @param executor    the executor running the transitions
+	 * @param parallelism the maximum number of transitions running at the same
+	 *                    time
+	 */
+	public BatchTransitionExecutor(ExecutorService executor, int parallelism) {
+		this(executor, parallelism, false);
+	}
+
+	private BatchTransitionExecutor(ExecutorService executor, int parallelism, boolean ownsExecutor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("The executor cannot be null.");
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("The parallelism must be positive.");
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/**
+	 * Creates a batch transition executor running each transition in its own
+	 * virtual thread. Suitable for guards and processes mostly waiting for I/O.
+	 * 
+	 * @param parallelism the maximum number of transitions running at the same
+	 *                    time
+	 * @return a new batch transition executor
+	 */
+	public static BatchTransitionExecutor ofVirtualThreads(int parallelism) {
+		return new BatchTransitionExecutor(Executors.newVirtualThreadPerTaskExecutor(), parallelism, true);
+	}
+
+	/**
+	 * Creates a batch transition executor running the transitions in a dedicated
+	 * ForkJoinPool. Suitable for CPU bound guards and processes.
+	 * 
+	 * @param parallelism the maximum number of transitions running at the same
+	 *                    time, also used as the pool parallelism
+	 * @return a new batch transition executor
+	 */
+	public static BatchTransitionExecutor ofForkJoinPool(int parallelism) {
+		return new BatchTransitionExecutor(new ForkJoinPool(parallelism), parallelism, true);
+	}
+
+	/**
+	 * Applies an action to a collection of objects. A failure on an object
+	 * doesn't prevent the action to be applied to the other objects.
+	 * 
+	 * @param objects the objects to update
+	 * @param action  the action to apply
+	 * @return the report of the batch, containing the result of each object
+	 * @throws TradistaFlowBusinessException  if the objects collection is null or
+	 *                                        if the action is null or empty.
+	 * @throws TradistaFlowTechnicalException if the current thread was
+	 *                                        interrupted while waiting for the
+	 *                                        transitions.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public <X extends WorkflowObject> BatchTransitionReport<X> execute(Collection<X> objects, String action)
+			throws TradistaFlowBusinessException {
+		StringBuilder errMsg = new StringBuilder();
+		if (objects == null) {
+			errMsg.append("The objects collection is null.");
+		}
+		if (StringUtils.isEmpty(action)) {
+			errMsg.append("The action is null or empty.");
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
+		}
+		List<X> objectList = new ArrayList<>(objects);
+		TransitionResult<X>[] results = new TransitionResult[objectList.size()];
+		Semaphore permits = new Semaphore(parallelism);
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < objectList.size(); i++) {
+				final int index = i;
+				final X object = objectList.get(i);
+				permits.acquire();
+				try {
+					executor.execute(() -> {
+						try {
+							results[index] = WorkflowManager.tryApplyAction(object, action);
+						} catch (Throwable t) {
+							// Unexpected errors, from the object itself for instance, are reported as
+							// failures so the other results are kept.
+							results[index] = TransitionResult.failed(object, new TradistaFlowTechnicalException(
+									t instanceof Exception e ? e : new RuntimeException(t)));
+						} finally {
+							permits.release();
+						}
+					});
+				} catch (RejectedExecutionException ree) {
+					results[index] = TransitionResult.failed(object, new TradistaFlowTechnicalException(ree));
+					permits.release();
+				}
+			}
+			// All the permits are available again once all the transitions are done.
+			permits.acquire(parallelism);
+			permits.release(parallelism);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new TradistaFlowTechnicalException(ie);
+		}
+		return new BatchTransitionReport<>(Arrays.asList(results), System.nanoTime() - start);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this batch transition
+	 * executor.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			executor.close();
+		}
+	}
+
+}
\ No newline at end of file
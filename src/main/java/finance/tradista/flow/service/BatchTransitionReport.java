@@ -0,0 +1,106 @@
+package finance.tradista.flow.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Report of a batch of transitions: the result of each object and the
+ * throughput of the batch.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class BatchTransitionReport<X extends WorkflowObject> {
+
+	private final List<TransitionResult<X>> results;
+
+	private final long elapsedNanos;
+
+	private final int appliedCount;
+
+	private final int rejectedCount;
+
+	private final int failedCount;
+
+	BatchTransitionReport(List<TransitionResult<X>> results, long elapsedNanos) {
+		this.results = Collections.unmodifiableList(results);
+		this.elapsedNanos = elapsedNanos;
+		int applied = 0;
+		int rejected = 0;
+		int failed = 0;
+		for (TransitionResult<X> result : results) {
+			switch (result.getOutcome()) {
+			case APPLIED -> applied++;
+			case REJECTED -> rejected++;
+			case FAILED -> failed++;
+			}
+		}
+		appliedCount = applied;
+		rejectedCount = rejected;
+		failedCount = failed;
+	}
+
+	/**
+	 * Gets the results, in the iteration order of the objects.
+	 * 
+	 * @return the results of the batch
+	 */
+	public List<TransitionResult<X>> getResults() {
+		return results;
+	}
+
+	public int getCount() {
+		return results.size();
+	}
+
+	public int getAppliedCount() {
+		return appliedCount;
+	}
+
+	public int getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public int getFailedCount() {
+		return failedCount;
+	}
+
+	public Duration getElapsedTime() {
+		return Duration.ofNanos(elapsedNanos);
+	}
+
+	/**
+	 * Gets the throughput of the batch, in transitions per second.
+	 * 
+	 * @return the number of transitions processed per second
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : results.size() * 1_000_000_000d / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d transitions (%d applied, %d rejected, %d failed) in %d ms, %.1f transitions/s",
+				getCount(), appliedCount, rejectedCount, failedCount, getElapsedTime().toMillis(), getThroughput());
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package finance.tradista.flow.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.hibernate.persister.entity.EntityPersister;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Hibernate specific features. This class is only loaded when Hibernate is the
+ * JPA provider, so Tradista Flow can still be used with other providers.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+final class HibernateSupport {
+
+	private static final boolean HIBERNATE_PRESENT = isHibernatePresent();
+
+	private HibernateSupport() {
+	}
+
+	private static boolean isHibernatePresent() {
+		try {
+			Class.forName("org.hibernate.SessionFactory", false, HibernateSupport.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException _) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if the given entity manager factory is a Hibernate one.
+	 * 
+	 * @param entityManagerFactory the entity manager factory to check
+	 * @return true if the entity manager factory is a Hibernate one
+	 */
+	static boolean isHibernate(EntityManagerFactory entityManagerFactory) {
+		return HIBERNATE_PRESENT && entityManagerFactory instanceof SessionFactory;
+	}
+
+	/**
+	 * Opens an entity manager using JDBC batching.
+	 * 
+	 * @param entityManagerFactory the Hibernate entity manager factory
+	 * @param jdbcBatchSize        the JDBC batch size of the entity manager
+	 * @return a new entity manager
+	 */
+	static EntityManager openBatchingEntityManager(EntityManagerFactory entityManagerFactory, int jdbcBatchSize) {
+		Session session = ((SessionFactory) entityManagerFactory).openSession();
+		session.setJdbcBatchSize(jdbcBatchSize);
+		return session;
+	}
+
+	/**
+	 * Opens an entity manager using JDBC batching and collecting the SQL
+	 * statements it issues.
+	 * 
+	 * @param entityManagerFactory the Hibernate entity manager factory
+	 * @param jdbcBatchSize        the JDBC batch size of the entity manager
+	 * @param statements           the list where the issued SQL statements are
+	 *                             added
+	 * @return a new entity manager
+	 */
+	static EntityManager openBatchingEntityManager(EntityManagerFactory entityManagerFactory, int jdbcBatchSize,
+			List<String> statements) {
+		Session session = ((SessionFactory) entityManagerFactory).withOptions().statementInspector(sql -> {
+			statements.add(sql);
+			return sql;
+		}).openSession();
+		session.setJdbcBatchSize(jdbcBatchSize);
+		return session;
+	}
+
+	/**
+	 * Gets the table and the columns of basic attributes of an entity, as mapped
+	 * by Hibernate, so that native SQL statements follow the mapping and the
+	 * naming strategy in use.
+	 * 
+	 * @param entityManagerFactory the Hibernate entity manager factory
+	 * @param entityClass          the entity class
+	 * @param attributeNames       the names of basic attributes of the entity,
+	 *                             mapped to a single column of its table
+	 * @return the name of the table, followed by the names of the columns of the
+	 *         attributes, in the same order
+	 */
+	static List<String> getTableAndColumnNames(EntityManagerFactory entityManagerFactory, Class<?> entityClass,
+			String... attributeNames) {
+		EntityPersister persister = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+				.getEntityDescriptor(entityClass);
+		List<String> names = new ArrayList<>(attributeNames.length + 1);
+		for (String attributeName : attributeNames) {
+			if (!(persister.findAttributeMapping(attributeName) instanceof SelectableMapping column)) {
+				throw new IllegalArgumentException(String.format("%s.%s is not mapped to a single column.",
+						entityClass.getSimpleName(), attributeName));
+			}
+			if (names.isEmpty()) {
+				names.add(column.getContainingTableExpression());
+			}
+			names.add(column.getSelectionExpression());
+		}
+		return names;
+	}
+
+	/**
+	 * Evicts a query cache region and collection regions from the second-level
+	 * cache of a Hibernate entity manager factory. The collections that are not
+	 * cached are ignored.
+	 * 
+	 * @param entityManagerFactory the Hibernate entity manager factory
+	 * @param queryRegion          the name of the query cache region
+	 * @param collectionRoles      the roles of the collections, e.g.
+	 *                             finance.tradista.flow.model.Workflow.status
+	 */
+	static void evictCacheRegions(EntityManagerFactory entityManagerFactory, String queryRegion,
+			String... collectionRoles) {
+		Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		cache.evictQueryRegion(queryRegion);
+		for (String role : collectionRoles) {
+			cache.evictCollectionData(role);
+		}
+	}
+
+	/**
+	 * Executes a SQL statement once per row of parameters, using the JDBC
+	 * connection of the entity manager, so in its current transaction. The
+	 * statements are sent in JDBC batches.
+	 * 
+	 * @param entityManager the Hibernate entity manager
+	 * @param sql           the SQL statement
+	 * @param rows          the parameters of each execution
+	 * @param jdbcBatchSize the maximum number of statements sent in a batch
+	 * @return the update counts of the executions, in the order of the rows
+	 */
+	static int[] executeBatch(EntityManager entityManager, String sql, List<Object[]> rows, int jdbcBatchSize) {
+		int[] counts = new int[rows.size()];
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				int batchStart = 0;
+				for (int i = 0; i < rows.size(); i++) {
+					Object[] row = rows.get(i);
+					for (int p = 0; p < row.length; p++) {
+						statement.setObject(p + 1, row[p]);
+					}
+					statement.addBatch();
+					if (i + 1 - batchStart == jdbcBatchSize || i == rows.size() - 1) {
+						int[] batchCounts = statement.executeBatch();
+						System.arraycopy(batchCounts, 0, counts, batchStart, batchCounts.length);
+						batchStart = i + 1;
+					}
+				}
+			}
+		});
+		return counts;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,475 @@
+package finance.tradista.flow.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.Action;
+import finance.tradista.flow.model.Condition;
+import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.Guard;
+import finance.tradista.flow.model.Process;
+import finance.tradista.flow.model.SimpleAction;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.model.WorkflowObject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Persistence;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Workflow repository storing the workflows in a database using JPA. This is
+ * the default repository of the WorkflowManager. The entity manager factory is
+ * created the first time it is needed, so the persistence provider is only
+ * started when the workflows are actually read or written.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class JpaWorkflowRepository implements WorkflowRepository {
+
+	/**
+	 * Name of the persistence unit used when none is given.
+	 */
+	public static final String DEFAULT_PERSISTENCE_UNIT_NAME = "tradista-flow-persistence-unit";
+
+	/*
+	 * Fetch plan of the workflows: the statuses are fetched with the workflow, the
+	 * actions are then loaded by syncModel in a single statement, their guards,
+	 * processes, conditions and routings being eagerly joined. A workflow is so
+	 * loaded in two statements, whatever its number of statuses and actions.
+	 * Fetching the actions with the statuses would produce the cartesian product
+	 * of both.
+	 */
+	private static final String WORKFLOW_BY_NAME_QUERY = "Select w from Workflow w left join fetch w.status"
+			+ " where w.name = :name";
+
+	/*
+	 * Hibernate hint putting the query results in the query cache, when it is
+	 * enabled in the persistence unit. Ignored by the other JPA providers.
+	 */
+	private static final String CACHEABLE_QUERY_HINT = "org.hibernate.cacheable";
+
+	/*
+	 * Hibernate hint putting the query results in a given query cache region,
+	 * so that they can be evicted without evicting the other cached queries of
+	 * the persistence unit.
+	 */
+	private static final String CACHE_REGION_QUERY_HINT = "org.hibernate.cacheRegion";
+
+	private static final String WORKFLOW_BY_NAME_CACHE_REGION = "finance.tradista.flow.WorkflowByName";
+
+	/*
+	 * Cacheable entities and collections of the workflow definitions, evicted
+	 * from the second-level cache when a workflow is saved or deleted.
+	 */
+	private static final List<Class<?>> CACHED_ENTITIES = List.of(Workflow.class, Status.class, Action.class,
+			Guard.class, Condition.class, Process.class);
+
+	private static final String[] CACHED_COLLECTIONS = { Workflow.class.getName() + ".actions",
+			Workflow.class.getName() + ".status", Action.class.getName() + ".guards",
+			SimpleAction.class.getName() + ".processes", ConditionalAction.class.getName() + ".conditionalRouting",
+			ConditionalAction.class.getName() + ".conditionalActions" };
+
+	/*
+	 * Hibernate hint setting the JDBC fetch size of a query. Ignored by the other
+	 * JPA providers.
+	 */
+	private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+	private static final String WORKFLOW_SUMMARIES_QUERY = "Select new finance.tradista.flow.service.WorkflowSummary"
+			+ "(w.id, w.name, w.version, count(s)) from Workflow w left join w.status s on type(s) <> PseudoStatus"
+			+ " group by w.id, w.name, w.version order by w.name";
+
+	private static final String ALL_WORKFLOWS_QUERY = "Select distinct w from Workflow w left join fetch w.status";
+
+	/*
+	 * The simple actions of the conditional actions depart from the same statuses
+	 * as the conditional actions, with the same name, so searching the actions by
+	 * departure status gives the same result as
+	 * Workflow.getAvailableActionsFromStatus.
+	 */
+	private static final String AVAILABLE_ACTIONS_QUERY = "Select distinct a.name from Action a"
+			+ " where a.departureStatus.name = :status and a.departureStatus.workflow.name = :workflow";
+
+	private final String persistenceUnitName;
+
+	private volatile EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Creates a repository using the DEFAULT_PERSISTENCE_UNIT_NAME persistence
+	 * unit.
+	 */
+	public JpaWorkflowRepository() {
+		this(DEFAULT_PERSISTENCE_UNIT_NAME);
+	}
+
+	/**
+	 * Creates a repository using the given persistence unit. The entity manager
+	 * factory is created the first time it is needed.
+	 * 
+	 * @param persistenceUnitName the name of the persistence unit
+	 */
+	public JpaWorkflowRepository(String persistenceUnitName) {
+		if (persistenceUnitName == null) {
+			throw new IllegalArgumentException("The persistence unit name cannot be null.");
+		}
+		this.persistenceUnitName = persistenceUnitName;
+	}
+
+	/**
+	 * Creates a repository using an existing entity manager factory, for instance
+	 * one managed by the application server. The repository doesn't close it.
+	 * 
+	 * @param entityManagerFactory the entity manager factory
+	 */
+	public JpaWorkflowRepository(EntityManagerFactory entityManagerFactory) {
+		if (entityManagerFactory == null) {
+			throw new IllegalArgumentException("The entity manager factory cannot be null.");
+		}
+		this.persistenceUnitName = null;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Gets the entity manager factory of this repository, creating it if needed.
+	 * 
+	 * @return the entity manager factory of this repository
+	 */
+	public EntityManagerFactory getEntityManagerFactory() {
+		EntityManagerFactory emf = entityManagerFactory;
+		if (emf == null) {
+			synchronized (this) {
+				emf = entityManagerFactory;
+				if (emf == null) {
+					emf = Persistence.createEntityManagerFactory(persistenceUnitName);
+					entityManagerFactory = emf;
+				}
+			}
+		}
+		return emf;
+	}
+
+	/**
+	 * Checks whether the entity manager factory of this repository was created.
+	 * 
+	 * @return true if the entity manager factory was created, false otherwise
+	 */
+	public boolean isInitialized() {
+		return entityManagerFactory != null;
+	}
+
+	@Override
+	public long saveWorkflow(Workflow<? extends WorkflowObject> workflow) {
+		EntityManager entityManager = getEntityManagerFactory().createEntityManager();
+		if (isJTA(entityManager)) {
+			entityManager.joinTransaction();
+		} else {
+			entityManager.getTransaction().begin();
+		}
+		entityManager.persist(workflow);
+		if (!isJTA(entityManager)) {
+			entityManager.getTransaction().commit();
+		}
+		entityManager.close();
+		evictSecondLevelCache();
+		return workflow.getId();
+	}
+
+	/**
+	 * Updates a stored workflow, identified by its name. Only the differences
+	 * between the given workflow and its stored version are written: the
+	 * unchanged statuses, actions, guards and processes are kept as is.
+	 * 
+	 * @param workflow the new definition of the workflow
+	 * @return the new version of the workflow
+	 * @throws TradistaFlowBusinessException if the workflow doesn't exist or if it
+	 *                                       was modified concurrently
+	 */
+	@Override
+	public long updateWorkflow(Workflow<? extends WorkflowObject> workflow) throws TradistaFlowBusinessException {
+		Workflow<?> stored;
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			boolean jta = isJTA(entityManager);
+			if (jta) {
+				entityManager.joinTransaction();
+			} else {
+				entityManager.getTransaction().begin();
+			}
+			try {
+				stored = entityManager.createQuery(WORKFLOW_BY_NAME_QUERY, Workflow.class)
+						.setParameter("name", workflow.getName()).getResultStream().findFirst().orElse(null);
+				if (stored == null) {
+					throw new TradistaFlowBusinessException(
+							String.format("The workflow named %s doesn't exist.", workflow.getName()));
+				}
+				if (workflow.getId() != null && workflow.getVersion() != stored.getVersion()) {
+					throw new OptimisticLockException(stored);
+				}
+				// The version is incremented even if only the statuses or actions are
+				// modified, so concurrent updates are detected at commit.
+				entityManager.lock(stored, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+				WorkflowUpdater.update(entityManager, stored, workflow);
+				if (!jta) {
+					entityManager.getTransaction().commit();
+				}
+			} catch (TradistaFlowBusinessException | RuntimeException e) {
+				if (!jta && entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				if (e instanceof OptimisticLockException || e.getCause() instanceof OptimisticLockException) {
+					throw new TradistaFlowBusinessException(String.format(
+							"The workflow %s was modified concurrently. Please reload it.", workflow.getName()));
+				}
+				throw e;
+			}
+		}
+		evictSecondLevelCache();
+		return stored.getVersion();
+	}
+
+	/**
+	 * Saves several workflows in a single transaction. When the JPA provider is
+	 * Hibernate, the inserts are sent using JDBC batching and the issued SQL
+	 * statements are reported. Setting hibernate.order_inserts to true in the
+	 * persistence unit groups the inserts by table, so batches are not split by
+	 * the interleaving of statuses, actions, guards and processes.
+	 * 
+	 * @param workflows     the workflows to be saved
+	 * @param jdbcBatchSize the JDBC batch size used for this save
+	 * @return the report of the save
+	 */
+	@Override
+	public WorkflowSaveReport saveWorkflows(Collection<? extends Workflow<? extends WorkflowObject>> workflows,
+			int jdbcBatchSize) {
+		EntityManagerFactory emf = getEntityManagerFactory();
+		List<String> statements = Collections.synchronizedList(new ArrayList<>());
+		Map<String, Long> workflowIds = new LinkedHashMap<>();
+		long start = System.nanoTime();
+		boolean hibernate = HibernateSupport.isHibernate(emf);
+		try (EntityManager entityManager = hibernate
+				? HibernateSupport.openBatchingEntityManager(emf, jdbcBatchSize, statements)
+				: emf.createEntityManager()) {
+			boolean jta = isJTA(entityManager);
+			if (jta) {
+				entityManager.joinTransaction();
+			} else {
+				entityManager.getTransaction().begin();
+			}
+			try {
+				for (Workflow<? extends WorkflowObject> workflow : workflows) {
+					entityManager.persist(workflow);
+				}
+				if (!jta) {
+					entityManager.getTransaction().commit();
+				}
+			} catch (RuntimeException re) {
+				if (!jta && entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+		for (Workflow<? extends WorkflowObject> workflow : workflows) {
+			workflowIds.put(workflow.getName(), workflow.getId());
+		}
+		evictSecondLevelCache();
+		return new WorkflowSaveReport(workflowIds, new ArrayList<>(statements), hibernate ? jdbcBatchSize : 0,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Evicts the workflows from the second-level cache of the persistence unit,
+	 * if any. Workflows are rarely updated, so all the workflow definitions are
+	 * evicted. The other entities of the persistence unit are kept.
+	 */
+	private void evictSecondLevelCache() {
+		EntityManagerFactory entityManagerFactory = getEntityManagerFactory();
+		Cache cache = entityManagerFactory.getCache();
+		if (cache != null) {
+			for (Class<?> cls : CACHED_ENTITIES) {
+				cache.evict(cls);
+			}
+		}
+		if (HibernateSupport.isHibernate(entityManagerFactory)) {
+			HibernateSupport.evictCacheRegions(entityManagerFactory, WORKFLOW_BY_NAME_CACHE_REGION,
+					CACHED_COLLECTIONS);
+		}
+	}
+
+	/**
+	 * Checks whether the entityManager is a JTA or a RESOURCE_LOCAL one.
+	 * 
+	 * @param entityManager the entityManager to be checked
+	 * @return true if the entityManager is JTA, false otherwise
+	 */
+	private static boolean isJTA(EntityManager entityManager) {
+		try {
+			entityManager.getTransaction();
+		} catch (IllegalStateException _) {
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public <X extends WorkflowObject> Set<Workflow<X>> getAllWorkflows() {
+		Set<Workflow<X>> workflows = null;
+		EntityManager entityManager = getEntityManagerFactory().createEntityManager();
+		List<Workflow> res = entityManager.createQuery(ALL_WORKFLOWS_QUERY, Workflow.class).getResultList();
+		if (res != null) {
+			workflows = new HashSet(res);
+			workflows.forEach(w -> w.syncModel());
+		}
+		entityManager.close();
+		return workflows;
+	}
+
+	/**
+	 * Streams all workflows of the repository. Workflows are read from the
+	 * database as the stream is consumed, and detached once synced, so they are
+	 * not all kept in memory. The stream must be closed to release the database
+	 * resources.
+	 * 
+	 * @param fetchSize the number of rows fetched per database round trip
+	 * @return all workflows of the repository, ordered by name
+	 */
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public <X extends WorkflowObject> Stream<Workflow<X>> streamAllWorkflows(int fetchSize) {
+		EntityManager entityManager = getEntityManagerFactory().createEntityManager();
+		// The cursor must stay open while the workflows are synced, so the
+		// statements cannot be auto-committed.
+		boolean jta = isJTA(entityManager);
+		Runnable close = () -> {
+			if (!jta && entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().rollback();
+			}
+			entityManager.close();
+		};
+		try {
+			if (jta) {
+				entityManager.joinTransaction();
+			} else {
+				entityManager.getTransaction().begin();
+			}
+			Stream<Workflow> res = entityManager.createQuery("Select w from Workflow w order by w.name", Workflow.class)
+					.setHint(FETCH_SIZE_HINT, fetchSize).getResultStream();
+			return res.map(w -> {
+				w.syncModel();
+				entityManager.detach(w);
+				return (Workflow<X>) w;
+			}).onClose(close);
+		} catch (RuntimeException re) {
+			close.run();
+			throw re;
+		}
+	}
+
+	@Override
+	public List<WorkflowSummary> getAllWorkflowSummaries() {
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			return entityManager.createQuery(WORKFLOW_SUMMARIES_QUERY, WorkflowSummary.class).getResultList();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String deleteWorkflow(long id) throws TradistaFlowBusinessException {
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			Workflow<? extends WorkflowObject> wkf = entityManager.find(Workflow.class, id);
+			if (wkf == null) {
+				throw new TradistaFlowBusinessException(String.format("The workflow %s doesn't exist.", id));
+			}
+			if (isJTA(entityManager)) {
+				entityManager.joinTransaction();
+			} else {
+				entityManager.getTransaction().begin();
+			}
+			entityManager.remove(wkf);
+			if (!isJTA(entityManager)) {
+				entityManager.getTransaction().commit();
+			}
+			evictSecondLevelCache();
+			return wkf.getName();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <X extends WorkflowObject> Workflow<X> getWorkflowByName(String name)
+			throws TradistaFlowBusinessException {
+		Workflow<X> res;
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			res = entityManager.createQuery(WORKFLOW_BY_NAME_QUERY, Workflow.class).setParameter("name", name)
+					.setHint(CACHEABLE_QUERY_HINT, true).setHint(CACHE_REGION_QUERY_HINT, WORKFLOW_BY_NAME_CACHE_REGION)
+					.getSingleResult();
+			if (res != null) {
+				res.syncModel();
+			}
+		} catch (NoResultException _) {
+			throw new TradistaFlowBusinessException(String.format("The workflow named %s doesn't exist.", name));
+		}
+
+		return res;
+	}
+
+	@Override
+	public Set<String> getStatusesByWorkflowNames(String... workflowNames) {
+		List<String> res;
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			res = entityManager.createQuery("Select s.name from Status s where s.workflow.name in :names", String.class)
+					.setParameter("names", Arrays.asList(workflowNames)).getResultList();
+		}
+
+		return res != null ? new HashSet<>(res) : null;
+	}
+
+	/**
+	 * Gets the names of the actions available from a given status, without
+	 * loading the workflow: a single projection query is issued.
+	 * 
+	 * @param workflowName the name of the workflow
+	 * @param statusName   the name of the status from where actions are searched
+	 * @return the names of the available actions, an empty set if there is none
+	 *         or if the workflow or the status doesn't exist
+	 */
+	@Override
+	public Set<String> getAvailableActions(String workflowName, String statusName) {
+		List<String> res;
+		try (EntityManager entityManager = getEntityManagerFactory().createEntityManager()) {
+			res = entityManager.createQuery(AVAILABLE_ACTIONS_QUERY, String.class).setParameter("status", statusName)
+					.setParameter("workflow", workflowName).getResultList();
+		}
+		return Set.copyOf(res);
+	}
+
+}
\ No newline at end of file
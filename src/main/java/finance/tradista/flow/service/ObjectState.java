@@ -0,0 +1,69 @@
+package finance.tradista.flow.service;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * State of an object rebuilt from its transition events: its workflow, its
+ * status and the sequence number of its last event.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class ObjectState {
+
+	private final String objectKey;
+
+	private final String workflowName;
+
+	private final String statusName;
+
+	private final long sequenceNumber;
+
+	ObjectState(String objectKey, String workflowName, String statusName, long sequenceNumber) {
+		this.objectKey = objectKey;
+		this.workflowName = workflowName;
+		this.statusName = statusName;
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	public String getWorkflowName() {
+		return workflowName;
+	}
+
+	public String getStatusName() {
+		return statusName;
+	}
+
+	/**
+	 * Gets the sequence number of the last event taken into account, 0 if the
+	 * state is the one before the first event.
+	 * 
+	 * @return the sequence number of the last event of the state
+	 */
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s in %s (event: %d)", objectKey, statusName, workflowName, sequenceNumber);
+	}
+
+}
\ No newline at end of file
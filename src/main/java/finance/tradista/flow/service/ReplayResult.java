@@ -0,0 +1,69 @@
+package finance.tradista.flow.service;
+
+import finance.tradista.flow.model.TransitionEvent;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Result of the replay of the transition events of an object with a workflow
+ * definition: the recomputed state of the object, and the first event that is
+ * not valid with this definition, if any. The replay stops at this event.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class ReplayResult {
+
+	private final ObjectState state;
+
+	private final TransitionEvent invalidEvent;
+
+	ReplayResult(ObjectState state, TransitionEvent invalidEvent) {
+		this.state = state;
+		this.invalidEvent = invalidEvent;
+	}
+
+	/**
+	 * Gets the recomputed state of the object. If an event is not valid, it is
+	 * the state before this event.
+	 * 
+	 * @return the recomputed state, null if the object has no event
+	 */
+	public ObjectState getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the first event that is not valid with the workflow definition: its
+	 * action is not available from the recomputed status, or for a conditional
+	 * action, its arrival status is not routed anymore.
+	 * 
+	 * @return the first invalid event, null if all the events are valid
+	 */
+	public TransitionEvent getInvalidEvent() {
+		return invalidEvent;
+	}
+
+	public boolean isValid() {
+		return invalidEvent == null;
+	}
+
+	@Override
+	public String toString() {
+		return isValid() ? String.format("%s", state) : String.format("%s, invalid event: %s", state, invalidEvent);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,341 @@
+package finance.tradista.flow.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.CompiledWorkflow.Transition;
+import finance.tradista.flow.model.CurrentStatus;
+import finance.tradista.flow.model.StatusSnapshot;
+import finance.tradista.flow.model.TransitionEvent;
+import finance.tradista.flow.model.WorkflowObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Event store of the object lifecycles. When it is set in the WorkflowManager,
+ * each applied transition is appended as an immutable event, numbered in the
+ * events of its object. The current status of the object is updated in the
+ * same transaction, so its current state is read from a single row. Every
+ * "snapshotInterval" events, a snapshot of the status of the object is written
+ * with the event, so its state at a given time is rebuilt from the last
+ * snapshot and fewer than "snapshotInterval" events. The events can also be
+ * replayed with a new workflow definition. The store uses resource local transactions, so its
+ * entity manager factory must not be a JTA one.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class TransitionEventStore {
+
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 100;
+
+	private static final String CURRENT_STATUS_QUERY = "Select c from CurrentStatus c where c.objectKey = :objectKey";
+
+	private static final String UPDATE_CURRENT_STATUS_QUERY = "Update CurrentStatus c"
+			+ " set c.workflowName = :workflowName, c.statusName = :statusName, c.sequenceNumber = :sequenceNumber"
+			+ " where c.objectKey = :objectKey and c.sequenceNumber = :expectedSequenceNumber";
+
+	private static final String HISTORY_QUERY = "Select e from TransitionEvent e where e.objectKey = :objectKey"
+			+ " order by e.sequenceNumber";
+
+	private static final String EVENTS_AFTER_QUERY = "Select e from TransitionEvent e"
+			+ " where e.objectKey = :objectKey and e.sequenceNumber > :sequenceNumber";
+
+	private static final String LAST_SNAPSHOT_QUERY = "Select s from StatusSnapshot s"
+			+ " where s.objectKey = :objectKey";
+
+	private static final String TIME_CONDITION = " and e.eventTime <= :time";
+
+	private static final String SNAPSHOT_TIME_CONDITION = " and s.snapshotTime <= :time";
+
+	private static final String EVENTS_ORDER = " order by e.sequenceNumber";
+
+	private static final String SNAPSHOTS_ORDER = " order by s.sequenceNumber desc";
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final int snapshotInterval;
+
+	/**
+	 * Creates a transition event store taking a snapshot every
+	 * DEFAULT_SNAPSHOT_INTERVAL events.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to read and
+	 *                             write the events
+	 */
+	public TransitionEventStore(EntityManagerFactory entityManagerFactory) {
+		this(entityManagerFactory, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Creates a transition event store.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to read and
+	 *                             write the events
+	 * @param snapshotInterval     the number of events between two snapshots of
+	 *                             an object
+	 */
+	public TransitionEventStore(EntityManagerFactory entityManagerFactory, int snapshotInterval) {
+		if (entityManagerFactory == null) {
+			throw new IllegalArgumentException("The entity manager factory cannot be null.");
+		}
+		if (snapshotInterval <= 0) {
+			throw new IllegalArgumentException("The snapshot interval must be positive.");
+		}
+		this.entityManagerFactory = entityManagerFactory;
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * Appends a transition event. The departure status must be the current
+	 * status of the object, if it has events.
+	 * 
+	 * @param objectKey    the key of the object
+	 * @param workflowName the workflow of the object
+	 * @param fromStatus   the departure status
+	 * @param actionName   the applied action
+	 * @param toStatus     the arrival status
+	 * @return the appended event
+	 * @throws TradistaFlowBusinessException if the object key is null, or if
+	 *                                       another event was appended for the
+	 *                                       object since it left the departure
+	 *                                       status
+	 */
+	public TransitionEvent append(String objectKey, String workflowName, String fromStatus, String actionName,
+			String toStatus) throws TradistaFlowBusinessException {
+		if (objectKey == null) {
+			throw new TradistaFlowBusinessException("The object key is null.");
+		}
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				TransitionEvent event = append(entityManager, objectKey, workflowName, fromStatus, actionName,
+						toStatus);
+				entityManager.getTransaction().commit();
+				return event;
+			} catch (TradistaFlowBusinessException | RuntimeException e) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Appends a transition event in the current transaction of an entity
+	 * manager. The current status of the object is inserted for its first event,
+	 * updated with a compare-and-set on its sequence number otherwise. Unless the
+	 * transaction is marked for rollback, it can still be committed after a
+	 * TradistaFlowBusinessException, nothing being written for the event.
+	 * 
+	 * @param entityManager the entity manager, with an active transaction
+	 * @param objectKey     the key of the object
+	 * @param workflowName  the workflow of the object
+	 * @param fromStatus    the departure status
+	 * @param actionName    the applied action
+	 * @param toStatus      the arrival status
+	 * @return the appended event
+	 * @throws TradistaFlowBusinessException if another event was appended for the
+	 *                                       object since it left the departure
+	 *                                       status
+	 */
+	TransitionEvent append(EntityManager entityManager, String objectKey, String workflowName, String fromStatus,
+			String actionName, String toStatus) throws TradistaFlowBusinessException {
+		CurrentStatus current = getCurrentStatus(entityManager, objectKey);
+		long sequenceNumber;
+		if (current == null) {
+			sequenceNumber = 1;
+			entityManager.persist(new CurrentStatus(objectKey, workflowName, toStatus, sequenceNumber));
+			try {
+				entityManager.flush();
+			} catch (PersistenceException pe) {
+				entityManager.getTransaction().setRollbackOnly();
+				// Most likely the first event of the object appended concurrently
+				try (EntityManager em = entityManagerFactory.createEntityManager()) {
+					if (getCurrentStatus(em, objectKey) != null) {
+						throw concurrentTransition(objectKey, fromStatus);
+					}
+				}
+				throw pe;
+			}
+		} else {
+			if (!current.getStatusName().equals(fromStatus)) {
+				throw concurrentTransition(objectKey, fromStatus);
+			}
+			sequenceNumber = current.getSequenceNumber() + 1;
+			int updated = entityManager.createQuery(UPDATE_CURRENT_STATUS_QUERY)
+					.setParameter("workflowName", workflowName).setParameter("statusName", toStatus)
+					.setParameter("sequenceNumber", sequenceNumber).setParameter("objectKey", objectKey)
+					.setParameter("expectedSequenceNumber", current.getSequenceNumber()).executeUpdate();
+			if (updated == 0) {
+				throw concurrentTransition(objectKey, fromStatus);
+			}
+		}
+		TransitionEvent event = new TransitionEvent(objectKey, sequenceNumber, workflowName, fromStatus, actionName,
+				toStatus, Instant.now());
+		entityManager.persist(event);
+		if (sequenceNumber % snapshotInterval == 0) {
+			entityManager.persist(
+					new StatusSnapshot(objectKey, sequenceNumber, workflowName, toStatus, event.getEventTime()));
+		}
+		return event;
+	}
+
+	/**
+	 * Gets the current state of an object, read from its current status.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return the current state of the object, null if it has no event
+	 */
+	public ObjectState getState(String objectKey) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			CurrentStatus current = getCurrentStatus(entityManager, objectKey);
+			return current != null ? new ObjectState(objectKey, current.getWorkflowName(), current.getStatusName(),
+					current.getSequenceNumber()) : null;
+		}
+	}
+
+	/**
+	 * Gets the state of an object at a given time, rebuilt from its last snapshot
+	 * taken before this time and the events appended after it, up to this time.
+	 * 
+	 * @param objectKey the key of the object
+	 * @param time      the time of the state
+	 * @return the state of the object at the given time, null if it had no event
+	 *         at this time
+	 */
+	public ObjectState getStateAt(String objectKey, Instant time) {
+		if (time == null) {
+			throw new IllegalArgumentException("The time cannot be null.");
+		}
+		return rebuildState(objectKey, time);
+	}
+
+	/**
+	 * Gets the events of an object, in sequence order.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return the events of the object
+	 */
+	public List<TransitionEvent> getHistory(String objectKey) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			return entityManager.createQuery(HISTORY_QUERY, TransitionEvent.class)
+					.setParameter("objectKey", objectKey).getResultList();
+		}
+	}
+
+	/**
+	 * Replays the events of an object with a workflow definition, typically after
+	 * a change of this definition, to recompute the status of the object. The
+	 * replay starts from the departure status of the first event. For a simple
+	 * action, the arrival status is the one of the definition. For a conditional
+	 * action, the condition is not evaluated again: the recorded arrival status is
+	 * kept if it is still routed. The events are not modified.
+	 * 
+	 * @param objectKey the key of the object
+	 * @param workflow  the workflow definition
+	 * @return the result of the replay
+	 */
+	public ReplayResult replay(String objectKey, CompiledWorkflow<? extends WorkflowObject> workflow) {
+		if (workflow == null) {
+			throw new IllegalArgumentException("The workflow cannot be null.");
+		}
+		List<TransitionEvent> events = getHistory(objectKey);
+		if (events.isEmpty()) {
+			return new ReplayResult(null, null);
+		}
+		ObjectState state = new ObjectState(objectKey, workflow.getName(), events.get(0).getFromStatus(), 0);
+		for (TransitionEvent event : events) {
+			Transition<? extends WorkflowObject> transition = workflow.getTransition(
+					workflow.getStatusOrdinal(state.getStatusName()), workflow.getActionOrdinal(event.getActionName()));
+			String arrivalStatusName = transition != null ? getArrivalStatusName(workflow, transition, event) : null;
+			if (arrivalStatusName == null) {
+				return new ReplayResult(state, event);
+			}
+			state = new ObjectState(objectKey, workflow.getName(), arrivalStatusName, event.getSequenceNumber());
+		}
+		return new ReplayResult(state, null);
+	}
+
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
+	}
+
+	private ObjectState rebuildState(String objectKey, Instant time) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			TypedQuery<StatusSnapshot> snapshotQuery = entityManager
+					.createQuery(LAST_SNAPSHOT_QUERY + SNAPSHOT_TIME_CONDITION + SNAPSHOTS_ORDER, StatusSnapshot.class)
+					.setParameter("objectKey", objectKey).setParameter("time", time).setMaxResults(1);
+			List<StatusSnapshot> snapshots = snapshotQuery.getResultList();
+			ObjectState state = null;
+			long sequenceNumber = 0;
+			if (!snapshots.isEmpty()) {
+				StatusSnapshot snapshot = snapshots.get(0);
+				sequenceNumber = snapshot.getSequenceNumber();
+				state = new ObjectState(objectKey, snapshot.getWorkflowName(), snapshot.getStatusName(),
+						sequenceNumber);
+			}
+			// At most snapshotInterval - 1 events
+			TypedQuery<TransitionEvent> eventsQuery = entityManager
+					.createQuery(EVENTS_AFTER_QUERY + TIME_CONDITION + EVENTS_ORDER, TransitionEvent.class)
+					.setParameter("objectKey", objectKey).setParameter("sequenceNumber", sequenceNumber)
+					.setParameter("time", time);
+			for (TransitionEvent event : eventsQuery.getResultList()) {
+				state = new ObjectState(objectKey, event.getWorkflowName(), event.getToStatus(),
+						event.getSequenceNumber());
+			}
+			return state;
+		}
+	}
+
+	private static CurrentStatus getCurrentStatus(EntityManager entityManager, String objectKey) {
+		List<CurrentStatus> current = entityManager.createQuery(CURRENT_STATUS_QUERY, CurrentStatus.class)
+				.setParameter("objectKey", objectKey).getResultList();
+		return current.isEmpty() ? null : current.get(0);
+	}
+
+	private static String getArrivalStatusName(CompiledWorkflow<? extends WorkflowObject> workflow,
+			Transition<? extends WorkflowObject> transition, TransitionEvent event) {
+		if (!transition.isConditional()) {
+			return transition.getArrivalStatus().getName();
+		}
+		int recordedOrdinal = workflow.getStatusOrdinal(event.getToStatus());
+		for (int i = 0; i < transition.getRoutingCount(); i++) {
+			if (transition.getRoutingArrivalOrdinal(i) == recordedOrdinal) {
+				return event.getToStatus();
+			}
+		}
+		return null;
+	}
+
+	private static TradistaFlowBusinessException concurrentTransition(String objectKey, String fromStatus) {
+		return new TradistaFlowBusinessException(String.format(
+				"The object %s was modified concurrently, it is no longer in status %s in the transition event store.",
+				objectKey, fromStatus));
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,515 @@
+package finance.tradista.flow.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.TransitionJournalEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Append-only journal of the transitions applied by the WorkflowManager. The
+ * entries are put in an in-memory queue, and written by a background thread in
+ * batches of at most "flushSize" entries, at least every "flushInterval". With
+ * Hibernate, the batches are sent using JDBC batching. When the queue is full,
+ * the transitions wait for the writer. The queue is drained when the journal is
+ * closed, and when the JVM shuts down. If the writer is stopped by an Error,
+ * the entries not written yet are counted as failed and the journal is broken:
+ * the entries recorded afterwards are rejected. The journal uses resource local
+ * transactions, so its entity manager factory must not be a JTA one.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class TransitionJournal implements AutoCloseable {
+
+	/**
+	 * Durability of the journal entries.
+	 */
+	public enum Durability {
+		/**
+		 * A transition returns as soon as its entry is queued. The queued entries are
+		 * lost if the JVM crashes.
+		 */
+		ASYNC,
+		/**
+		 * A transition returns once its entry is written. The entries of concurrent
+		 * transitions are written in the same batch.
+		 */
+		SYNC
+	}
+
+	public static final int DEFAULT_FLUSH_SIZE = 100;
+
+	public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+
+	public static final int DEFAULT_CAPACITY = 10_000;
+
+	private static final String HISTORY_QUERY = "Select e from TransitionJournalEntry e where e.objectKey = :objectKey"
+			+ " order by e.transitionTime, e.id";
+
+	private static final class Pending {
+
+		private final TransitionJournalEntry entry;
+
+		// Completed when the entry is written, null when nobody waits for it.
+		private final CompletableFuture<Void> written;
+
+		private Pending(TransitionJournalEntry entry, CompletableFuture<Void> written) {
+			this.entry = entry;
+			this.written = written;
+		}
+
+	}
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final int flushSize;
+
+	private final long flushIntervalNanos;
+
+	private final Durability durability;
+
+	private final BlockingQueue<Pending> queue;
+
+	// Prevents entries from being queued once the journal is closed.
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+	private final LongAdder pendingCount = new LongAdder();
+
+	private final LongAdder writtenCount = new LongAdder();
+
+	private final LongAdder failedCount = new LongAdder();
+
+	private final Thread writer;
+
+	private final Thread shutdownHook;
+
+	private volatile boolean closed;
+
+	// Set when the writer was stopped by an Error.
+	private volatile boolean broken;
+
+	private volatile RuntimeException lastError;
+
+	/**
+	 * Creates a transition journal with the default flush size, flush interval and
+	 * capacity, and an ASYNC durability.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to write the
+	 *                             entries
+	 */
+	public TransitionJournal(EntityManagerFactory entityManagerFactory) {
+		this(entityManagerFactory, DEFAULT_FLUSH_SIZE, DEFAULT_FLUSH_INTERVAL, Durability.ASYNC, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a transition journal.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to write the
+	 *                             entries
+	 * @param flushSize            the maximum number of entries written in a
+	 *                             batch
+	 * @param flushInterval        the maximum time an entry waits in the queue
+	 *                             before being written
+	 * @param durability           the durability of the entries
+	 * @param capacity             the maximum number of entries in the queue
+	 */
+	public TransitionJournal(EntityManagerFactory entityManagerFactory, int flushSize, Duration flushInterval,
+			Durability durability, int capacity) {
+		if (entityManagerFactory == null) {
+			throw new IllegalArgumentException("The entity manager factory cannot be null.");
+		}
+		if (flushSize <= 0) {
+			throw new IllegalArgumentException("The flush size must be positive.");
+		}
+		if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+			throw new IllegalArgumentException("The flush interval must be positive.");
+		}
+		if (durability == null) {
+			throw new IllegalArgumentException("The durability cannot be null.");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive.");
+		}
+		this.entityManagerFactory = entityManagerFactory;
+		this.flushSize = flushSize;
+		this.flushIntervalNanos = flushInterval.toNanos();
+		this.durability = durability;
+		queue = new LinkedBlockingQueue<>(capacity);
+		writer = Thread.ofPlatform().name("tradista-flow-journal").daemon().start(this::write);
+		shutdownHook = new Thread(this::close, "tradista-flow-journal-shutdown");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Records an entry in the journal. With the SYNC durability, waits until the
+	 * entry is written.
+	 * 
+	 * @param entry the entry to record
+	 * @throws TradistaFlowTechnicalException if the journal is closed or broken,
+	 *                                        or with the SYNC durability, if the
+	 *                                        entry could not be written
+	 */
+	public void record(TransitionJournalEntry entry) {
+		if (entry == null) {
+			throw new IllegalArgumentException("The entry cannot be null.");
+		}
+		await(enqueue(entry, durability == Durability.SYNC));
+	}
+
+	/**
+	 * Records the entry of a transition already committed in a store. The
+	 * transition cannot be undone, so no exception is raised: an entry that
+	 * cannot be recorded is counted as failed, see getFailedCount and
+	 * getLastError. With the SYNC durability, waits until the entry is written.
+	 * 
+	 * @param entry the entry to record
+	 */
+	void recordCommitted(TransitionJournalEntry entry) {
+		CompletableFuture<Void> written;
+		try {
+			written = enqueue(entry, durability == Durability.SYNC);
+		} catch (TradistaFlowTechnicalException tfte) {
+			lastError = tfte;
+			failedCount.increment();
+			return;
+		}
+		try {
+			await(written);
+		} catch (TradistaFlowTechnicalException _) {
+			// Counted by the writer, or still queued if the wait was interrupted
+		}
+	}
+
+	/**
+	 * Waits until the entries recorded before this call are written.
+	 * 
+	 * @throws TradistaFlowTechnicalException if the entries could not be written
+	 */
+	public void flush() {
+		if (!closed) {
+			await(enqueue(null, true));
+		}
+	}
+
+	/**
+	 * Gets the journal entries of an object, in chronological order. The entries
+	 * not written yet are not returned, flush can be called before if needed.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return the journal entries of the object
+	 */
+	public List<TransitionJournalEntry> getHistory(String objectKey) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			return entityManager.createQuery(HISTORY_QUERY, TransitionJournalEntry.class)
+					.setParameter("objectKey", objectKey).getResultList();
+		}
+	}
+
+	public int getFlushSize() {
+		return flushSize;
+	}
+
+	public Duration getFlushInterval() {
+		return Duration.ofNanos(flushIntervalNanos);
+	}
+
+	public Durability getDurability() {
+		return durability;
+	}
+
+	/**
+	 * Gets the number of recorded entries not written yet.
+	 * 
+	 * @return the number of entries waiting to be written
+	 */
+	public long getPendingCount() {
+		return pendingCount.sum();
+	}
+
+	public long getWrittenCount() {
+		return writtenCount.sum();
+	}
+
+	/**
+	 * Gets the number of entries that could not be written.
+	 * 
+	 * @return the number of lost entries
+	 */
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	/**
+	 * Gets the last error raised when writing entries.
+	 * 
+	 * @return the last error, null if there was none
+	 */
+	public RuntimeException getLastError() {
+		return lastError;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Tells whether the writer of this journal was stopped by an Error, see
+	 * getLastError. A broken journal rejects the entries recorded afterwards.
+	 * 
+	 * @return true if the journal is broken
+	 */
+	public boolean isBroken() {
+		return broken;
+	}
+
+	/**
+	 * Closes this journal: the queued entries are written, then the entries
+	 * recorded after the closing are rejected.
+	 */
+	@Override
+	public void close() {
+		closeLock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		} finally {
+			closeLock.writeLock().unlock();
+		}
+		boolean interrupted = false;
+		try {
+			// Wakes the writer up
+			queue.put(new Pending(null, null));
+			writer.join();
+		} catch (InterruptedException _) {
+			interrupted = true;
+		}
+		if (Thread.currentThread() != shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException _) {
+				// The JVM is shutting down
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
+	}
+
+	/**
+	 * Counts entries written outside of this journal, in its database, by a bulk
+	 * update of the workflow instance store.
+	 * 
+	 * @param count the number of written entries
+	 */
+	void countWritten(int count) {
+		writtenCount.add(count);
+	}
+
+	/**
+	 * Checks that entries can be recorded in this journal.
+	 * 
+	 * @throws TradistaFlowTechnicalException if the journal is closed or broken
+	 */
+	void checkOpen() {
+		if (closed) {
+			throw new TradistaFlowTechnicalException("The transition journal is closed.");
+		}
+		if (broken) {
+			throw new TradistaFlowTechnicalException(
+					"The transition journal is broken, its writer was stopped by an error.");
+		}
+	}
+
+	private CompletableFuture<Void> enqueue(TransitionJournalEntry entry, boolean wait) {
+		CompletableFuture<Void> written = wait ? new CompletableFuture<>() : null;
+		closeLock.readLock().lock();
+		try {
+			checkOpen();
+			if (entry != null) {
+				pendingCount.increment();
+			}
+			queue.put(new Pending(entry, written));
+		} catch (InterruptedException ie) {
+			if (entry != null) {
+				pendingCount.decrement();
+			}
+			Thread.currentThread().interrupt();
+			throw new TradistaFlowTechnicalException(ie);
+		} finally {
+			closeLock.readLock().unlock();
+		}
+		return written;
+	}
+
+	private static void await(CompletableFuture<Void> written) {
+		if (written == null) {
+			return;
+		}
+		try {
+			written.get();
+		} catch (ExecutionException ee) {
+			throw new TradistaFlowTechnicalException(
+					ee.getCause() instanceof Exception e ? e : new RuntimeException(ee.getCause()));
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new TradistaFlowTechnicalException(ie);
+		}
+	}
+
+	/**
+	 * Loop of the writer thread. A batch is written when it is full, when the
+	 * flush interval of its first entry is elapsed, or as soon as the queue is
+	 * empty if somebody waits for one of its entries or if the journal is closed.
+	 */
+	private void write() {
+		List<Pending> batch = new ArrayList<>(flushSize);
+		long deadline = 0;
+		boolean urgent = false;
+		try {
+			while (true) {
+				Pending pending = null;
+				try {
+					if (batch.isEmpty()) {
+						if (closed && queue.isEmpty()) {
+							return;
+						}
+						pending = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+						deadline = System.nanoTime() + flushIntervalNanos;
+					} else {
+						long remaining = deadline - System.nanoTime();
+						pending = urgent || closed || remaining <= 0 ? queue.poll()
+								: queue.poll(remaining, TimeUnit.NANOSECONDS);
+					}
+				} catch (InterruptedException _) {
+					// The writer is only stopped by closing the journal.
+				}
+				if (pending != null) {
+					if (pending.entry == null && pending.written == null) {
+						// Closing marker, the remaining entries are written without waiting
+						urgent = true;
+						continue;
+					}
+					batch.add(pending);
+					urgent |= pending.written != null;
+				}
+				if (!batch.isEmpty() && (pending == null || batch.size() >= flushSize)) {
+					writeBatch(batch);
+					batch.clear();
+					urgent = false;
+				}
+			}
+		} catch (Throwable t) {
+			// Without the writer, nobody would complete the futures nor empty the queue
+			stop(batch, new TradistaFlowTechnicalException(t instanceof Exception e ? e : new RuntimeException(t)));
+		}
+	}
+
+	/**
+	 * Marks the journal as broken, then fails the entries of the current batch
+	 * and of the queue.
+	 */
+	private void stop(List<Pending> batch, TradistaFlowTechnicalException error) {
+		lastError = error;
+		// The queue is emptied while waiting for the lock, so that the transitions
+		// blocked on a full queue can leave it.
+		boolean locked = false;
+		while (!locked) {
+			queue.drainTo(batch);
+			try {
+				locked = closeLock.writeLock().tryLock(10, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException _) {
+				// The writer is only stopped by closing the journal.
+			}
+		}
+		try {
+			broken = true;
+		} finally {
+			closeLock.writeLock().unlock();
+		}
+		queue.drainTo(batch);
+		for (Pending pending : batch) {
+			if (pending.entry != null) {
+				pendingCount.decrement();
+				failedCount.increment();
+			}
+			if (pending.written != null) {
+				pending.written.completeExceptionally(error);
+			}
+		}
+		batch.clear();
+	}
+
+	private void writeBatch(List<Pending> batch) {
+		List<TransitionJournalEntry> entries = batch.stream().map(p -> p.entry).filter(Objects::nonNull).toList();
+		RuntimeException error = null;
+		if (!entries.isEmpty()) {
+			try (EntityManager entityManager = HibernateSupport.isHibernate(entityManagerFactory)
+					? HibernateSupport.openBatchingEntityManager(entityManagerFactory, flushSize)
+					: entityManagerFactory.createEntityManager()) {
+				entityManager.getTransaction().begin();
+				try {
+					for (TransitionJournalEntry entry : entries) {
+						entityManager.persist(entry);
+					}
+					entityManager.getTransaction().commit();
+				} catch (RuntimeException re) {
+					if (entityManager.getTransaction().isActive()) {
+						entityManager.getTransaction().rollback();
+					}
+					throw re;
+				}
+				writtenCount.add(entries.size());
+			} catch (RuntimeException re) {
+				error = re;
+				lastError = re;
+				failedCount.add(entries.size());
+			}
+			pendingCount.add(-entries.size());
+		}
+		for (Pending pending : batch) {
+			if (pending.written != null) {
+				if (error == null) {
+					pending.written.complete(null);
+				} else {
+					pending.written.completeExceptionally(error);
+				}
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package finance.tradista.flow.service;
+
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Result of an action applied to an object, as part of a bulk operation.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class TransitionResult<X extends WorkflowObject> {
+
+	public enum Outcome {
+		/**
+		 * The action was applied, the result is the updated copy of the object.
+		 */
+		APPLIED,
+		/**
+		 * The action was rejected by a guard, the result is the object itself.
+		 */
+		REJECTED,
+		/**
+		 * The action failed, the error gives the reason.
+		 */
+		FAILED
+	}
+
+	private final X object;
+
+	private final X result;
+
+	private final Outcome outcome;
+
+	private final Exception error;
+
+	private TransitionResult(X object, X result, Outcome outcome, Exception error) {
+		this.object = object;
+		this.result = result;
+		this.outcome = outcome;
+		this.error = error;
+	}
+
+	static <X extends WorkflowObject> TransitionResult<X> applied(X object, X result) {
+		return new TransitionResult<>(object, result, Outcome.APPLIED, null);
+	}
+
+	static <X extends WorkflowObject> TransitionResult<X> rejected(X object) {
+		return new TransitionResult<>(object, object, Outcome.REJECTED, null);
+	}
+
+	static <X extends WorkflowObject> TransitionResult<X> failed(X object, Exception error) {
+		return new TransitionResult<>(object, object, Outcome.FAILED, error);
+	}
+
+	/**
+	 * Gets the object the action was applied to.
+	 * 
+	 * @return the object the action was applied to
+	 */
+	public X getObject() {
+		return object;
+	}
+
+	/**
+	 * Gets the result of the action: the updated copy of the object if the action
+	 * was applied, the object itself otherwise.
+	 * 
+	 * @return the result of the action
+	 */
+	public X getResult() {
+		return result;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Gets the error that made the action fail: a TradistaFlowBusinessException or
+	 * a TradistaFlowTechnicalException.
+	 * 
+	 * @return the error, null if the action didn't fail
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	public boolean isApplied() {
+		return outcome == Outcome.APPLIED;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s", outcome, error != null ? error.getMessage() : result);
+	}
+
+}
\ No newline at end of file
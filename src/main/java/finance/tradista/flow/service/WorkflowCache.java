@@ -0,0 +1,297 @@
+package finance.tradista.flow.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * In-memory cache of the compiled workflows used by the engine, keyed by
+ * workflow name.
+ * When the maximum size is reached, the least recently used workflow is
+ * evicted. Entries can also expire a given duration after they were loaded.
+ * The cache is invalidated by the WorkflowManager each time a workflow is
+ * saved or deleted.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowCache {
+
+	/**
+	 * Default maximum number of workflows kept in the cache.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100;
+
+	@FunctionalInterface
+	interface Loader<V> {
+		V load(String name) throws TradistaFlowBusinessException;
+	}
+
+	private static final class Entry {
+
+		private final CompiledWorkflow<? extends WorkflowObject> workflow;
+
+		private final long loadTime;
+
+		private Entry(CompiledWorkflow<? extends WorkflowObject> workflow, long loadTime) {
+			this.workflow = workflow;
+			this.loadTime = loadTime;
+		}
+
+	}
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	private Duration expireAfterWrite;
+
+	/*
+	 * Incremented at each invalidation so that a workflow loaded concurrently with
+	 * an invalidation is not put in the cache.
+	 */
+	private long generation;
+
+	WorkflowCache() {
+	}
+
+	/**
+	 * Gets a workflow from the cache, loading it with the given loader if it is
+	 * not cached yet.
+	 * 
+	 * @param name   the name of the workflow
+	 * @param loader the loader used in case of cache miss
+	 * @return the workflow
+	 * @throws TradistaFlowBusinessException if the loader raised it
+	 */
+	@SuppressWarnings("unchecked")
+	<X extends WorkflowObject> CompiledWorkflow<X> get(String name, Loader<CompiledWorkflow<X>> loader)
+			throws TradistaFlowBusinessException {
+		long currentGeneration;
+		synchronized (this) {
+			Entry entry = entries.get(name);
+			if (entry != null) {
+				if (!isExpired(entry, System.nanoTime())) {
+					hitCount.increment();
+					return (CompiledWorkflow<X>) entry.workflow;
+				}
+				entries.remove(name);
+				evictionCount.increment();
+			}
+			missCount.increment();
+			currentGeneration = generation;
+		}
+		// The workflow is loaded outside of the lock, so a slow load doesn't block
+		// the other workflows.
+		CompiledWorkflow<X> workflow = loader.load(name);
+		synchronized (this) {
+			if (workflow != null && maximumSize > 0 && currentGeneration == generation) {
+				entries.put(name, new Entry(workflow, System.nanoTime()));
+				evictIfNeeded();
+			}
+		}
+		return workflow;
+	}
+
+	/**
+	 * Gets a workflow from the cache, without loading it if it is not cached.
+	 * 
+	 * @param name the name of the workflow
+	 * @return the workflow, null if it is not cached
+	 */
+	synchronized CompiledWorkflow<? extends WorkflowObject> getIfPresent(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null || isExpired(entry, System.nanoTime())) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		return entry.workflow;
+	}
+
+	/**
+	 * Gets all the workflows currently cached, without updating the statistics.
+	 * 
+	 * @return the cached workflows, keyed by name
+	 */
+	synchronized Map<String, CompiledWorkflow<? extends WorkflowObject>> getAll() {
+		long now = System.nanoTime();
+		Map<String, CompiledWorkflow<? extends WorkflowObject>> workflows = new LinkedHashMap<>();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			if (!isExpired(entry.getValue(), now)) {
+				workflows.put(entry.getKey(), entry.getValue().workflow);
+			}
+		}
+		return workflows;
+	}
+
+	/**
+	 * Puts a workflow in the cache, replacing the cached one if any.
+	 * 
+	 * @param name     the name of the workflow
+	 * @param workflow the workflow
+	 */
+	synchronized void put(String name, CompiledWorkflow<? extends WorkflowObject> workflow) {
+		if (maximumSize > 0) {
+			entries.put(name, new Entry(workflow, System.nanoTime()));
+			evictIfNeeded();
+		}
+	}
+
+	/**
+	 * Replaces a cached workflow, only if the cached one is still the given old
+	 * workflow. The replacement doesn't happen if the workflow was invalidated or
+	 * replaced in the meantime.
+	 * 
+	 * @param name        the name of the workflow
+	 * @param oldWorkflow the workflow expected in the cache
+	 * @param newWorkflow the new workflow
+	 * @return true if the workflow was replaced
+	 */
+	synchronized boolean replace(String name, CompiledWorkflow<? extends WorkflowObject> oldWorkflow,
+			CompiledWorkflow<? extends WorkflowObject> newWorkflow) {
+		Entry entry = entries.get(name);
+		if (entry == null || entry.workflow != oldWorkflow) {
+			return false;
+		}
+		entries.put(name, new Entry(newWorkflow, System.nanoTime()));
+		return true;
+	}
+
+	/**
+	 * Removes a cached workflow, only if the cached one is still the given
+	 * workflow.
+	 * 
+	 * @param name     the name of the workflow
+	 * @param workflow the workflow expected in the cache
+	 * @return true if the workflow was removed
+	 */
+	synchronized boolean remove(String name, CompiledWorkflow<? extends WorkflowObject> workflow) {
+		Entry entry = entries.get(name);
+		if (entry == null || entry.workflow != workflow) {
+			return false;
+		}
+		entries.remove(name);
+		return true;
+	}
+
+	/**
+	 * Removes a workflow from the cache.
+	 * 
+	 * @param name the name of the workflow to remove
+	 */
+	public synchronized void invalidate(String name) {
+		generation++;
+		entries.remove(name);
+	}
+
+	/**
+	 * Removes all the workflows from the cache.
+	 */
+	public synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+	}
+
+	/**
+	 * Sets the maximum number of workflows kept in the cache. 0 disables the
+	 * cache.
+	 * 
+	 * @param maximumSize the maximum number of workflows kept in the cache
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("The maximum size cannot be negative.");
+		}
+		this.maximumSize = maximumSize;
+		evictIfNeeded();
+	}
+
+	public synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the duration after which a cached workflow is reloaded. null means
+	 * that cached workflows never expire.
+	 * 
+	 * @param expireAfterWrite the duration after which a cached workflow expires
+	 */
+	public synchronized void setExpireAfterWrite(Duration expireAfterWrite) {
+		if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+			throw new IllegalArgumentException("The expiration duration must be positive.");
+		}
+		this.expireAfterWrite = expireAfterWrite;
+	}
+
+	public synchronized Duration getExpireAfterWrite() {
+		return expireAfterWrite;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counters.
+	 */
+	public void resetStatistics() {
+		hitCount.reset();
+		missCount.reset();
+		evictionCount.reset();
+	}
+
+	private boolean isExpired(Entry entry, long now) {
+		return expireAfterWrite != null && now - entry.loadTime >= expireAfterWrite.toNanos();
+	}
+
+	private void evictIfNeeded() {
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (entries.size() > maximumSize && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictionCount.increment();
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,572 @@
+package finance.tradista.flow.service;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.TransitionJournalEntry;
+import finance.tradista.flow.model.WorkflowInstance;
+import finance.tradista.flow.model.WorkflowObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Store of the workflow instances: the current status and version of the
+ * objects managed by workflows. When it is set in the WorkflowManager, each
+ * transition is committed with a compare-and-set update (UPDATE ... WHERE key
+ * = ? AND status = ? AND version = ?), so a transition applied concurrently on
+ * the same object by another thread or another node is detected instead of
+ * being silently overwritten, without locking the instance. The objects must
+ * be registered before their first transition. The store uses resource local
+ * transactions, so its entity manager factory must not be a JTA one.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowInstanceStore {
+
+	/**
+	 * Expected version meaning that only the status of the instance is checked.
+	 */
+	public static final long ANY_VERSION = -1;
+
+	/**
+	 * Status update of an instance, applied only if the instance still has the
+	 * expected status and version.
+	 */
+	public static final class StatusUpdate {
+
+		private final String objectKey;
+
+		private final String expectedStatus;
+
+		private final long expectedVersion;
+
+		private final String newStatus;
+
+		/**
+		 * Creates a status update.
+		 * 
+		 * @param objectKey       the key of the object
+		 * @param expectedStatus  the status the instance must have
+		 * @param expectedVersion the version the instance must have, ANY_VERSION
+		 *                        to only check the status
+		 * @param newStatus       the new status of the instance
+		 */
+		public StatusUpdate(String objectKey, String expectedStatus, long expectedVersion, String newStatus) {
+			this.objectKey = objectKey;
+			this.expectedStatus = expectedStatus;
+			this.expectedVersion = expectedVersion;
+			this.newStatus = newStatus;
+		}
+
+		public String getObjectKey() {
+			return objectKey;
+		}
+
+		public String getExpectedStatus() {
+			return expectedStatus;
+		}
+
+		public long getExpectedVersion() {
+			return expectedVersion;
+		}
+
+		public String getNewStatus() {
+			return newStatus;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %s (version: %d) -> %s", objectKey, expectedStatus, expectedVersion, newStatus);
+		}
+
+	}
+
+	private static final String INSTANCE_QUERY = "Select i from WorkflowInstance i where i.objectKey = :objectKey";
+
+	private static final String DELETE_QUERY = "Delete from WorkflowInstance i where i.objectKey = :objectKey";
+
+	private static final String UPDATE_QUERY = "Update WorkflowInstance i set i.statusName = :newStatus,"
+			+ " i.version = i.version + 1 where i.objectKey = :objectKey and i.statusName = :expectedStatus";
+
+	private static final String VERSION_CONDITION = " and i.version = :expectedVersion";
+
+	private static final String REVERT_QUERY = "Update WorkflowInstance i set i.statusName = :expectedStatus,"
+			+ " i.version = i.version - 1 where i.objectKey = :objectKey and i.statusName = :newStatus";
+
+	private static final String REVERT_VERSION_CONDITION = " and i.version = :newVersion";
+
+	private static final String UPDATE_ALL_QUERY = "Update WorkflowInstance i set i.statusName = :newStatus,"
+			+ " i.version = i.version + 1 where i.workflowName = :workflowName and i.statusName = :expectedStatus";
+
+	private static final String KEYS_QUERY = "Select i.objectKey from WorkflowInstance i"
+			+ " where i.workflowName = :workflowName and i.statusName = :expectedStatus";
+
+	/*
+	 * Insert-select statements are not part of JPQL, this one is only used with
+	 * Hibernate.
+	 */
+	private static final String JOURNAL_ALL_QUERY = "Insert into TransitionJournalEntry (objectKey, workflowName,"
+			+ " fromStatus, actionName, toStatus, transitionTime, durationNanos) select i.objectKey, i.workflowName,"
+			+ " i.statusName, :actionName, :newStatus, :transitionTime, 0 from WorkflowInstance i"
+			+ " where i.workflowName = :workflowName and i.statusName = :expectedStatus";
+
+	/*
+	 * SQL equivalent of UPDATE_QUERY, used to send the bulk updates in JDBC
+	 * batches. The table and columns are read from the Hibernate mapping.
+	 */
+	private static final String UPDATE_SQL = "UPDATE %1$s SET %3$s = ?, %4$s = %4$s + 1 WHERE %2$s = ? AND %3$s = ?";
+
+	private static final String VERSION_SQL_CONDITION = " AND %4$s = ?";
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final int jdbcBatchSize;
+
+	// Only used with Hibernate
+	private final String updateSql;
+
+	private final String versionedUpdateSql;
+
+	/**
+	 * Creates a workflow instance store sending the bulk updates in JDBC batches
+	 * of WorkflowManager.DEFAULT_JDBC_BATCH_SIZE statements.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to read and
+	 *                             write the instances
+	 */
+	public WorkflowInstanceStore(EntityManagerFactory entityManagerFactory) {
+		this(entityManagerFactory, WorkflowManager.DEFAULT_JDBC_BATCH_SIZE);
+	}
+
+	/**
+	 * Creates a workflow instance store.
+	 * 
+	 * @param entityManagerFactory the entity manager factory used to read and
+	 *                             write the instances
+	 * @param jdbcBatchSize        the maximum number of updates sent in a JDBC
+	 *                             batch
+	 */
+	public WorkflowInstanceStore(EntityManagerFactory entityManagerFactory, int jdbcBatchSize) {
+		if (entityManagerFactory == null) {
+			throw new IllegalArgumentException("The entity manager factory cannot be null.");
+		}
+		if (jdbcBatchSize <= 0) {
+			throw new IllegalArgumentException("The JDBC batch size must be positive.");
+		}
+		this.entityManagerFactory = entityManagerFactory;
+		this.jdbcBatchSize = jdbcBatchSize;
+		if (HibernateSupport.isHibernate(entityManagerFactory)) {
+			Object[] names = HibernateSupport.getTableAndColumnNames(entityManagerFactory, WorkflowInstance.class,
+					"objectKey", "statusName", "version").toArray();
+			updateSql = String.format(UPDATE_SQL, names);
+			versionedUpdateSql = String.format(UPDATE_SQL + VERSION_SQL_CONDITION, names);
+		} else {
+			updateSql = null;
+			versionedUpdateSql = null;
+		}
+	}
+
+	/**
+	 * Registers an object in the store, with its current status and the version
+	 * 0.
+	 * 
+	 * @param object the object to register
+	 * @return the created instance
+	 * @throws TradistaFlowBusinessException if the object is null, if it has no
+	 *                                       key, if its workflow or status is
+	 *                                       null, or if it is already registered
+	 */
+	public WorkflowInstance register(WorkflowObject object) throws TradistaFlowBusinessException {
+		StringBuilder errMsg = new StringBuilder();
+		if (object == null) {
+			throw new TradistaFlowBusinessException("The object is null.");
+		}
+		String objectKey = WorkflowManager.getObjectKey(object);
+		if (object.getWorkflow() == null) {
+			errMsg.append("The workflow is null.");
+		}
+		if (object.getStatus() == null) {
+			errMsg.append("The status is null.");
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
+		}
+		WorkflowInstance instance = new WorkflowInstance(objectKey, object.getWorkflow(), object.getStatus().getName());
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			if (find(entityManager, objectKey) != null) {
+				throw new TradistaFlowBusinessException(
+						String.format("The object %s is already registered.", objectKey));
+			}
+			entityManager.getTransaction().begin();
+			try {
+				entityManager.persist(instance);
+				entityManager.getTransaction().commit();
+			} catch (PersistenceException pe) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				// Most likely registered concurrently
+				if (find(entityManager, objectKey) != null) {
+					throw new TradistaFlowBusinessException(
+						String.format("The object %s is already registered.", objectKey));
+				}
+				throw pe;
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the instance of an object.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return the instance of the object, null if it is not registered
+	 */
+	public WorkflowInstance getInstance(String objectKey) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			return find(entityManager, objectKey);
+		}
+	}
+
+	/**
+	 * Deletes the instance of an object.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return true if the instance was deleted, false if the object was not
+	 *         registered
+	 */
+	public boolean delete(String objectKey) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				int count = entityManager.createQuery(DELETE_QUERY).setParameter("objectKey", objectKey)
+						.executeUpdate();
+				entityManager.getTransaction().commit();
+				return count > 0;
+			} catch (RuntimeException re) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+	}
+
+	/**
+	 * Updates the status of an instance, only if it still has the expected status
+	 * and version. The version is incremented.
+	 * 
+	 * @param objectKey       the key of the object
+	 * @param expectedStatus  the status the instance must have
+	 * @param expectedVersion the version the instance must have, ANY_VERSION to
+	 *                        only check the status
+	 * @param newStatus       the new status of the instance
+	 * @return true if the instance was updated, false if its status or version
+	 *         changed in the meantime, or if it is not registered
+	 */
+	public boolean compareAndSet(String objectKey, String expectedStatus, long expectedVersion, String newStatus) {
+		return compareAndSet(List.of(new StatusUpdate(objectKey, expectedStatus, expectedVersion, newStatus)))[0];
+	}
+
+	/**
+	 * Updates the status of several instances in a single transaction, each
+	 * update being applied only if its instance still has the expected status and
+	 * version. With Hibernate, the updates are sent in JDBC batches. A failed
+	 * update doesn't prevent the other ones to be applied.
+	 * 
+	 * @param updates the status updates
+	 * @return for each update, in the same order, true if it was applied
+	 * @throws TradistaFlowTechnicalException if the JDBC driver doesn't report
+	 *                                        the update counts of the batches. In
+	 *                                        this case, no update is applied.
+	 */
+	public boolean[] compareAndSet(List<StatusUpdate> updates) {
+		if (updates == null) {
+			throw new IllegalArgumentException("The updates list cannot be null.");
+		}
+		if (updates.isEmpty()) {
+			return new boolean[0];
+		}
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				boolean[] applied = compareAndSet(entityManager, updates);
+				entityManager.getTransaction().commit();
+				return applied;
+			} catch (RuntimeException re) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+	}
+
+	/**
+	 * Updates the status of several instances in the current transaction of an
+	 * entity manager of this store, as compareAndSet(List) does.
+	 * 
+	 * @param entityManager the entity manager, with an active transaction
+	 * @param updates       the status updates
+	 * @return for each update, in the same order, true if it was applied
+	 * @throws TradistaFlowTechnicalException if the JDBC driver doesn't report
+	 *                                        the update counts of the batches
+	 */
+	boolean[] compareAndSet(EntityManager entityManager, List<StatusUpdate> updates) {
+		boolean[] applied = new boolean[updates.size()];
+		if (HibernateSupport.isHibernate(entityManagerFactory)) {
+			updateInBatches(entityManager, updates, applied);
+		} else {
+			for (int i = 0; i < updates.size(); i++) {
+				applied[i] = update(entityManager, updates.get(i));
+			}
+		}
+		return applied;
+	}
+
+	/**
+	 * Reverts applied status updates, in a single transaction: each instance gets
+	 * back its expected status and version, only if it still has the new status
+	 * (and the incremented version).
+	 * 
+	 * @param updates the applied status updates
+	 * @return for each update, in the same order, true if it was reverted
+	 */
+	boolean[] revert(List<StatusUpdate> updates) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				boolean[] reverted = new boolean[updates.size()];
+				for (int i = 0; i < updates.size(); i++) {
+					reverted[i] = revert(entityManager, updates.get(i));
+				}
+				entityManager.getTransaction().commit();
+				return reverted;
+			} catch (RuntimeException re) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+	}
+
+	/**
+	 * Reverts an applied status update in the current transaction of an entity
+	 * manager of this store.
+	 * 
+	 * @param entityManager the entity manager, with an active transaction
+	 * @param update        the applied status update
+	 * @return true if the update was reverted
+	 */
+	boolean revert(EntityManager entityManager, StatusUpdate update) {
+		boolean versioned = update.getExpectedVersion() != ANY_VERSION;
+		Query query = entityManager.createQuery(versioned ? REVERT_QUERY + REVERT_VERSION_CONDITION : REVERT_QUERY)
+				.setParameter("expectedStatus", update.getExpectedStatus())
+				.setParameter("objectKey", update.getObjectKey()).setParameter("newStatus", update.getNewStatus());
+		if (versioned) {
+			query.setParameter("newVersion", update.getExpectedVersion() + 1);
+		}
+		return query.executeUpdate() > 0;
+	}
+
+	/**
+	 * Builds the exception reporting a status update that was not applied.
+	 * 
+	 * @param update the status update that was not applied
+	 * @return the exception explaining why the update was not applied
+	 */
+	TradistaFlowBusinessException conflict(StatusUpdate update) {
+		if (getInstance(update.getObjectKey()) == null) {
+			return new TradistaFlowBusinessException(String.format(
+					"The object %s is not registered in the workflow instance store.", update.getObjectKey()));
+		}
+		return new TradistaFlowBusinessException(String.format(
+				"The object %s was modified concurrently, it is no longer in status %s (version %d) in the workflow"
+						+ " instance store.",
+				update.getObjectKey(), update.getExpectedStatus(), update.getExpectedVersion()));
+	}
+
+	/**
+	 * Moves all the instances of a workflow from a status to another with a
+	 * single set-based update. The versions of the instances are incremented.
+	 * 
+	 * @param workflowName   the name of the workflow
+	 * @param expectedStatus the status of the instances to update
+	 * @param newStatus      the new status of the instances
+	 * @return the number of updated instances
+	 */
+	public int updateAll(String workflowName, String expectedStatus, String newStatus) {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				int updated = updateAll(entityManager, workflowName, expectedStatus, newStatus);
+				entityManager.getTransaction().commit();
+				return updated;
+			} catch (RuntimeException re) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+	}
+
+	/**
+	 * Moves all the instances of a workflow from a status to another with a
+	 * single set-based update, recording the transitions in the transition
+	 * journal table in the same transaction. With Hibernate, the journal entries
+	 * are written with a single insert-select statement, so the instances are
+	 * never loaded. The journal entries have a duration of 0.
+	 * 
+	 * @param workflowName   the name of the workflow
+	 * @param expectedStatus the status of the instances to update
+	 * @param newStatus      the new status of the instances
+	 * @param actionName     the action recorded in the journal entries
+	 * @return the number of updated instances
+	 * @throws TradistaFlowBusinessException if instances were moved concurrently,
+	 *                                       between the writing of the journal
+	 *                                       entries and the update. In this case,
+	 *                                       nothing is written and the update can
+	 *                                       be retried.
+	 */
+	public int updateAll(String workflowName, String expectedStatus, String newStatus, String actionName)
+			throws TradistaFlowBusinessException {
+		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				int journaled = journalAll(entityManager, workflowName, expectedStatus, newStatus, actionName);
+				int updated = updateAll(entityManager, workflowName, expectedStatus, newStatus);
+				if (journaled != updated) {
+					entityManager.getTransaction().rollback();
+					throw new TradistaFlowBusinessException(String.format(
+							"Instances of the workflow %s in status %s were modified concurrently, nothing was"
+									+ " updated.",
+							workflowName, expectedStatus));
+				}
+				entityManager.getTransaction().commit();
+				return updated;
+			} catch (RuntimeException re) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				throw re;
+			}
+		}
+	}
+
+	public int getJdbcBatchSize() {
+		return jdbcBatchSize;
+	}
+
+	EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
+	}
+
+	private static WorkflowInstance find(EntityManager entityManager, String objectKey) {
+		try {
+			return entityManager.createQuery(INSTANCE_QUERY, WorkflowInstance.class)
+					.setParameter("objectKey", objectKey).getSingleResult();
+		} catch (NoResultException _) {
+			return null;
+		}
+	}
+
+	private static int updateAll(EntityManager entityManager, String workflowName, String expectedStatus,
+			String newStatus) {
+		return entityManager.createQuery(UPDATE_ALL_QUERY).setParameter("newStatus", newStatus)
+				.setParameter("workflowName", workflowName).setParameter("expectedStatus", expectedStatus)
+				.executeUpdate();
+	}
+
+	private int journalAll(EntityManager entityManager, String workflowName, String expectedStatus,
+			String newStatus, String actionName) {
+		Instant transitionTime = Instant.now();
+		if (HibernateSupport.isHibernate(entityManagerFactory)) {
+			return entityManager.createQuery(JOURNAL_ALL_QUERY).setParameter("actionName", actionName)
+					.setParameter("newStatus", newStatus).setParameter("transitionTime", transitionTime)
+					.setParameter("workflowName", workflowName).setParameter("expectedStatus", expectedStatus)
+					.executeUpdate();
+		}
+		List<String> objectKeys = entityManager.createQuery(KEYS_QUERY, String.class)
+				.setParameter("workflowName", workflowName).setParameter("expectedStatus", expectedStatus)
+				.getResultList();
+		for (String objectKey : objectKeys) {
+			entityManager.persist(new TransitionJournalEntry(objectKey, workflowName, expectedStatus, actionName,
+					newStatus, transitionTime, 0));
+		}
+		entityManager.flush();
+		return objectKeys.size();
+	}
+
+	private static boolean update(EntityManager entityManager, StatusUpdate update) {
+		boolean versioned = update.getExpectedVersion() != ANY_VERSION;
+		Query query = entityManager.createQuery(versioned ? UPDATE_QUERY + VERSION_CONDITION : UPDATE_QUERY)
+				.setParameter("newStatus", update.getNewStatus()).setParameter("objectKey", update.getObjectKey())
+				.setParameter("expectedStatus", update.getExpectedStatus());
+		if (versioned) {
+			query.setParameter("expectedVersion", update.getExpectedVersion());
+		}
+		return query.executeUpdate() > 0;
+	}
+
+	/*
+	 * The updates checking the version and the ones checking only the status use
+	 * different statements, so they are sent in separate batches.
+	 */
+	private void updateInBatches(EntityManager entityManager, List<StatusUpdate> updates, boolean[] applied) {
+		List<Integer> statusOnly = new ArrayList<>();
+		List<Integer> versioned = new ArrayList<>();
+		for (int i = 0; i < updates.size(); i++) {
+			(updates.get(i).getExpectedVersion() == ANY_VERSION ? statusOnly : versioned).add(i);
+		}
+		for (List<Integer> indexes : List.of(statusOnly, versioned)) {
+			if (indexes.isEmpty()) {
+				continue;
+			}
+			boolean checkVersion = indexes == versioned;
+			List<Object[]> rows = new ArrayList<>(indexes.size());
+			for (int i : indexes) {
+				StatusUpdate update = updates.get(i);
+				rows.add(checkVersion
+						? new Object[] { update.getNewStatus(), update.getObjectKey(), update.getExpectedStatus(),
+								update.getExpectedVersion() }
+						: new Object[] { update.getNewStatus(), update.getObjectKey(), update.getExpectedStatus() });
+			}
+			int[] counts = HibernateSupport.executeBatch(entityManager, checkVersion ? versionedUpdateSql : updateSql,
+					rows, jdbcBatchSize);
+			for (int j = 0; j < counts.length; j++) {
+				if (counts[j] == Statement.SUCCESS_NO_INFO) {
+					throw new TradistaFlowTechnicalException(
+							"The JDBC driver doesn't report the update counts of the batches, the instances cannot be"
+									+ " updated in bulk.");
+				}
+				applied[indexes.get(j)] = counts[j] > 0;
+			}
+		}
+	}
+
+}
\ No newline at end of file
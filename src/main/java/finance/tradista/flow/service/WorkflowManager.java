@@ -1,27 +1,41 @@
 package finance.tradista.flow.service;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import finance.tradista.flow.exception.TradistaFlowBusinessException;
 import finance.tradista.flow.exception.TradistaFlowTechnicalException;
-import finance.tradista.flow.model.Action;
-import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.metrics.TransitionMetrics;
+import finance.tradista.flow.metrics.TransitionMetrics.Step;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.CompiledWorkflow.Transition;
 import finance.tradista.flow.model.Guard;
-import finance.tradista.flow.model.SimpleAction;
-import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.ReadOnlyGuard;
+import finance.tradista.flow.model.TransitionJournalEntry;
 import finance.tradista.flow.model.Workflow;
 import finance.tradista.flow.model.WorkflowObject;
+import finance.tradista.flow.store.MappedWorkflowStore;
+import finance.tradista.flow.store.WorkflowSnapshot;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.NoResultException;
-import jakarta.persistence.Persistence;
 
 /********************************************************************************
  * Copyright (c) 2023 Olivier Asuncion
@@ -48,11 +62,235 @@ import jakarta.persistence.Persistence;
 
 public final class WorkflowManager {
 
+	/*
+	 * Transition executed on an object, waiting to be committed in the workflow
+	 * instance store.
+	 */
+	private static final class PendingTransition<X extends WorkflowObject> {
+
+		private final int index;
+
+		private final String objectKey;
+
+		private final X object;
+
+		private final CompiledWorkflow<X> wkf;
+
+		private final Transition<X> transition;
+
+		private final X result;
+
+		private final long start;
+
+		private PendingTransition(int index, String objectKey, X object, CompiledWorkflow<X> wkf,
+				Transition<X> transition, X result, long start) {
+			this.index = index;
+			this.objectKey = objectKey;
+			this.object = object;
+			this.wkf = wkf;
+			this.transition = transition;
+			this.result = result;
+			this.start = start;
+		}
+
+	}
+
 	private WorkflowManager() {
 	}
 
-	public static final EntityManagerFactory entityManagerFactory = Persistence
-			.createEntityManagerFactory("tradista-flow-persistence-unit");
+	/**
+	 * JDBC batch size used by saveWorkflows when none is given.
+	 */
+	public static final int DEFAULT_JDBC_BATCH_SIZE = 50;
+
+	/**
+	 * Fetch size used by streamAllWorkflows when none is given.
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 100;
+
+	private static final WorkflowCache workflowCache = new WorkflowCache();
+
+	private static final Executor DEFAULT_ASYNC_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+	private static volatile Executor asyncExecutor = DEFAULT_ASYNC_EXECUTOR;
+
+	private static volatile TransitionMetrics transitionMetrics = TransitionMetrics.NOOP;
+
+	private static volatile TransitionJournal transitionJournal;
+
+	private static volatile WorkflowInstanceStore workflowInstanceStore;
+
+	private static volatile TransitionEventStore transitionEventStore;
+
+	private static volatile MappedWorkflowStore workflowStore;
+
+	private static volatile WorkflowRepository workflowRepository;
+
+	/**
+	 * Gets the cache of the workflows used when applying actions. It can be used
+	 * to configure the cache and to monitor it.
+	 * 
+	 * @return the workflow cache
+	 */
+	public static WorkflowCache getWorkflowCache() {
+		return workflowCache;
+	}
+
+	/**
+	 * Sets the executor used by applyActionAsync. null restores the default
+	 * executor, which runs each action in its own virtual thread.
+	 * 
+	 * @param executor the executor used to apply actions asynchronously
+	 */
+	public static void setAsyncExecutor(Executor executor) {
+		asyncExecutor = executor != null ? executor : DEFAULT_ASYNC_EXECUTOR;
+	}
+
+	public static Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * Sets the metrics notified of the duration of the workflow lookup and of
+	 * each guard, condition and process when applying actions. null restores the
+	 * default metrics, which do nothing.
+	 * 
+	 * @param metrics the transition metrics
+	 */
+	public static void setTransitionMetrics(TransitionMetrics metrics) {
+		transitionMetrics = metrics != null ? metrics : TransitionMetrics.NOOP;
+	}
+
+	public static TransitionMetrics getTransitionMetrics() {
+		return transitionMetrics;
+	}
+
+	/**
+	 * Sets the journal where the applied transitions are recorded. null disables
+	 * the journal, which is the default. The WorkflowManager doesn't close the
+	 * journal.
+	 * 
+	 * @param journal the transition journal
+	 */
+	public static void setTransitionJournal(TransitionJournal journal) {
+		transitionJournal = journal;
+	}
+
+	public static TransitionJournal getTransitionJournal() {
+		return transitionJournal;
+	}
+
+	/**
+	 * Sets the store where the new status of the objects is committed at each
+	 * transition, with a compare-and-set update detecting the concurrent
+	 * transitions on the same object. The objects must be registered in the store
+	 * before their first transition. null disables the store, which is the
+	 * default: persisting the new status of the objects is then left to the
+	 * caller.
+	 * 
+	 * @param store the workflow instance store
+	 */
+	public static void setWorkflowInstanceStore(WorkflowInstanceStore store) {
+		workflowInstanceStore = store;
+	}
+
+	public static WorkflowInstanceStore getWorkflowInstanceStore() {
+		return workflowInstanceStore;
+	}
+
+	/**
+	 * Sets the store where each applied transition is appended as an immutable
+	 * event, so the state of the objects can be rebuilt at any time. null
+	 * disables the store, which is the default.
+	 * 
+	 * @param store the transition event store
+	 */
+	public static void setTransitionEventStore(TransitionEventStore store) {
+		transitionEventStore = store;
+	}
+
+	public static TransitionEventStore getTransitionEventStore() {
+		return transitionEventStore;
+	}
+
+	/**
+	 * Replays the transition events of an object with the current definition of
+	 * its workflow, for instance to check the objects after a change of this
+	 * definition. See TransitionEventStore.replay.
+	 * 
+	 * @param objectKey the key of the object
+	 * @return the result of the replay
+	 * @throws TradistaFlowBusinessException if no transition event store is set,
+	 *                                       if the object has no event or if its
+	 *                                       workflow doesn't exist anymore
+	 */
+	public static ReplayResult replayEvents(String objectKey) throws TradistaFlowBusinessException {
+		TransitionEventStore store = transitionEventStore;
+		if (store == null) {
+			throw new TradistaFlowBusinessException("No transition event store is set.");
+		}
+		ObjectState state = store.getState(objectKey);
+		if (state == null) {
+			throw new TradistaFlowBusinessException(
+					String.format("No transition event was recorded for the object %s.", objectKey));
+		}
+		return store.replay(objectKey, getCompiledWorkflowByName(state.getWorkflowName()));
+	}
+
+	/**
+	 * Sets the store from where the workflows used to apply actions are read.
+	 * When a store is set, applyAction and getAvailableActions read the workflows
+	 * from it instead of the workflow repository. null restores the default,
+	 * reading from the workflow repository. The workflow cache is invalidated.
+	 * 
+	 * @param store the workflow store
+	 */
+	public static void setWorkflowStore(MappedWorkflowStore store) {
+		workflowStore = store;
+		workflowCache.invalidateAll();
+	}
+
+	public static MappedWorkflowStore getWorkflowStore() {
+		return workflowStore;
+	}
+
+	/**
+	 * Sets the repository where the workflows are saved and read. null restores
+	 * the default repository, which is looked up the next time it is needed. The
+	 * workflow cache is invalidated.
+	 * 
+	 * @param repository the workflow repository
+	 */
+	public static void setWorkflowRepository(WorkflowRepository repository) {
+		synchronized (WorkflowManager.class) {
+			workflowRepository = repository;
+		}
+		workflowCache.invalidateAll();
+	}
+
+	/**
+	 * Gets the repository where the workflows are saved and read. If none was
+	 * set, the first repository provided through the java.util.ServiceLoader
+	 * mechanism is used, a JpaWorkflowRepository otherwise. The default
+	 * repository is only looked up the first time it is needed, so the
+	 * persistence provider is not started when the WorkflowManager is loaded.
+	 * 
+	 * @return the workflow repository
+	 */
+	public static WorkflowRepository getWorkflowRepository() {
+		WorkflowRepository repository = workflowRepository;
+		if (repository == null) {
+			synchronized (WorkflowManager.class) {
+				repository = workflowRepository;
+				if (repository == null) {
+					repository = ServiceLoader.load(WorkflowRepository.class).findFirst()
+							.orElseGet(JpaWorkflowRepository::new);
+					workflowRepository = repository;
+				}
+			}
+		}
+		return repository;
+	}
 
 	/**
 	 * Saves a workflow.
@@ -66,33 +304,96 @@ public final class WorkflowManager {
 			throw new TradistaFlowBusinessException(
 					String.format("The workflow %s is not valid. Please check.", workflow.getName()));
 		}
-		EntityManager entityManager = entityManagerFactory.createEntityManager();
-		if (isJTA(entityManager)) {
-			entityManager.joinTransaction();
-		} else {
-			entityManager.getTransaction().begin();
-		}
-		entityManager.persist(workflow);
-		if (!isJTA(entityManager)) {
-			entityManager.getTransaction().commit();
+		long id = getWorkflowRepository().saveWorkflow(workflow);
+		workflowCache.invalidate(workflow.getName());
+		return id;
+	}
+
+	/**
+	 * Updates a stored workflow, identified by its name. Only the differences
+	 * between the given workflow and its stored version are written: the
+	 * unchanged statuses, actions, guards and processes are kept as is. The
+	 * workflow remains available during the update: the actions applied
+	 * concurrently use the previous definition until the update is committed.
+	 * If the given workflow was loaded from the workflow repository, the update
+	 * fails if the workflow was modified since then.
+	 * 
+	 * @param workflow the new definition of the workflow
+	 * @return the new version of the workflow
+	 * @throws TradistaFlowBusinessException if the workflow is not valid, if it
+	 *                                       doesn't exist or if it was modified
+	 *                                       concurrently
+	 */
+	public static long updateWorkflow(Workflow<? extends WorkflowObject> workflow)
+			throws TradistaFlowBusinessException {
+		if (!isValid(workflow)) {
+			throw new TradistaFlowBusinessException(
+					String.format("The workflow %s is not valid. Please check.", workflow.getName()));
 		}
-		entityManager.close();
-		return workflow.getId();
+		long version = getWorkflowRepository().updateWorkflow(workflow);
+		workflowCache.invalidate(workflow.getName());
+		return version;
 	}
 
 	/**
-	 * Checks whether the entityManager is a JTA or a RESOURCE_LOCAL one.
+	 * Saves several workflows in a single transaction, with a JDBC batch size of
+	 * DEFAULT_JDBC_BATCH_SIZE.
 	 * 
-	 * @param entityManager the entityManager to be checked
-	 * @return true if the entityManager is JTA, false otherwise
+	 * @param workflows the workflows to be saved
+	 * @return the report of the save
+	 * @throws TradistaFlowBusinessException if the collection is null or if a
+	 *                                       workflow is null, invalid or
+	 *                                       duplicated. In this case, no workflow
+	 *                                       is saved.
 	 */
-	private static boolean isJTA(EntityManager entityManager) {
-		try {
-			entityManager.getTransaction();
-		} catch (IllegalStateException _) {
-			return true;
+	public static WorkflowSaveReport saveWorkflows(Collection<? extends Workflow<? extends WorkflowObject>> workflows)
+			throws TradistaFlowBusinessException {
+		return saveWorkflows(workflows, DEFAULT_JDBC_BATCH_SIZE);
+	}
+
+	/**
+	 * Saves several workflows in a single transaction. All the workflows are
+	 * validated before any of them is persisted. With the JpaWorkflowRepository,
+	 * when the JPA provider is Hibernate, the inserts are sent using JDBC batching
+	 * and the issued SQL statements are reported. Setting hibernate.order_inserts
+	 * to true in the persistence unit groups the inserts by table, so batches are
+	 * not split by the interleaving of statuses, actions, guards and processes.
+	 * 
+	 * @param workflows     the workflows to be saved
+	 * @param jdbcBatchSize the JDBC batch size used for this save
+	 * @return the report of the save
+	 * @throws TradistaFlowBusinessException if the collection is null or if a
+	 *                                       workflow is null, invalid or
+	 *                                       duplicated. In this case, no workflow
+	 *                                       is saved.
+	 */
+	public static WorkflowSaveReport saveWorkflows(Collection<? extends Workflow<? extends WorkflowObject>> workflows,
+			int jdbcBatchSize) throws TradistaFlowBusinessException {
+		if (workflows == null) {
+			throw new TradistaFlowBusinessException("The workflows collection is null.");
+		}
+		if (jdbcBatchSize <= 0) {
+			throw new TradistaFlowBusinessException("The JDBC batch size must be positive.");
+		}
+		StringBuilder errMsg = new StringBuilder();
+		Set<String> workflowNames = new HashSet<>();
+		for (Workflow<? extends WorkflowObject> workflow : workflows) {
+			if (workflow == null) {
+				errMsg.append("A workflow is null.");
+			} else if (!workflow.isValid()) {
+				errMsg.append(String.format("The workflow %s is not valid. Please check.", workflow.getName()));
+			} else if (!workflowNames.add(workflow.getName())) {
+				errMsg.append(String.format("The workflow %s is duplicated.", workflow.getName()));
+			}
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
 		}
-		return false;
+		WorkflowSaveReport report = getWorkflowRepository().saveWorkflows(workflows, jdbcBatchSize);
+		for (Workflow<? extends WorkflowObject> workflow : workflows) {
+			workflowCache.invalidate(workflow.getName());
+		}
+		return report;
 	}
 
 	/**
@@ -100,17 +401,45 @@ public final class WorkflowManager {
 	 * 
 	 * @return all workflows of the system in a set
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <X extends WorkflowObject> Set<Workflow<X>> getAllWorkflows() {
-		Set<Workflow<X>> workflows = null;
-		EntityManager entityManager = entityManagerFactory.createEntityManager();
-		List<Workflow> res = entityManager.createQuery("Select w from Workflow w", Workflow.class).getResultList();
-		if (res != null) {
-			workflows = new HashSet(res);
-			workflows.forEach(w -> w.syncModel());
+		return getWorkflowRepository().getAllWorkflows();
+	}
+
+	/**
+	 * Streams all workflows of the system, with a fetch size of
+	 * DEFAULT_FETCH_SIZE.
+	 * 
+	 * @return all workflows of the system, ordered by name
+	 */
+	public static <X extends WorkflowObject> Stream<Workflow<X>> streamAllWorkflows() {
+		return streamAllWorkflows(DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * Streams all workflows of the system. With the JpaWorkflowRepository,
+	 * workflows are read from the database as the stream is consumed, and
+	 * detached once synced, so they are not all kept in memory. The stream must
+	 * be closed to release the database resources, for instance using a
+	 * try-with-resources statement.
+	 * 
+	 * @param fetchSize the number of rows fetched per database round trip
+	 * @return all workflows of the system, ordered by name
+	 */
+	public static <X extends WorkflowObject> Stream<Workflow<X>> streamAllWorkflows(int fetchSize) {
+		if (fetchSize <= 0) {
+			throw new IllegalArgumentException("The fetch size must be positive.");
 		}
-		entityManager.close();
-		return workflows;
+		return getWorkflowRepository().streamAllWorkflows(fetchSize);
+	}
+
+	/**
+	 * Gets the summaries of all workflows of the system, without loading the
+	 * workflows.
+	 * 
+	 * @return the summaries of all workflows of the system, ordered by name
+	 */
+	public static List<WorkflowSummary> getAllWorkflowSummaries() {
+		return getWorkflowRepository().getAllWorkflowSummaries();
 	}
 
 	/**
@@ -119,23 +448,9 @@ public final class WorkflowManager {
 	 * @param id the id of the workflow to be deleted
 	 * @throws TradistaFlowBusinessException if the workflow doesn't exist
 	 */
-	@SuppressWarnings("unchecked")
 	public static void deleteWorkflow(long id) throws TradistaFlowBusinessException {
-		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
-			Workflow<? extends WorkflowObject> wkf = entityManager.find(Workflow.class, id);
-			if (wkf == null) {
-				throw new TradistaFlowBusinessException(String.format("The workflow %s doesn't exist.", id));
-			}
-			if (isJTA(entityManager)) {
-				entityManager.joinTransaction();
-			} else {
-				entityManager.getTransaction().begin();
-			}
-			entityManager.remove(wkf);
-			if (!isJTA(entityManager)) {
-				entityManager.getTransaction().commit();
-			}
-		}
+		String name = getWorkflowRepository().deleteWorkflow(id);
+		workflowCache.invalidate(name);
 	}
 
 	/**
@@ -161,21 +476,20 @@ public final class WorkflowManager {
 	 * @throws TradistaFlowBusinessException  if the object is null, the action is
 	 *                                        null or empty, if the object workflow
 	 *                                        doesn't exist, if the action is
-	 *                                        invalid or if a
-	 *                                        condition/guard/process raised a
-	 *                                        checked exception.
+	 *                                        invalid, if a condition/guard/process
+	 *                                        raised a checked exception or if the
+	 *                                        status of the object changed in the
+	 *                                        workflow instance store.
 	 * @throws TradistaFlowTechnicalException if a condition/guard/process raised a
 	 *                                        runtime exception.
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <X extends WorkflowObject> X applyAction(X object, String action)
 			throws TradistaFlowBusinessException {
 		if (object == null) {
 			throw new TradistaFlowBusinessException("The object is null");
 		}
-		Workflow<X> wkf = getWorkflowByName(object.getWorkflow());
+		CompiledWorkflow<X> wkf = getCompiledWorkflowByName(object.getWorkflow());
 		StringBuilder errMsg = new StringBuilder();
-		X objectDeepCopy = null;
 		if (StringUtils.isEmpty(action)) {
 			errMsg.append("The action is null or empty.");
 		}
@@ -185,70 +499,664 @@ public final class WorkflowManager {
 		if (!errMsg.isEmpty()) {
 			throw new TradistaFlowBusinessException(errMsg.toString());
 		}
-		if (!isValidAction(wkf, object.getStatus(), action)) {
+		Transition<X> transition = wkf.getTransition(object.getStatus(), action);
+		if (transition == null) {
 			throw new TradistaFlowBusinessException(
 					String.format("The action %s is not a valid one from status %s in workflow %s.", action,
 							object.getStatus(), object.getWorkflow()));
 		}
+		X res = applyTransition(wkf, transition, object);
+		return res != null ? res : object;
+	}
+
+	/**
+	 * Applies an action to an object asynchronously, using the async executor
+	 * (see setAsyncExecutor).
+	 * 
+	 * @param object the object to update
+	 * @param action the action to apply
+	 * @return a future completed with the updated object. It is completed
+	 *         exceptionally with a TradistaFlowBusinessException or a
+	 *         TradistaFlowTechnicalException in the cases where applyAction
+	 *         raises them, and with the error itself if a guard or a process
+	 *         raised an Error.
+	 */
+	public static <X extends WorkflowObject> CompletableFuture<X> applyActionAsync(X object, String action) {
+		CompletableFuture<X> future = new CompletableFuture<>();
 		try {
-			Action<X> actionObject = wkf.getActionByDepartureStatusAndName(object.getStatus(), action);
-			objectDeepCopy = (X) object.clone();
-			Set<Guard> guards = actionObject.getGuards();
-			if (!ObjectUtils.isEmpty(guards)) {
-				for (Guard<X> guard : guards) {
-					if (!guard.test(objectDeepCopy)) {
-						return object;
-					}
-					// Reinitializing objectDeepCopy in case it has been modified by a guard
-					objectDeepCopy = (X) object.clone();
+			asyncExecutor.execute(() -> {
+				try {
+					future.complete(applyAction(object, action));
+				} catch (Throwable t) {
+					// Errors too, otherwise the future would never be completed
+					future.completeExceptionally(t);
 				}
-			}
+			});
+		} catch (RejectedExecutionException ree) {
+			future.completeExceptionally(new TradistaFlowTechnicalException(ree));
+		}
+		return future;
+	}
 
-			if (actionObject instanceof SimpleAction simpleAction) {
-				// Perform processes
-				Set<finance.tradista.flow.model.Process> processes = simpleAction.getProcesses();
-				if (!ObjectUtils.isEmpty(processes)) {
-					for (finance.tradista.flow.model.Process<X> process : processes) {
-						if (process != null) {
-							process.apply(objectDeepCopy);
+	/**
+	 * Applies an action to a collection of objects. Objects are grouped by
+	 * workflow and current status, so the workflow and the action are resolved
+	 * once per group. A failure on an object doesn't prevent the action to be
+	 * applied to the other objects: the outcome for each object is given in the
+	 * returned results. When a workflow instance store or a transition event
+	 * store is set, the transitions are committed together, once they are all
+	 * executed.
+	 * 
+	 * @param objects the objects to update
+	 * @param action  the action to apply
+	 * @return the results of the action, in the iteration order of the objects
+	 * @throws TradistaFlowBusinessException if the objects collection is null or
+	 *                                       if the action is null or empty.
+	 */
+	public static <X extends WorkflowObject> List<TransitionResult<X>> applyAction(Collection<X> objects,
+			String action) throws TradistaFlowBusinessException {
+		StringBuilder errMsg = new StringBuilder();
+		if (objects == null) {
+			errMsg.append("The objects collection is null.");
+		}
+		if (StringUtils.isEmpty(action)) {
+			errMsg.append("The action is null or empty.");
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
+		}
+		List<X> objectList = new ArrayList<>(objects);
+		List<TransitionResult<X>> results = new ArrayList<>(Collections.nCopies(objectList.size(), null));
+		// Objects indexes grouped by workflow name, then by status name
+		Map<String, Map<String, List<Integer>>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < objectList.size(); i++) {
+			X object = objectList.get(i);
+			if (object == null) {
+				results.set(i, TransitionResult.failed(null, new TradistaFlowBusinessException("The object is null")));
+			} else {
+				String statusName = object.getStatus() != null ? object.getStatus().getName() : null;
+				groups.computeIfAbsent(object.getWorkflow(), _ -> new LinkedHashMap<>())
+						.computeIfAbsent(statusName, _ -> new ArrayList<>()).add(i);
+			}
+		}
+		WorkflowInstanceStore store = workflowInstanceStore;
+		TransitionEventStore eventStore = transitionEventStore;
+		TransitionJournal journal = transitionJournal;
+		// With a workflow instance store or a transition event store, the
+		// transitions are committed together
+		List<PendingTransition<X>> pendingTransitions = new ArrayList<>();
+		for (Map.Entry<String, Map<String, List<Integer>>> workflowGroup : groups.entrySet()) {
+			CompiledWorkflow<X> wkf;
+			try {
+				wkf = getCompiledWorkflowByName(workflowGroup.getKey());
+			} catch (TradistaFlowBusinessException | TradistaFlowTechnicalException e) {
+				workflowGroup.getValue().values().forEach(
+						indexes -> indexes.forEach(i -> results.set(i, TransitionResult.failed(objectList.get(i), e))));
+				continue;
+			}
+			int actionOrdinal = wkf.getActionOrdinal(action);
+			for (Map.Entry<String, List<Integer>> statusGroup : workflowGroup.getValue().entrySet()) {
+				Transition<X> transition = wkf.getTransition(wkf.getStatusOrdinal(statusGroup.getKey()),
+						actionOrdinal);
+				for (int i : statusGroup.getValue()) {
+					X object = objectList.get(i);
+					if (transition == null) {
+						results.set(i, TransitionResult.failed(object, new TradistaFlowBusinessException(String.format(
+								"The action %s is not a valid one from status %s in workflow %s.", action,
+								object.getStatus(), object.getWorkflow()))));
+						continue;
+					}
+					try {
+						if (store != null || eventStore != null) {
+							String objectKey = getObjectKey(object);
+							if (journal != null) {
+								journal.checkOpen();
+							}
+							long start = System.nanoTime();
+							X res = executeTransition(wkf, transition, object);
+							if (res != null) {
+								pendingTransitions.add(
+										new PendingTransition<>(i, objectKey, object, wkf, transition, res, start));
+							} else {
+								results.set(i, TransitionResult.rejected(object));
+							}
+						} else {
+							X res = applyTransition(wkf, transition, object);
+							results.set(i, res != null ? TransitionResult.applied(object, res)
+									: TransitionResult.rejected(object));
 						}
+					} catch (TradistaFlowBusinessException | TradistaFlowTechnicalException e) {
+						results.set(i, TransitionResult.failed(object, e));
 					}
 				}
-				objectDeepCopy.setStatus(wkf.getTargetStatus(simpleAction));
+			}
+		}
+		if (!pendingTransitions.isEmpty()) {
+			commitTransitions(store, eventStore, journal, pendingTransitions, results);
+		}
+		return results;
+	}
+
+	/**
+	 * Applies an action to all the objects of a workflow in a given status, with
+	 * a single set-based update of the workflow instance store: the objects are
+	 * neither loaded nor cloned. Only the actions moving the objects to another
+	 * status without any guard, condition or process can be applied this way
+	 * (see Transition.isStatusMoveOnly). When a transition journal is set, the
+	 * transitions are recorded in the same transaction, with a single
+	 * insert-select statement writing in the database of the workflow instance
+	 * store, so the journal must use the entity manager factory of the store.
+	 * 
+	 * @param workflowName the name of the workflow
+	 * @param statusName   the status of the objects to update
+	 * @param action       the action to apply
+	 * @return the number of updated objects
+	 * @throws TradistaFlowBusinessException  if the status or the action is null
+	 *                                        or empty, if no workflow instance
+	 *                                        store is set, if a transition event
+	 *                                        store is set, if the transition
+	 *                                        journal doesn't use the entity
+	 *                                        manager factory of the workflow
+	 *                                        instance store, if the workflow doesn't
+	 *                                        exist, if the action is invalid, if it
+	 *                                        has a guard, a condition or a process,
+	 *                                        or if objects were moved concurrently
+	 *                                        while the journal entries were
+	 *                                        written.
+	 * @throws TradistaFlowTechnicalException if the objects could not be updated.
+	 */
+	public static int applyActionToAll(String workflowName, String statusName, String action)
+			throws TradistaFlowBusinessException {
+		StringBuilder errMsg = new StringBuilder();
+		if (StringUtils.isEmpty(statusName)) {
+			errMsg.append("The status is null or empty.");
+		}
+		if (StringUtils.isEmpty(action)) {
+			errMsg.append("The action is null or empty.");
+		}
+		WorkflowInstanceStore store = workflowInstanceStore;
+		if (store == null) {
+			errMsg.append("No workflow instance store is set.");
+		}
+		if (transitionEventStore != null) {
+			errMsg.append("The transitions cannot be applied in bulk when a transition event store is set.");
+		}
+		TransitionJournal journal = transitionJournal;
+		if (journal != null && store != null
+				&& journal.getEntityManagerFactory() != store.getEntityManagerFactory()) {
+			errMsg.append("The transitions cannot be applied in bulk when the transition journal and the workflow"
+					+ " instance store use different entity manager factories.");
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
+		}
+		CompiledWorkflow<WorkflowObject> wkf = getCompiledWorkflowByName(workflowName);
+		if (wkf == null) {
+			throw new TradistaFlowBusinessException(String.format("The workflow %s doesn't exist.", workflowName));
+		}
+		Transition<WorkflowObject> transition = wkf.getTransition(wkf.getStatusOrdinal(statusName),
+				wkf.getActionOrdinal(action));
+		if (transition == null) {
+			throw new TradistaFlowBusinessException(
+					String.format("The action %s is not a valid one from status %s in workflow %s.", action,
+							statusName, workflowName));
+		}
+		if (!transition.isStatusMoveOnly()) {
+			throw new TradistaFlowBusinessException(String.format(
+					"The action %s from status %s in workflow %s has guards, a condition or processes, it cannot be"
+							+ " applied without loading the objects.",
+					action, statusName, workflowName));
+		}
+		String arrivalStatusName = transition.getArrivalStatus().getName();
+		try {
+			if (journal == null) {
+				return store.updateAll(workflowName, statusName, arrivalStatusName);
+			}
+			journal.checkOpen();
+			int updated = store.updateAll(workflowName, statusName, arrivalStatusName, transition.getName());
+			journal.countWritten(updated);
+			return updated;
+		} catch (RuntimeException re) {
+			throw new TradistaFlowTechnicalException(re);
+		}
+	}
+
+	/**
+	 * Commits transitions together (see commit): the new statuses are written in
+	 * the workflow instance store with a single bulk compare-and-set update, in
+	 * the same transaction as the events when both stores use the same entity
+	 * manager factory. The committed transitions are then recorded in the
+	 * transition journal.
+	 * 
+	 * @param store       the workflow instance store, can be null
+	 * @param eventStore  the transition event store, can be null
+	 * @param journal     the transition journal, can be null
+	 * @param transitions the transitions to commit
+	 * @param results     the results of the transitions, updated with their
+	 *                    outcome
+	 */
+	private static <X extends WorkflowObject> void commitTransitions(WorkflowInstanceStore store,
+			TransitionEventStore eventStore, TransitionJournal journal, List<PendingTransition<X>> transitions,
+			List<TransitionResult<X>> results) {
+		Exception[] errors = commit(store, eventStore, transitions);
+		for (int k = 0; k < errors.length; k++) {
+			PendingTransition<X> pending = transitions.get(k);
+			if (errors[k] != null) {
+				results.set(pending.index, TransitionResult.failed(pending.object, errors[k]));
+				continue;
+			}
+			if (journal != null) {
+				journal.recordCommitted(journalEntry(pending.objectKey, pending.wkf, pending.transition,
+						pending.object, pending.result, System.nanoTime() - pending.start));
+			}
+			results.set(pending.index, TransitionResult.applied(pending.object, pending.result));
+		}
+	}
+
+	/**
+	 * Applies an action to an object, reporting the outcome instead of raising
+	 * it.
+	 * 
+	 * @param object the object to update
+	 * @param action the action to apply
+	 * @return the result of the action
+	 */
+	static <X extends WorkflowObject> TransitionResult<X> tryApplyAction(X object, String action) {
+		try {
+			if (object == null) {
+				throw new TradistaFlowBusinessException("The object is null");
+			}
+			if (StringUtils.isEmpty(action)) {
+				throw new TradistaFlowBusinessException("The action is null or empty.");
+			}
+			CompiledWorkflow<X> wkf = getCompiledWorkflowByName(object.getWorkflow());
+			Transition<X> transition = wkf.getTransition(object.getStatus(), action);
+			if (transition == null) {
+				throw new TradistaFlowBusinessException(
+						String.format("The action %s is not a valid one from status %s in workflow %s.", action,
+								object.getStatus(), object.getWorkflow()));
+			}
+			X res = applyTransition(wkf, transition, object);
+			return res != null ? TransitionResult.applied(object, res) : TransitionResult.rejected(object);
+		} catch (TradistaFlowBusinessException | TradistaFlowTechnicalException e) {
+			return TransitionResult.failed(object, e);
+		}
+	}
+
+	/**
+	 * Applies a transition to an object, then commits it: the new status is
+	 * written in the workflow instance store if one is set and the transition is
+	 * appended to the transition event store if one is set (see commit). The
+	 * transition is then recorded in the transition journal if one is set: once
+	 * the transition is committed in a store, an entry that cannot be recorded
+	 * doesn't fail the transition, it is counted by the journal.
+	 * 
+	 * @param wkf        the compiled workflow of the object
+	 * @param transition the transition to apply
+	 * @param object     the object to update
+	 * @return the updated copy of the object, null if a guard rejected the
+	 *         transition
+	 * @throws TradistaFlowBusinessException  if a condition/guard/process raised a
+	 *                                        checked exception, if the object has
+	 *                                        no key while a store or a journal is
+	 *                                        set, or if the status of the object
+	 *                                        changed in the workflow instance
+	 *                                        store or in the transition event
+	 *                                        store.
+	 * @throws TradistaFlowTechnicalException if a condition/guard/process raised a
+	 *                                        runtime exception, if the journal is
+	 *                                        closed or broken, or if the transition
+	 *                                        could not be committed in the
+	 *                                        workflow instance store or the
+	 *                                        transition event store.
+	 */
+	private static <X extends WorkflowObject> X applyTransition(CompiledWorkflow<X> wkf, Transition<X> transition,
+			X object) throws TradistaFlowBusinessException {
+		TransitionJournal journal = transitionJournal;
+		WorkflowInstanceStore store = workflowInstanceStore;
+		TransitionEventStore eventStore = transitionEventStore;
+		// The key is checked before the transition is executed, nothing is committed
+		// for an object without a key.
+		String objectKey = journal != null || store != null || eventStore != null ? getObjectKey(object) : null;
+		if (journal != null) {
+			journal.checkOpen();
+		}
+		long start = journal != null ? System.nanoTime() : 0;
+		X res = executeTransition(wkf, transition, object);
+		if (res == null) {
+			return null;
+		}
+		boolean committed = store != null || eventStore != null;
+		if (committed) {
+			Exception error = commit(store, eventStore,
+					List.of(new PendingTransition<>(0, objectKey, object, wkf, transition, res, start)))[0];
+			if (error instanceof TradistaFlowBusinessException tfbe) {
+				throw tfbe;
+			}
+			if (error != null) {
+				throw (TradistaFlowTechnicalException) error;
+			}
+		}
+		if (journal != null) {
+			TransitionJournalEntry entry = journalEntry(objectKey, wkf, transition, object, res,
+					System.nanoTime() - start);
+			if (committed) {
+				journal.recordCommitted(entry);
 			} else {
-				ConditionalAction<X> condAction = ((ConditionalAction<X>) actionObject);
-				guards = condAction.getGuardsByActionName(action);
-				if (!ObjectUtils.isEmpty(guards)) {
-					for (Guard<X> guard : guards) {
-						if (!guard.test(objectDeepCopy)) {
-							return object;
+				journal.record(entry);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Commits transitions executed on objects: their new statuses are written in
+	 * the workflow instance store with compare-and-set updates, and the
+	 * transitions are appended to the transition event store. When both stores
+	 * use the same entity manager factory, the updates and the events are written
+	 * in a single transaction, so a transition is either entirely committed or
+	 * not at all. Otherwise, the events are appended once the updates are
+	 * committed, and the updates of the transitions whose event could not be
+	 * appended are reverted. There is a window where other threads can see these
+	 * updates, and if the revert itself fails, the instances keep their new
+	 * status while the transitions are reported as failed: the revert error is
+	 * added as a suppressed exception. The instance versions of the committed
+	 * objects are updated.
+	 * 
+	 * @param store       the workflow instance store, can be null
+	 * @param eventStore  the transition event store, can be null
+	 * @param transitions the transitions to commit
+	 * @return for each transition, in the same order, null if it was committed,
+	 *         the TradistaFlowBusinessException or
+	 *         TradistaFlowTechnicalException explaining why it was not otherwise
+	 */
+	private static <X extends WorkflowObject> Exception[] commit(WorkflowInstanceStore store,
+			TransitionEventStore eventStore, List<PendingTransition<X>> transitions) {
+		Exception[] errors = new Exception[transitions.size()];
+		if (store == null) {
+			for (int k = 0; k < errors.length; k++) {
+				try {
+					appendEvent(eventStore, transitions.get(k));
+				} catch (TradistaFlowBusinessException | TradistaFlowTechnicalException e) {
+					errors[k] = e;
+				}
+			}
+			return errors;
+		}
+		List<WorkflowInstanceStore.StatusUpdate> updates = new ArrayList<>(transitions.size());
+		for (PendingTransition<X> pending : transitions) {
+			updates.add(new WorkflowInstanceStore.StatusUpdate(pending.objectKey, pending.object.getStatus().getName(),
+					pending.object.getInstanceVersion(), pending.result.getStatus().getName()));
+		}
+		boolean[] applied;
+		if (eventStore != null && eventStore.getEntityManagerFactory() == store.getEntityManagerFactory()) {
+			applied = commitInTransaction(store, eventStore, transitions, updates, errors);
+		} else {
+			try {
+				applied = compareAndSet(store, updates);
+			} catch (TradistaFlowTechnicalException tfte) {
+				Arrays.fill(errors, tfte);
+				return errors;
+			}
+			if (eventStore != null) {
+				List<Integer> reverted = new ArrayList<>();
+				for (int k = 0; k < errors.length; k++) {
+					if (applied[k]) {
+						try {
+							appendEvent(eventStore, transitions.get(k));
+						} catch (TradistaFlowBusinessException | TradistaFlowTechnicalException e) {
+							errors[k] = e;
+							reverted.add(k);
 						}
-						// Reinitializing objectDeepCopy in case it has been modified by a guard
-						objectDeepCopy = (X) object.clone();
 					}
 				}
-				int res = condAction.getCondition().apply(objectDeepCopy);
-				Status<X> arrivalStatus = condAction.getArrivalStatusByResult(res);
-				// Perform processes
-				Set<finance.tradista.flow.model.Process> processes = condAction
-						.getProcessesByStatusName(arrivalStatus.getName());
-				if (!ObjectUtils.isEmpty(processes)) {
-					for (finance.tradista.flow.model.Process<X> process : processes) {
-						if (process != null) {
-							process.apply(objectDeepCopy);
+				if (!reverted.isEmpty()) {
+					try {
+						store.revert(reverted.stream().map(updates::get).toList());
+					} catch (RuntimeException re) {
+						reverted.forEach(k -> errors[k].addSuppressed(re));
+					}
+				}
+			}
+		}
+		for (int k = 0; k < errors.length; k++) {
+			if (errors[k] == null) {
+				if (applied[k]) {
+					updateInstanceVersion(transitions.get(k).object, transitions.get(k).result);
+				} else {
+					errors[k] = instanceConflict(store, updates.get(k));
+				}
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * Writes the status updates and the events of transitions in a single
+	 * transaction. The update of a transition whose event cannot be appended is
+	 * reverted in the transaction. If the transaction cannot be committed,
+	 * nothing is written and all the transitions are reported as failed.
+	 * 
+	 * @param store       the workflow instance store
+	 * @param eventStore  the transition event store, using the same entity
+	 *                    manager factory
+	 * @param transitions the transitions to commit
+	 * @param updates     the status updates of the transitions
+	 * @param errors      the errors of the transitions, filled by this method
+	 * 
+	 * @return for each update, in the same order, true if it was applied
+	 */
+	private static <X extends WorkflowObject> boolean[] commitInTransaction(WorkflowInstanceStore store,
+			TransitionEventStore eventStore, List<PendingTransition<X>> transitions,
+			List<WorkflowInstanceStore.StatusUpdate> updates, Exception[] errors) {
+		try (EntityManager entityManager = store.getEntityManagerFactory().createEntityManager()) {
+			entityManager.getTransaction().begin();
+			try {
+				boolean[] applied = store.compareAndSet(entityManager, updates);
+				for (int k = 0; k < applied.length; k++) {
+					if (applied[k]) {
+						PendingTransition<X> pending = transitions.get(k);
+						try {
+							eventStore.append(entityManager, pending.objectKey, pending.wkf.getName(),
+									pending.object.getStatus().getName(), pending.transition.getName(),
+									pending.result.getStatus().getName());
+						} catch (TradistaFlowBusinessException tfbe) {
+							errors[k] = tfbe;
+							if (entityManager.getTransaction().getRollbackOnly()) {
+								throw tfbe;
+							}
+							store.revert(entityManager, updates.get(k));
 						}
 					}
 				}
-				objectDeepCopy.setStatus(arrivalStatus);
+				entityManager.getTransaction().commit();
+				return applied;
+			} catch (TradistaFlowBusinessException | RuntimeException e) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				TradistaFlowTechnicalException rolledBack = new TradistaFlowTechnicalException(
+						String.format("The transaction was rolled back, nothing was committed: %s", e.getMessage()));
+				rolledBack.initCause(e);
+				for (int k = 0; k < errors.length; k++) {
+					if (errors[k] == null) {
+						errors[k] = rolledBack;
+					}
+				}
+				return new boolean[updates.size()];
+			}
+		}
+	}
+
+	/**
+	 * Executes a transition on a copy of an object: its guards, its condition and
+	 * its processes. The transition is not committed.
+	 * 
+	 * @param wkf        the compiled workflow of the object
+	 * @param transition the transition to apply
+	 * @param object     the object to update
+	 * @return the updated copy of the object, null if a guard rejected the
+	 *         transition
+	 * @throws TradistaFlowBusinessException  if a condition/guard/process raised a
+	 *                                        checked exception.
+	 * @throws TradistaFlowTechnicalException if a condition/guard/process raised a
+	 *                                        runtime exception.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <X extends WorkflowObject> X executeTransition(CompiledWorkflow<X> wkf, Transition<X> transition,
+			X object) throws TradistaFlowBusinessException {
+		X objectDeepCopy = null;
+		TransitionMetrics metrics = transitionMetrics;
+		boolean timed = metrics != TransitionMetrics.NOOP;
+		// Step being timed, recorded as failed if it raises an exception
+		Step step = null;
+		String stepName = null;
+		long stepStart = 0;
+		try {
+			objectDeepCopy = (X) object.clone();
+			boolean modified = false;
+			for (Guard<X> guard : transition.getGuards()) {
+				if (modified) {
+					// Reinitializing objectDeepCopy in case it has been modified by a guard
+					objectDeepCopy = (X) object.clone();
+				}
+				if (timed) {
+					step = Step.GUARD;
+					stepName = guard.getName();
+					stepStart = System.nanoTime();
+				}
+				boolean accepted = guard.test(objectDeepCopy);
+				if (timed) {
+					metrics.record(wkf.getName(), transition.getName(), step, stepName, System.nanoTime() - stepStart,
+							true);
+					step = null;
+				}
+				if (!accepted) {
+					return null;
+				}
+				modified = !(guard instanceof ReadOnlyGuard);
+			}
+			if (modified) {
+				objectDeepCopy = (X) object.clone();
 			}
+			int arrivalOrdinal;
+			if (transition.isConditional()) {
+				if (timed) {
+					step = Step.CONDITION;
+					stepName = transition.getCondition().getName();
+					stepStart = System.nanoTime();
+				}
+				int res = transition.getCondition().apply(objectDeepCopy);
+				if (timed) {
+					metrics.record(wkf.getName(), transition.getName(), step, stepName, System.nanoTime() - stepStart,
+							true);
+					step = null;
+				}
+				arrivalOrdinal = transition.getArrivalOrdinalByResult(res);
+				if (arrivalOrdinal == -1) {
+					throw new TradistaFlowTechnicalException(
+							String.format("The result %d of the condition %s is not routed to any status.", res,
+									transition.getCondition()));
+				}
+			} else {
+				arrivalOrdinal = transition.getArrivalOrdinal();
+			}
+			// Perform processes
+			for (finance.tradista.flow.model.Process<X> process : transition.getProcesses(arrivalOrdinal)) {
+				if (timed) {
+					step = Step.PROCESS;
+					stepName = process.getName();
+					stepStart = System.nanoTime();
+				}
+				process.apply(objectDeepCopy);
+				if (timed) {
+					metrics.record(wkf.getName(), transition.getName(), step, stepName, System.nanoTime() - stepStart,
+							true);
+					step = null;
+				}
+			}
+			// Statuses of compiled workflows are frozen, they can be shared.
+			objectDeepCopy.setStatus(wkf.getStatus(arrivalOrdinal));
+		} catch (TradistaFlowTechnicalException tfte) {
+			throw tfte;
 		} catch (RuntimeException | CloneNotSupportedException ex) {
 			throw new TradistaFlowTechnicalException(ex);
 		} catch (Exception ex) {
 			throw new TradistaFlowBusinessException(ex);
+		} finally {
+			if (step != null) {
+				metrics.record(wkf.getName(), transition.getName(), step, stepName, System.nanoTime() - stepStart,
+						false);
+			}
 		}
 		return objectDeepCopy;
 	}
 
+	/**
+	 * Gets the key of an object, checking that it is defined.
+	 * 
+	 * @param object the object
+	 * @return the key of the object
+	 * @throws TradistaFlowBusinessException if the object doesn't define a key,
+	 *                                       or if its key is null or empty
+	 */
+	static String getObjectKey(WorkflowObject object) throws TradistaFlowBusinessException {
+		String objectKey;
+		try {
+			objectKey = object.getObjectKey();
+		} catch (UnsupportedOperationException _) {
+			throw new TradistaFlowBusinessException(String.format(
+					"The object key is not defined, %s must override getObjectKey.", object.getClass().getName()));
+		}
+		if (StringUtils.isEmpty(objectKey)) {
+			throw new TradistaFlowBusinessException("The object key is null or empty.");
+		}
+		return objectKey;
+	}
+
+	private static <X extends WorkflowObject> TransitionJournalEntry journalEntry(String objectKey,
+			CompiledWorkflow<X> wkf, Transition<X> transition, X object, X res, long durationNanos) {
+		return new TransitionJournalEntry(objectKey, wkf.getName(), object.getStatus().getName(),
+				transition.getName(), res.getStatus().getName(), Instant.now(), durationNanos);
+	}
+
+	private static <X extends WorkflowObject> void appendEvent(TransitionEventStore store,
+			PendingTransition<X> pending) throws TradistaFlowBusinessException {
+		try {
+			store.append(pending.objectKey, pending.wkf.getName(), pending.object.getStatus().getName(),
+					pending.transition.getName(), pending.result.getStatus().getName());
+		} catch (RuntimeException re) {
+			throw new TradistaFlowTechnicalException(re);
+		}
+	}
+
+	private static boolean[] compareAndSet(WorkflowInstanceStore store,
+			List<WorkflowInstanceStore.StatusUpdate> updates) {
+		try {
+			return store.compareAndSet(updates);
+		} catch (TradistaFlowTechnicalException tfte) {
+			throw tfte;
+		} catch (RuntimeException re) {
+			throw new TradistaFlowTechnicalException(re);
+		}
+	}
+
+	private static void updateInstanceVersion(WorkflowObject object, WorkflowObject res) {
+		long version = object.getInstanceVersion();
+		if (version != WorkflowInstanceStore.ANY_VERSION) {
+			res.setInstanceVersion(version + 1);
+		}
+	}
+
+	private static Exception instanceConflict(WorkflowInstanceStore store,
+			WorkflowInstanceStore.StatusUpdate update) {
+		try {
+			return store.conflict(update);
+		} catch (RuntimeException re) {
+			return new TradistaFlowTechnicalException(re);
+		}
+	}
+
 	/**
 	 * Gets a workflow given its name.
 	 * 
@@ -256,24 +1164,144 @@ public final class WorkflowManager {
 	 * @return the found workflow
 	 * @throws TradistaFlowBusinessException if the name is empty
 	 */
-	@SuppressWarnings("unchecked")
 	public static <X extends WorkflowObject> Workflow<X> getWorkflowByName(String name)
 			throws TradistaFlowBusinessException {
 		if (StringUtils.isEmpty(name)) {
 			throw new TradistaFlowBusinessException("The name is mandatory.");
 		}
-		Workflow<X> res;
-		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
-			res = entityManager.createQuery("Select w from Workflow w where w.name = :name", Workflow.class)
-					.setParameter("name", name).getSingleResult();
-			if (res != null) {
-				res.syncModel();
-			}
-		} catch (NoResultException _) {
-			throw new TradistaFlowBusinessException(String.format("The workflow named %s doesn't exist.", name));
+		return getWorkflowRepository().getWorkflowByName(name);
+	}
+
+	/**
+	 * Gets a compiled workflow given its name, from the workflow cache if it is
+	 * present, from the workflow store or the workflow repository otherwise.
+	 * 
+	 * @param name the name of the workflow to search
+	 * @return the found compiled workflow
+	 * @throws TradistaFlowBusinessException if the name is empty or if the
+	 *                                       workflow doesn't exist
+	 */
+	private static <X extends WorkflowObject> CompiledWorkflow<X> getCompiledWorkflowByName(String name)
+			throws TradistaFlowBusinessException {
+		if (StringUtils.isEmpty(name)) {
+			throw new TradistaFlowBusinessException("The name is mandatory.");
+		}
+		TransitionMetrics metrics = transitionMetrics;
+		if (metrics == TransitionMetrics.NOOP) {
+			return workflowCache.get(name, WorkflowManager::loadCompiledWorkflow);
+		}
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			CompiledWorkflow<X> wkf = workflowCache.get(name, WorkflowManager::loadCompiledWorkflow);
+			success = true;
+			return wkf;
+		} finally {
+			metrics.record(name, null, Step.WORKFLOW_LOOKUP, name, System.nanoTime() - start, success);
 		}
+	}
 
-		return res;
+	/**
+	 * Loads and compiles a workflow, from the workflow store if one is set, from
+	 * the workflow repository otherwise.
+	 * 
+	 * @param name the name of the workflow to load
+	 * @return the compiled workflow
+	 * @throws TradistaFlowBusinessException if the workflow doesn't exist
+	 */
+	private static <X extends WorkflowObject> CompiledWorkflow<X> loadCompiledWorkflow(String name)
+			throws TradistaFlowBusinessException {
+		MappedWorkflowStore store = workflowStore;
+		if (store != null) {
+			return store.load(name);
+		}
+		return CompiledWorkflow.compile(getWorkflowByName(name));
+	}
+
+	/**
+	 * Writes a snapshot of the workflow cache, so that a later process can warm
+	 * its cache with loadSnapshot instead of loading the workflows from the
+	 * workflow repository. The compiled workflows are written with their
+	 * versions. The file is replaced atomically.
+	 * 
+	 * @param file the snapshot file
+	 * @return the number of workflows written in the snapshot
+	 */
+	public static int writeSnapshot(Path file) {
+		Collection<CompiledWorkflow<? extends WorkflowObject>> workflows = workflowCache.getAll().values();
+		WorkflowSnapshot.write(file, workflows);
+		return workflows.size();
+	}
+
+	/**
+	 * Loads a snapshot written by writeSnapshot into the workflow cache, then
+	 * validates the loaded workflows against the workflow repository in the
+	 * background (see refreshWorkflowCache), using the asynchronous executor.
+	 * Actions can be applied with the snapshot workflows as soon as this method
+	 * returns. Nothing is loaded if the file doesn't exist.
+	 * 
+	 * @param file the snapshot file
+	 * @return a future completed with the number of workflows refreshed once the
+	 *         validation is done
+	 * @throws TradistaFlowTechnicalException if the snapshot cannot be read or is
+	 *                                        corrupted
+	 */
+	public static CompletableFuture<Integer> loadSnapshot(Path file) {
+		List<CompiledWorkflow<? extends WorkflowObject>> workflows;
+		try {
+			workflows = WorkflowSnapshot.read(file);
+		} catch (TradistaFlowBusinessException _) {
+			return CompletableFuture.completedFuture(0);
+		}
+		for (CompiledWorkflow<? extends WorkflowObject> workflow : workflows) {
+			workflowCache.put(workflow.getName(), workflow);
+		}
+		return CompletableFuture.supplyAsync(WorkflowManager::refreshWorkflowCache, asyncExecutor);
+	}
+
+	/**
+	 * Validates the workflows of the cache against the workflow repository. The
+	 * versions of all the workflows are read with a single query: the workflows
+	 * deleted from the repository are removed from the cache, the workflows
+	 * whose version changed are reloaded from the repository and swapped in the
+	 * cache. Up-to-date workflows are left as they are. A workflow invalidated
+	 * while it is reloaded is not put back in the cache.
+	 * The workflows of a workflow store are not versioned, so nothing is
+	 * refreshed when a workflow store is set: the cache is then invalidated by
+	 * setWorkflowStore.
+	 * 
+	 * @return the number of workflows reloaded or removed
+	 */
+	public static int refreshWorkflowCache() {
+		if (workflowStore != null) {
+			return 0;
+		}
+		Map<String, Long> versions = new HashMap<>();
+		for (WorkflowSummary summary : getWorkflowRepository().getAllWorkflowSummaries()) {
+			versions.put(summary.getName(), summary.getVersion());
+		}
+		int refreshed = 0;
+		for (Map.Entry<String, CompiledWorkflow<? extends WorkflowObject>> entry : workflowCache.getAll()
+				.entrySet()) {
+			String name = entry.getKey();
+			CompiledWorkflow<? extends WorkflowObject> cached = entry.getValue();
+			Long version = versions.get(name);
+			if (version != null && version == cached.getVersion()) {
+				continue;
+			}
+			CompiledWorkflow<? extends WorkflowObject> fresh = null;
+			if (version != null) {
+				try {
+					fresh = CompiledWorkflow.compile(getWorkflowByName(name));
+				} catch (TradistaFlowBusinessException _) {
+					// The workflow was deleted in the meantime.
+				}
+			}
+			if (fresh != null ? workflowCache.replace(name, cached, fresh) : workflowCache.remove(name, cached)) {
+				refreshed++;
+			}
+		}
+		return refreshed;
 	}
 
 	public static Set<String> getStatusesByWorkflowNames(String... workflowNames) throws TradistaFlowBusinessException {
@@ -284,35 +1312,51 @@ public final class WorkflowManager {
 				throw new TradistaFlowBusinessException("Workflow names cannot be blank.");
 			}
 		}
-		List<String> res;
-		try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
-			res = entityManager.createQuery("Select s.name from Status s where s.workflow.name in :names", String.class)
-					.setParameter("names", Arrays.asList(workflowNames)).getResultList();
-		} catch (NoResultException _) {
-			throw new TradistaFlowBusinessException(String
-					.format("No status were found for the following workflows: %s", String.join(", ", workflowNames)));
-		}
-
-		return res != null ? new HashSet<>(res) : null;
+		return getWorkflowRepository().getStatusesByWorkflowNames(workflowNames);
 	}
 
 	/**
-	 * Checks whether an action is valid from a given status.
+	 * Gets the names of the actions available from a given status, without
+	 * loading the workflow. The workflow cache is used if the workflow is
+	 * already in it. Otherwise, when a workflow store is set, the workflow is
+	 * read from it and put in the workflow cache. Without a workflow store, the
+	 * workflow repository is queried and the workflow is not loaded.
 	 * 
-	 * @param workflow the concerned workflow
-	 * @param status   the start status
-	 * @param action   the action to be checked
-	 * @return true if an action is valid from the given status
+	 * @param workflowName the name of the workflow
+	 * @param statusName   the name of the status from where actions are searched
+	 * @return the names of the available actions, an empty set if there is none
+	 *         or if the workflow or the status doesn't exist
+	 * @throws TradistaFlowBusinessException if the workflow name or the status
+	 *                                       name is blank
 	 */
-	private static <X extends WorkflowObject> boolean isValidAction(Workflow<X> workflow, Status<X> status,
-			String action) {
-		Set<String> availableActions = null;
-		try {
-			availableActions = workflow.getAvailableActionsFromStatus(status);
-		} catch (IllegalArgumentException _) {
-			return false;
+	public static Set<String> getAvailableActions(String workflowName, String statusName)
+			throws TradistaFlowBusinessException {
+		StringBuilder errMsg = new StringBuilder();
+		if (StringUtils.isBlank(workflowName)) {
+			errMsg.append("The workflow name is mandatory.");
+		}
+		if (StringUtils.isBlank(statusName)) {
+			errMsg.append("The status name is mandatory.");
+		}
+		if (!errMsg.isEmpty()) {
+			throw new TradistaFlowBusinessException(errMsg.toString());
+		}
+		CompiledWorkflow<? extends WorkflowObject> wkf;
+		MappedWorkflowStore store = workflowStore;
+		if (store != null) {
+			// The stored workflow is compiled once and cached, so its file is not
+			// mapped again at each call.
+			wkf = workflowCache.get(workflowName, name -> store.contains(name) ? store.load(name) : null);
+			if (wkf == null) {
+				return Set.of();
+			}
+		} else {
+			wkf = workflowCache.getIfPresent(workflowName);
+			if (wkf == null) {
+				return getWorkflowRepository().getAvailableActions(workflowName, statusName);
+			}
 		}
-		return (availableActions != null && availableActions.contains(action));
+		return wkf.getAvailableActions(wkf.getStatusOrdinal(statusName));
 	}
 
 }
\ No newline at end of file
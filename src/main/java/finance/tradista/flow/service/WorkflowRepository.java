@@ -0,0 +1,173 @@
+package finance.tradista.flow.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Storage of the workflows used by the WorkflowManager. The WorkflowManager
+ * validates the workflows and the parameters before calling the repository,
+ * and maintains the workflow cache, so a repository only has to read and write
+ * the workflows.
+ * The default repository is a JpaWorkflowRepository. Another repository can be
+ * set with WorkflowManager.setWorkflowRepository, or provided through the
+ * java.util.ServiceLoader mechanism, by listing its class in a
+ * META-INF/services/finance.tradista.flow.service.WorkflowRepository file.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public interface WorkflowRepository {
+
+	/**
+	 * Saves a workflow.
+	 * 
+	 * @param workflow the workflow to be saved, already validated
+	 * @return the id of the saved workflow
+	 */
+	long saveWorkflow(Workflow<? extends WorkflowObject> workflow);
+
+	/**
+	 * Saves several workflows, all or none of them. By default, the workflows are
+	 * saved one by one and no statement is reported.
+	 * 
+	 * @param workflows     the workflows to be saved, already validated
+	 * @param jdbcBatchSize the JDBC batch size used for this save, if the
+	 *                      repository uses JDBC
+	 * @return the report of the save
+	 */
+	default WorkflowSaveReport saveWorkflows(Collection<? extends Workflow<? extends WorkflowObject>> workflows,
+			int jdbcBatchSize) {
+		Map<String, Long> workflowIds = new LinkedHashMap<>();
+		long start = System.nanoTime();
+		for (Workflow<? extends WorkflowObject> workflow : workflows) {
+			workflowIds.put(workflow.getName(), saveWorkflow(workflow));
+		}
+		return new WorkflowSaveReport(workflowIds, List.of(), 0, System.nanoTime() - start);
+	}
+
+	/**
+	 * Updates a stored workflow, identified by its name. If the given workflow
+	 * was loaded from the repository, the update must fail if the workflow was
+	 * modified since then.
+	 * 
+	 * @param workflow the new definition of the workflow, already validated
+	 * @return the new version of the workflow
+	 * @throws TradistaFlowBusinessException if the workflow doesn't exist or if it
+	 *                                       was modified concurrently
+	 */
+	long updateWorkflow(Workflow<? extends WorkflowObject> workflow) throws TradistaFlowBusinessException;
+
+	/**
+	 * Deletes a workflow given its id.
+	 * 
+	 * @param id the id of the workflow to be deleted
+	 * @return the name of the deleted workflow
+	 * @throws TradistaFlowBusinessException if the workflow doesn't exist
+	 */
+	String deleteWorkflow(long id) throws TradistaFlowBusinessException;
+
+	/**
+	 * Gets a workflow given its name.
+	 * 
+	 * @param name the name of the workflow to search
+	 * @return the found workflow, with its model synced
+	 * @throws TradistaFlowBusinessException if the workflow doesn't exist
+	 */
+	<X extends WorkflowObject> Workflow<X> getWorkflowByName(String name) throws TradistaFlowBusinessException;
+
+	/**
+	 * Gets all workflows of the repository.
+	 * 
+	 * @return all workflows of the repository, with their model synced
+	 */
+	<X extends WorkflowObject> Set<Workflow<X>> getAllWorkflows();
+
+	/**
+	 * Streams all workflows of the repository. By default, all the workflows are
+	 * read by getAllWorkflows before being streamed.
+	 * 
+	 * @param fetchSize the number of workflows read per round trip, if the
+	 *                  repository reads them progressively
+	 * @return all workflows of the repository, ordered by name
+	 */
+	default <X extends WorkflowObject> Stream<Workflow<X>> streamAllWorkflows(int fetchSize) {
+		Set<Workflow<X>> workflows = getAllWorkflows();
+		return workflows.stream().sorted(Comparator.comparing(Workflow::getName));
+	}
+
+	/**
+	 * Gets the summaries of all workflows of the repository.
+	 * 
+	 * @return the summaries of all workflows of the repository, ordered by name
+	 */
+	List<WorkflowSummary> getAllWorkflowSummaries();
+
+	/**
+	 * Gets the names of the statuses of the given workflows. By default, the
+	 * workflows are loaded by getWorkflowByName, the missing ones being ignored.
+	 * 
+	 * @param workflowNames the names of the workflows
+	 * @return the names of the statuses of the given workflows
+	 */
+	default Set<String> getStatusesByWorkflowNames(String... workflowNames) {
+		Set<String> statusNames = new HashSet<>();
+		for (String workflowName : workflowNames) {
+			try {
+				for (Status<WorkflowObject> status : this.<WorkflowObject>getWorkflowByName(workflowName)
+						.getStatus()) {
+					statusNames.add(status.getName());
+				}
+			} catch (TradistaFlowBusinessException _) {
+				// The workflow doesn't exist, it has no status.
+			}
+		}
+		return statusNames;
+	}
+
+	/**
+	 * Gets the names of the actions available from a given status. By default,
+	 * the workflow is loaded by getWorkflowByName and compiled.
+	 * 
+	 * @param workflowName the name of the workflow
+	 * @param statusName   the name of the status from where actions are searched
+	 * @return the names of the available actions, an empty set if there is none
+	 *         or if the workflow or the status doesn't exist
+	 */
+	default Set<String> getAvailableActions(String workflowName, String statusName) {
+		CompiledWorkflow<WorkflowObject> workflow;
+		try {
+			workflow = CompiledWorkflow.compile(getWorkflowByName(workflowName));
+		} catch (TradistaFlowBusinessException _) {
+			return Set.of();
+		}
+		return workflow.getAvailableActions(workflow.getStatusOrdinal(statusName));
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package finance.tradista.flow.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Report of a save of several workflows: ids of the saved workflows and SQL
+ * statements issued. With JDBC batching, consecutive statements of the same
+ * type are sent to the database in a single round trip.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowSaveReport {
+
+	private final Map<String, Long> workflowIds;
+
+	private final List<String> statements;
+
+	private final int jdbcBatchSize;
+
+	private final long elapsedNanos;
+
+	/**
+	 * Creates a save report. Used by the workflow repositories.
+	 * 
+	 * @param workflowIds   the ids of the saved workflows, keyed by workflow name
+	 * @param statements    the SQL statements issued, empty if not reported
+	 * @param jdbcBatchSize the JDBC batch size used, 0 if JDBC batching was not
+	 *                      used
+	 * @param elapsedNanos  the duration of the save, in nanoseconds
+	 */
+	public WorkflowSaveReport(Map<String, Long> workflowIds, List<String> statements, int jdbcBatchSize,
+			long elapsedNanos) {
+		this.workflowIds = Collections.unmodifiableMap(workflowIds);
+		this.statements = Collections.unmodifiableList(statements);
+		this.jdbcBatchSize = jdbcBatchSize;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Gets the ids of the saved workflows.
+	 * 
+	 * @return the ids of the saved workflows, keyed by workflow name
+	 */
+	public Map<String, Long> getWorkflowIds() {
+		return workflowIds;
+	}
+
+	/**
+	 * Gets the SQL statements issued. Statements are only reported when the JPA
+	 * provider is Hibernate.
+	 * 
+	 * @return the SQL statements issued, in the order they were issued
+	 */
+	public List<String> getStatements() {
+		return statements;
+	}
+
+	public int getStatementCount() {
+		return statements.size();
+	}
+
+	/**
+	 * Gets the number of statements issued per type (INSERT, SELECT, VALUES...).
+	 * 
+	 * @return the number of statements issued per type
+	 */
+	public Map<String, Long> getStatementCountByType() {
+		return statements.stream().map(WorkflowSaveReport::getStatementType)
+				.collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+	}
+
+	public int getJdbcBatchSize() {
+		return jdbcBatchSize;
+	}
+
+	public Duration getElapsedTime() {
+		return Duration.ofNanos(elapsedNanos);
+	}
+
+	private static String getStatementType(String sql) {
+		String trimmedSql = sql.strip();
+		int end = 0;
+		while (end < trimmedSql.length() && Character.isLetter(trimmedSql.charAt(end))) {
+			end++;
+		}
+		return trimmedSql.substring(0, end).toUpperCase(Locale.ROOT);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d workflows saved in %d ms with %d statements %s (JDBC batch size: %d)",
+				workflowIds.size(), getElapsedTime().toMillis(), getStatementCount(), getStatementCountByType(),
+				jdbcBatchSize);
+	}
+
+}
\ No newline at end of file
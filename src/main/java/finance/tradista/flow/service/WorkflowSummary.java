@@ -0,0 +1,68 @@
+package finance.tradista.flow.service;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Lightweight view of a workflow: its id, its name, its version and its number
+ * of statuses (pseudo statuses excluded).
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowSummary {
+
+	private final long id;
+
+	private final String name;
+
+	private final long version;
+
+	private final long statusCount;
+
+	public WorkflowSummary(long id, String name, long statusCount) {
+		this(id, name, 0, statusCount);
+	}
+
+	public WorkflowSummary(long id, String name, long version, long statusCount) {
+		this.id = id;
+		this.name = name;
+		this.version = version;
+		this.statusCount = statusCount;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getStatusCount() {
+		return statusCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (id: %d, version: %d, statuses: %d)", name, id, version, statusCount);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,322 @@
+package finance.tradista.flow.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import finance.tradista.flow.model.Action;
+import finance.tradista.flow.model.Condition;
+import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.PseudoStatus;
+import finance.tradista.flow.model.SimpleAction;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.TradistaFlowObject;
+import finance.tradista.flow.model.Workflow;
+import jakarta.persistence.EntityManager;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Applies the differences between a workflow definition and its stored version
+ * to the stored version, so that only the changed statuses, actions, guards and
+ * processes are written. Statuses are matched by name. Simple actions are
+ * matched by name, departure and arrival statuses: their guards and processes
+ * are updated in place. Conditional actions are matched on their whole
+ * definition: a modified conditional action is removed and added again.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class WorkflowUpdater {
+
+	private static final String STATUSES_QUERY = "Select s from Status s where s.workflow = :workflow";
+
+	private static final String ACTIONS_QUERY = "Select a from Action a where a.workflow = :workflow";
+
+	private static final String PSEUDO_STATUS_KEY = "*";
+
+	private final EntityManager entityManager;
+
+	private final Workflow stored;
+
+	private final Map<String, Status> statusByName = new HashMap<>();
+
+	private WorkflowUpdater(EntityManager entityManager, Workflow stored) {
+		this.entityManager = entityManager;
+		this.stored = stored;
+	}
+
+	/**
+	 * Updates the stored workflow, managed by the entity manager, so that it
+	 * matches the given workflow.
+	 * 
+	 * @param entityManager the entity manager, in a transaction
+	 * @param stored        the stored workflow
+	 * @param workflow      the new definition of the workflow
+	 */
+	static void update(EntityManager entityManager, Workflow stored, Workflow workflow) {
+		new WorkflowUpdater(entityManager, stored).update(workflow);
+	}
+
+	private void update(Workflow workflow) {
+		if (!Objects.equals(stored.getDescription(), workflow.getDescription())) {
+			stored.setDescription(workflow.getDescription());
+		}
+		List<Status> storedStatuses = entityManager.createQuery(STATUSES_QUERY, Status.class)
+				.setParameter("workflow", stored).getResultList();
+		List<Action> storedActions = entityManager.createQuery(ACTIONS_QUERY, Action.class)
+				.setParameter("workflow", stored).getResultList();
+		Set<Status> newStatuses = new LinkedHashSet<>(storedStatuses);
+		Set<Action> newActions = new LinkedHashSet<>(storedActions);
+
+		// Statuses to be added
+		Set<String> statusNames = new HashSet<>();
+		for (Status status : (Set<Status>) workflow.getStatus()) {
+			if (!(status instanceof PseudoStatus)) {
+				statusNames.add(status.getName());
+			}
+		}
+		Set<Status> removedStatuses = new HashSet<>();
+		for (Status status : storedStatuses) {
+			if (!(status instanceof PseudoStatus)) {
+				if (statusNames.contains(status.getName())) {
+					statusByName.put(status.getName(), status);
+				} else {
+					removedStatuses.add(status);
+				}
+			}
+		}
+		for (String name : statusNames) {
+			if (!statusByName.containsKey(name)) {
+				Status status = new Status();
+				status.setName(name);
+				status.setWorkflow(stored);
+				entityManager.persist(status);
+				statusByName.put(name, status);
+				newStatuses.add(status);
+			}
+		}
+
+		// Actions are indexed by their keys
+		Map<String, Action> storedActionByKey = indexActions(storedActions);
+		Map<String, Action> actionByKey = indexActions((Set<Action>) workflow.getActions());
+
+		// Actions to be removed
+		for (Map.Entry<String, Action> entry : storedActionByKey.entrySet()) {
+			if (!actionByKey.containsKey(entry.getKey())) {
+				Action action = entry.getValue();
+				newActions.remove(action);
+				if (action instanceof ConditionalAction conditionalAction) {
+					newActions.removeAll(conditionalAction.getConditionalActions());
+					newStatuses.remove(conditionalAction.getChoicePseudoStatus());
+					// The routing is cleared so that the removal is not cascaded to the arrival
+					// statuses.
+					conditionalAction.getConditionalRouting().clear();
+				}
+				entityManager.remove(action);
+			}
+		}
+		for (Status status : removedStatuses) {
+			newStatuses.remove(status);
+			entityManager.remove(status);
+		}
+
+		// Actions to be updated or added
+		for (Map.Entry<String, Action> entry : actionByKey.entrySet()) {
+			Action action = entry.getValue();
+			Action storedAction = storedActionByKey.get(entry.getKey());
+			if (storedAction instanceof SimpleAction storedSimpleAction) {
+				SimpleAction simpleAction = (SimpleAction) action;
+				storedSimpleAction.setGuards(
+						updateComponents(storedSimpleAction.getGuards(), simpleAction.getGuards()));
+				storedSimpleAction.setProcesses(
+						updateComponents(storedSimpleAction.getProcesses(), simpleAction.getProcesses()));
+			} else if (storedAction == null) {
+				Action newAction;
+				if (action instanceof ConditionalAction conditionalAction) {
+					ConditionalAction newConditionalAction = newConditionalAction(conditionalAction, newActions);
+					newStatuses.add(newConditionalAction.getChoicePseudoStatus());
+					newAction = newConditionalAction;
+				} else {
+					newAction = newSimpleAction((SimpleAction) action, null);
+					newAction.setWorkflow(stored);
+				}
+				entityManager.persist(newAction);
+				newActions.add(newAction);
+			}
+		}
+
+		stored.setStatus(newStatuses);
+		stored.setActions(newActions);
+	}
+
+	/**
+	 * Indexes the actions of a workflow by key. The simple actions connected to a
+	 * pseudo status are part of a conditional action, so they are not indexed.
+	 */
+	private static Map<String, Action> indexActions(Iterable<Action> actions) {
+		Map<String, Action> actionByKey = new LinkedHashMap<>();
+		for (Action action : actions) {
+			if (action instanceof ConditionalAction conditionalAction) {
+				actionByKey.put(getKey(conditionalAction), action);
+			} else if (!action.isConnectedToPseudoStatus()) {
+				actionByKey.put(getKey((SimpleAction) action), action);
+			}
+		}
+		return actionByKey;
+	}
+
+	private static String getKey(SimpleAction action) {
+		return String.join(":", "S", action.getName(), getStatusKey(action.getDepartureStatus()),
+				getStatusKey(action.getArrivalStatus()));
+	}
+
+	/*
+	 * The names of the pseudo status and of the actions starting from it are
+	 * generated, so they are not part of the key.
+	 */
+	private static String getKey(ConditionalAction action) {
+		Set<String> routing = new TreeSet<>();
+		if (action.getConditionalRouting() != null) {
+			((Map<Integer, Status>) action.getConditionalRouting())
+					.forEach((res, status) -> routing.add(res + "=" + getStatusKey(status)));
+		}
+		Set<String> conditionalActions = new TreeSet<>();
+		for (SimpleAction conditionalAction : (Set<SimpleAction>) action.getConditionalActions()) {
+			String name = conditionalAction.getDepartureStatus() instanceof PseudoStatus ? PSEUDO_STATUS_KEY
+					: conditionalAction.getName();
+			conditionalActions.add(String.join(":", name, getStatusKey(conditionalAction.getDepartureStatus()),
+					getStatusKey(conditionalAction.getArrivalStatus()), getNames(conditionalAction.getGuards()),
+					getNames(conditionalAction.getProcesses())));
+		}
+		Condition condition = action.getCondition();
+		return String.join(":", "C", Objects.toString(action.getName()),
+				getStatusKey(action.getDepartureStatus()), getNames(action.getGuards()),
+				condition == null ? "" : condition.getName(), routing.toString(), conditionalActions.toString());
+	}
+
+	private static String getStatusKey(Status status) {
+		if (status == null) {
+			return "";
+		}
+		return status instanceof PseudoStatus ? PSEUDO_STATUS_KEY : status.getName();
+	}
+
+	private static String getNames(Set<? extends TradistaFlowObject> components) {
+		if (components == null) {
+			return "[]";
+		}
+		return components.stream().map(Object::toString).sorted().toList().toString();
+	}
+
+	/**
+	 * Updates a set of guards or processes: the components that are no longer
+	 * used are removed, the new ones are added and the others are kept as is.
+	 */
+	private <T extends TradistaFlowObject> Set<T> updateComponents(Set<T> storedComponents, Set<T> components) {
+		Set<T> updatedComponents = storedComponents != null ? storedComponents : new LinkedHashSet<>();
+		Set<T> newComponents = components != null ? components : Set.of();
+		List<T> removedComponents = updatedComponents.stream().filter(c -> !newComponents.contains(c))
+				.collect(Collectors.toCollection(ArrayList::new));
+		for (T component : removedComponents) {
+			updatedComponents.remove(component);
+			entityManager.remove(component);
+		}
+		for (T component : newComponents) {
+			if (!updatedComponents.contains(component)) {
+				updatedComponents.add(copy(component));
+			}
+		}
+		return updatedComponents;
+	}
+
+	private ConditionalAction newConditionalAction(ConditionalAction action, Set<Action> newActions) {
+		ConditionalAction newAction = new ConditionalAction();
+		newAction.setName(action.getName());
+		newAction.setWorkflow(stored);
+		newAction.setDepartureStatus(getStatus(action.getDepartureStatus(), null));
+		newAction.setGuards(copy(action.getGuards()));
+		if (action.getCondition() != null) {
+			newAction.setCondition(copy(action.getCondition()));
+		}
+		PseudoStatus choicePseudoStatus = new PseudoStatus();
+		choicePseudoStatus.setName(UUID.randomUUID().toString());
+		choicePseudoStatus.setWorkflow(stored);
+		newAction.setChoicePseudoStatus(choicePseudoStatus);
+		Map<Integer, Status> conditionalRouting = new HashMap<>();
+		if (action.getConditionalRouting() != null) {
+			((Map<Integer, Status>) action.getConditionalRouting())
+					.forEach((res, status) -> conditionalRouting.put(res, getStatus(status, choicePseudoStatus)));
+		}
+		newAction.setConditionalRouting(conditionalRouting);
+		Set<SimpleAction> conditionalActions = new HashSet<>();
+		for (SimpleAction conditionalAction : (Set<SimpleAction>) action.getConditionalActions()) {
+			SimpleAction newConditionalAction = newSimpleAction(conditionalAction, choicePseudoStatus);
+			if (conditionalAction.getWorkflow() != null) {
+				// This action was also added to the workflow actions
+				newConditionalAction.setWorkflow(stored);
+				newActions.add(newConditionalAction);
+			}
+			conditionalActions.add(newConditionalAction);
+		}
+		newAction.setConditionalActions(conditionalActions);
+		return newAction;
+	}
+
+	private SimpleAction newSimpleAction(SimpleAction action, Status choicePseudoStatus) {
+		SimpleAction newAction = new SimpleAction();
+		boolean fromPseudoStatus = action.getDepartureStatus() instanceof PseudoStatus;
+		newAction.setName(fromPseudoStatus ? UUID.randomUUID().toString() : action.getName());
+		newAction.setDepartureStatus(getStatus(action.getDepartureStatus(), choicePseudoStatus));
+		newAction.setArrivalStatus(getStatus(action.getArrivalStatus(), choicePseudoStatus));
+		newAction.setGuards(copy(action.getGuards()));
+		newAction.setProcesses(copy(action.getProcesses()));
+		return newAction;
+	}
+
+	private Status getStatus(Status status, Status choicePseudoStatus) {
+		if (status == null) {
+			return null;
+		}
+		return status instanceof PseudoStatus ? choicePseudoStatus : statusByName.get(status.getName());
+	}
+
+	private static <T extends TradistaFlowObject> Set<T> copy(Set<T> components) {
+		Set<T> copies = new LinkedHashSet<>();
+		if (components != null) {
+			components.forEach(c -> copies.add(copy(c)));
+		}
+		return copies;
+	}
+
+	private static <T extends TradistaFlowObject> T copy(T component) {
+		T copy = (T) component.clone();
+		copy.setId(null);
+		return copy;
+	}
+
+}
\ No newline at end of file
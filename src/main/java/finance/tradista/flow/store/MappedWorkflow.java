@@ -0,0 +1,475 @@
+package finance.tradista.flow.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.Condition;
+import finance.tradista.flow.model.Guard;
+import finance.tradista.flow.model.Process;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Read-only view of a compiled workflow stored in the binary layout of the
+ * MappedWorkflowStore. The statuses, actions, transitions and routing tables
+ * are read directly from the buffer, usually memory-mapped, without creating
+ * workflow entities. Guards, conditions and processes are stored as class
+ * names, they are only instantiated by compile. A MappedWorkflow is immutable
+ * and can be shared between threads.
+ * 
+ * Layout (big-endian): a header, the strings (length and UTF-8 bytes), the class
+ * name lists (count and string offsets), the routing tables (count and
+ * result, arrival ordinal, processes offset triples), the status and action
+ * names (string offsets, in ordinal order), the status and action ordinals
+ * sorted by name, the transition offsets per status and the fixed size
+ * transition records.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class MappedWorkflow {
+
+	static final int MAGIC = 0x54465746;
+
+	static final short FORMAT_VERSION = 1;
+
+	static final int HEADER_SIZE = 52;
+
+	static final int MAGIC_OFFSET = 0;
+
+	static final int VERSION_OFFSET = 4;
+
+	static final int STATUS_COUNT_OFFSET = 8;
+
+	static final int ACTION_COUNT_OFFSET = 12;
+
+	static final int TRANSITION_COUNT_OFFSET = 16;
+
+	static final int NAME_OFFSET = 20;
+
+	static final int STATUS_NAMES_OFFSET = 24;
+
+	static final int ACTION_NAMES_OFFSET = 28;
+
+	static final int STATUS_INDEX_OFFSET = 32;
+
+	static final int ACTION_INDEX_OFFSET = 36;
+
+	static final int TRANSITION_OFFSETS_OFFSET = 40;
+
+	static final int TRANSITIONS_OFFSET = 44;
+
+	static final int FILE_SIZE_OFFSET = 48;
+
+	/*
+	 * Transition record: action ordinal, arrival ordinal (-1 if conditional),
+	 * guards offset, processes offset, condition offset and routing offset (-1 if
+	 * simple).
+	 */
+	static final int TRANSITION_SIZE = 24;
+
+	static final int NONE = -1;
+
+	private final ByteBuffer buffer;
+
+	private final int statusCount;
+
+	private final int actionCount;
+
+	private final int transitionCount;
+
+	private final int statusNames;
+
+	private final int actionNames;
+
+	private final int statusIndex;
+
+	private final int actionIndex;
+
+	private final int transitionOffsets;
+
+	private final int transitions;
+
+	/**
+	 * Creates a view of a workflow stored in a buffer. Only absolute reads are
+	 * used, so the position of the buffer is not modified.
+	 * 
+	 * @param buffer the buffer containing the workflow
+	 * @throws TradistaFlowTechnicalException if the buffer doesn't contain a
+	 *                                        workflow in a supported format
+	 */
+	public MappedWorkflow(ByteBuffer buffer) {
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+			throw new TradistaFlowTechnicalException("The buffer doesn't contain a stored workflow.");
+		}
+		short version = buffer.getShort(VERSION_OFFSET);
+		if (version != FORMAT_VERSION) {
+			throw new TradistaFlowTechnicalException(
+					String.format("The stored workflow format version %d is not supported.", version));
+		}
+		if (buffer.getInt(FILE_SIZE_OFFSET) != buffer.limit()) {
+			throw new TradistaFlowTechnicalException("The stored workflow is truncated.");
+		}
+		this.buffer = buffer.asReadOnlyBuffer();
+		statusCount = buffer.getInt(STATUS_COUNT_OFFSET);
+		actionCount = buffer.getInt(ACTION_COUNT_OFFSET);
+		transitionCount = buffer.getInt(TRANSITION_COUNT_OFFSET);
+		statusNames = buffer.getInt(STATUS_NAMES_OFFSET);
+		actionNames = buffer.getInt(ACTION_NAMES_OFFSET);
+		statusIndex = buffer.getInt(STATUS_INDEX_OFFSET);
+		actionIndex = buffer.getInt(ACTION_INDEX_OFFSET);
+		transitionOffsets = buffer.getInt(TRANSITION_OFFSETS_OFFSET);
+		transitions = buffer.getInt(TRANSITIONS_OFFSET);
+	}
+
+	public String getName() {
+		return getString(buffer.getInt(NAME_OFFSET));
+	}
+
+	public int getStatusCount() {
+		return statusCount;
+	}
+
+	public int getActionCount() {
+		return actionCount;
+	}
+
+	public int getTransitionCount() {
+		return transitionCount;
+	}
+
+	/**
+	 * Gets a status name given its ordinal.
+	 * 
+	 * @param ordinal the ordinal of the status
+	 * @return the name of the status
+	 */
+	public String getStatusName(int ordinal) {
+		return getString(buffer.getInt(statusNames + checkIndex(ordinal, statusCount) * Integer.BYTES));
+	}
+
+	/**
+	 * Gets the ordinal of a status given its name, using a binary search.
+	 * 
+	 * @param statusName the name of the status
+	 * @return the ordinal of the status, -1 if the status doesn't exist
+	 */
+	public int getStatusOrdinal(String statusName) {
+		return search(statusName, statusNames, statusIndex, statusCount);
+	}
+
+	/**
+	 * Gets an action name given its ordinal.
+	 * 
+	 * @param ordinal the ordinal of the action
+	 * @return the name of the action
+	 */
+	public String getActionName(int ordinal) {
+		return getString(buffer.getInt(actionNames + checkIndex(ordinal, actionCount) * Integer.BYTES));
+	}
+
+	/**
+	 * Gets the ordinal of an action given its name, using a binary search.
+	 * 
+	 * @param actionName the name of the action
+	 * @return the ordinal of the action, -1 if the action doesn't exist
+	 */
+	public int getActionOrdinal(String actionName) {
+		return search(actionName, actionNames, actionIndex, actionCount);
+	}
+
+	/**
+	 * Gets the names of the actions available from a given status.
+	 * 
+	 * @param statusName the name of the status
+	 * @return the names of the available actions, an empty set if there is none
+	 *         or if the status doesn't exist
+	 */
+	public Set<String> getAvailableActions(String statusName) {
+		int statusOrdinal = getStatusOrdinal(statusName);
+		if (statusOrdinal == -1) {
+			return Set.of();
+		}
+		int first = getFirstTransition(statusOrdinal);
+		int last = getFirstTransition(statusOrdinal + 1);
+		String[] names = new String[last - first];
+		for (int t = first; t < last; t++) {
+			names[t - first] = getActionName(getTransitionActionOrdinal(t));
+		}
+		return Set.of(names);
+	}
+
+	/**
+	 * Gets the index of the first transition available from a status. The
+	 * transitions available from the status of ordinal s range from
+	 * getFirstTransition(s) to getFirstTransition(s + 1) (exclusive).
+	 * 
+	 * @param statusOrdinal the ordinal of the status, between 0 and
+	 *                      getStatusCount() (inclusive)
+	 * @return the index of the first transition of the status
+	 */
+	public int getFirstTransition(int statusOrdinal) {
+		return buffer.getInt(transitionOffsets + checkIndex(statusOrdinal, statusCount + 1) * Integer.BYTES);
+	}
+
+	/**
+	 * Gets the index of the transition corresponding to an action applied from a
+	 * given status.
+	 * 
+	 * @param statusOrdinal the ordinal of the status
+	 * @param actionOrdinal the ordinal of the action
+	 * @return the index of the transition, -1 if the action is not available from
+	 *         the status
+	 */
+	public int getTransition(int statusOrdinal, int actionOrdinal) {
+		if (statusOrdinal < 0 || statusOrdinal >= statusCount || actionOrdinal < 0) {
+			return -1;
+		}
+		int last = getFirstTransition(statusOrdinal + 1);
+		for (int t = getFirstTransition(statusOrdinal); t < last; t++) {
+			if (getTransitionActionOrdinal(t) == actionOrdinal) {
+				return t;
+			}
+		}
+		return -1;
+	}
+
+	public int getTransitionActionOrdinal(int transition) {
+		return transitionField(transition, 0);
+	}
+
+	/**
+	 * Gets the arrival status ordinal of a simple transition.
+	 * 
+	 * @param transition the index of the transition
+	 * @return the arrival status ordinal, -1 if the transition is conditional
+	 */
+	public int getTransitionArrivalOrdinal(int transition) {
+		return transitionField(transition, 1);
+	}
+
+	public List<String> getTransitionGuards(int transition) {
+		return getStrings(transitionField(transition, 2));
+	}
+
+	/**
+	 * Gets the class names of the processes of a simple transition.
+	 * 
+	 * @param transition the index of the transition
+	 * @return the class names of the processes, an empty list if the transition
+	 *         is conditional
+	 */
+	public List<String> getTransitionProcesses(int transition) {
+		return getStrings(transitionField(transition, 3));
+	}
+
+	public boolean isConditional(int transition) {
+		return transitionField(transition, 4) != NONE;
+	}
+
+	/**
+	 * Gets the class name of the condition of a conditional transition.
+	 * 
+	 * @param transition the index of the transition
+	 * @return the class name of the condition, null if the transition is simple
+	 */
+	public String getTransitionCondition(int transition) {
+		int condition = transitionField(transition, 4);
+		return condition != NONE ? getString(condition) : null;
+	}
+
+	/**
+	 * Gets the routing table of a conditional transition.
+	 * 
+	 * @param transition the index of the transition
+	 * @return the arrival status ordinals by result of the condition, an empty map
+	 *         if the transition is simple
+	 */
+	public Map<Integer, Integer> getTransitionRouting(int transition) {
+		int routing = transitionField(transition, 5);
+		if (routing == NONE) {
+			return Map.of();
+		}
+		int count = buffer.getInt(routing);
+		Map<Integer, Integer> arrivals = new LinkedHashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			int entry = routing + Integer.BYTES + i * 3 * Integer.BYTES;
+			arrivals.put(buffer.getInt(entry), buffer.getInt(entry + Integer.BYTES));
+		}
+		return Collections.unmodifiableMap(arrivals);
+	}
+
+	/**
+	 * Compiles the stored workflow, instantiating its guards, conditions and
+	 * processes with their no-arg constructors. The instances are shared by the
+	 * transitions using the same class.
+	 * 
+	 * @param classLoader the class loader of the guards, conditions and processes
+	 * @return the compiled workflow
+	 * @throws TradistaFlowTechnicalException if a guard, condition or process
+	 *                                        cannot be instantiated
+	 */
+	public <X extends WorkflowObject> CompiledWorkflow<X> compile(ClassLoader classLoader) {
+		return compile(classLoader, 0);
+	}
+
+	/**
+	 * Compiles the stored workflow, giving it a version.
+	 * 
+	 * @param classLoader the class loader of the guards, conditions and processes
+	 * @param version     the version of the compiled workflow
+	 * @return the compiled workflow
+	 * @throws TradistaFlowTechnicalException if a guard, condition or process
+	 *                                        cannot be instantiated
+	 */
+	@SuppressWarnings("unchecked")
+	<X extends WorkflowObject> CompiledWorkflow<X> compile(ClassLoader classLoader, long version) {
+		String[] names = new String[statusCount];
+		for (int i = 0; i < statusCount; i++) {
+			names[i] = getStatusName(i);
+		}
+		CompiledWorkflow.Builder<X> builder = new CompiledWorkflow.Builder<X>(getName(), names).setVersion(version);
+		Map<String, Object> instances = new LinkedHashMap<>();
+		for (int s = 0; s < statusCount; s++) {
+			int last = getFirstTransition(s + 1);
+			for (int t = getFirstTransition(s); t < last; t++) {
+				String actionName = getActionName(getTransitionActionOrdinal(t));
+				List<Guard<X>> guards = (List<Guard<X>>) newInstances(getTransitionGuards(t), instances, classLoader);
+				if (isConditional(t)) {
+					int routing = transitionField(t, 5);
+					int count = buffer.getInt(routing);
+					int[] results = new int[count];
+					int[] arrivals = new int[count];
+					List<List<Process<X>>> processes = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						int entry = routing + Integer.BYTES + i * 3 * Integer.BYTES;
+						results[i] = buffer.getInt(entry);
+						arrivals[i] = buffer.getInt(entry + Integer.BYTES);
+						processes.add((List<Process<X>>) newInstances(
+								getStrings(buffer.getInt(entry + 2 * Integer.BYTES)), instances, classLoader));
+					}
+					Condition<X> condition = (Condition<X>) newInstance(getTransitionCondition(t), instances,
+							classLoader);
+					builder.addConditionalTransition(actionName, s, guards, condition, results, arrivals, processes);
+				} else {
+					builder.addTransition(actionName, s, guards,
+							(List<Process<X>>) newInstances(getTransitionProcesses(t), instances, classLoader),
+							getTransitionArrivalOrdinal(t));
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Compiles the stored workflow, using the context class loader of the current
+	 * thread to load its guards, conditions and processes.
+	 * 
+	 * @return the compiled workflow
+	 * @throws TradistaFlowTechnicalException if a guard, condition or process
+	 *                                        cannot be instantiated
+	 */
+	public <X extends WorkflowObject> CompiledWorkflow<X> compile() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return compile(classLoader != null ? classLoader : MappedWorkflow.class.getClassLoader());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static List newInstances(List<String> classNames, Map<String, Object> instances,
+			ClassLoader classLoader) {
+		List list = new ArrayList<>(classNames.size());
+		for (String className : classNames) {
+			list.add(newInstance(className, instances, classLoader));
+		}
+		return list;
+	}
+
+	private static Object newInstance(String className, Map<String, Object> instances, ClassLoader classLoader) {
+		Object instance = instances.get(className);
+		if (instance == null) {
+			try {
+				instance = Class.forName(className, true, classLoader).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				throw new TradistaFlowTechnicalException(String.format("%s cannot be instantiated: %s", className, e));
+			}
+			instances.put(className, instance);
+		}
+		return instance;
+	}
+
+	private int transitionField(int transition, int field) {
+		return buffer.getInt(transitions + checkIndex(transition, transitionCount) * TRANSITION_SIZE
+				+ field * Integer.BYTES);
+	}
+
+	private int search(String name, int names, int index, int count) {
+		if (name == null) {
+			return -1;
+		}
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int ordinal = buffer.getInt(index + middle * Integer.BYTES);
+			int cmp = getString(buffer.getInt(names + ordinal * Integer.BYTES)).compareTo(name);
+			if (cmp < 0) {
+				low = middle + 1;
+			} else if (cmp > 0) {
+				high = middle - 1;
+			} else {
+				return ordinal;
+			}
+		}
+		return -1;
+	}
+
+	private List<String> getStrings(int offset) {
+		if (offset == NONE) {
+			return List.of();
+		}
+		int count = buffer.getInt(offset);
+		String[] strings = new String[count];
+		for (int i = 0; i < count; i++) {
+			strings[i] = getString(buffer.getInt(offset + (i + 1) * Integer.BYTES));
+		}
+		return List.of(strings);
+	}
+
+	private String getString(int offset) {
+		int length = buffer.getInt(offset);
+		byte[] bytes = new byte[length];
+		buffer.get(offset + Integer.BYTES, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int checkIndex(int index, int count) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, count));
+		}
+		return index;
+	}
+
+}
\ No newline at end of file
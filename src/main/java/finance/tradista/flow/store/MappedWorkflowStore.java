@@ -0,0 +1,329 @@
+package finance.tradista.flow.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.CompiledWorkflow.Transition;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * File based store of compiled workflows, usable without a database. Each
+ * workflow is stored in its own file of the store directory, in the compact
+ * binary layout described in MappedWorkflow. Files are memory-mapped when they
+ * are opened, and replaced atomically when they are written, so readers never
+ * see a partially written workflow.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class MappedWorkflowStore {
+
+	public static final String FILE_EXTENSION = ".tfw";
+
+	private final Path directory;
+
+	/**
+	 * Creates a workflow store. The directory is created when the first workflow
+	 * is written.
+	 * 
+	 * @param directory the directory of the store
+	 */
+	public MappedWorkflowStore(Path directory) {
+		if (directory == null) {
+			throw new IllegalArgumentException("The directory cannot be null.");
+		}
+		this.directory = directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Writes a compiled workflow in the store, replacing the stored version if
+	 * any.
+	 * 
+	 * @param workflow the compiled workflow to write
+	 * @return the path of the workflow file
+	 * @throws TradistaFlowTechnicalException if the file cannot be written
+	 */
+	public Path write(CompiledWorkflow<? extends WorkflowObject> workflow) {
+		if (workflow == null) {
+			throw new IllegalArgumentException("The workflow cannot be null.");
+		}
+		Path path = getPath(workflow.getName());
+		try {
+			Files.createDirectories(directory);
+			Path tmp = Files.createTempFile(directory, null, ".tmp");
+			try {
+				Files.write(tmp, encode(workflow));
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+		return path;
+	}
+
+	/**
+	 * Opens a stored workflow by memory-mapping its file.
+	 * 
+	 * @param name the name of the workflow
+	 * @return a view of the stored workflow
+	 * @throws TradistaFlowBusinessException  if the workflow is not in the store
+	 * @throws TradistaFlowTechnicalException if the file cannot be read
+	 */
+	public MappedWorkflow open(String name) throws TradistaFlowBusinessException {
+		if (name == null || name.isEmpty()) {
+			throw new TradistaFlowBusinessException("The name is mandatory.");
+		}
+		try (FileChannel channel = FileChannel.open(getPath(name), StandardOpenOption.READ)) {
+			// The mapping remains valid after the channel is closed.
+			return new MappedWorkflow(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (NoSuchFileException _) {
+			throw new TradistaFlowBusinessException(String.format("The workflow named %s doesn't exist.", name));
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+	}
+
+	/**
+	 * Loads a compiled workflow from the store.
+	 * 
+	 * @param name the name of the workflow
+	 * @return the compiled workflow
+	 * @throws TradistaFlowBusinessException  if the workflow is not in the store
+	 * @throws TradistaFlowTechnicalException if the file cannot be read or if a
+	 *                                        guard, condition or process cannot
+	 *                                        be instantiated
+	 */
+	public <X extends WorkflowObject> CompiledWorkflow<X> load(String name) throws TradistaFlowBusinessException {
+		return open(name).compile();
+	}
+
+	public boolean contains(String name) {
+		return name != null && Files.isRegularFile(getPath(name));
+	}
+
+	/**
+	 * Deletes a workflow from the store.
+	 * 
+	 * @param name the name of the workflow
+	 * @return true if the workflow was deleted, false if it was not in the store
+	 * @throws TradistaFlowTechnicalException if the file cannot be deleted
+	 */
+	public boolean delete(String name) {
+		try {
+			return Files.deleteIfExists(getPath(name));
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+	}
+
+	/**
+	 * Gets the names of the stored workflows.
+	 * 
+	 * @return the names of the stored workflows
+	 * @throws TradistaFlowTechnicalException if the directory cannot be read
+	 */
+	public Set<String> getWorkflowNames() {
+		if (!Files.isDirectory(directory)) {
+			return Set.of();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(p -> p.getFileName().toString()).filter(f -> f.endsWith(FILE_EXTENSION))
+					.map(f -> URLDecoder.decode(f.substring(0, f.length() - FILE_EXTENSION.length()),
+							StandardCharsets.UTF_8))
+					.collect(Collectors.toUnmodifiableSet());
+		} catch (IOException | UncheckedIOException e) {
+			throw new TradistaFlowTechnicalException(e);
+		}
+	}
+
+	private Path getPath(String name) {
+		// Workflow names are encoded so they are valid file names.
+		return directory.resolve(URLEncoder.encode(name, StandardCharsets.UTF_8) + FILE_EXTENSION);
+	}
+
+	/**
+	 * Encodes a compiled workflow in the binary layout described in
+	 * MappedWorkflow.
+	 * 
+	 * @param workflow the compiled workflow
+	 * @return the encoded workflow
+	 */
+	static <X extends WorkflowObject> byte[] encode(CompiledWorkflow<X> workflow) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.write(new byte[MappedWorkflow.HEADER_SIZE]);
+		Map<String, Integer> strings = new HashMap<>();
+		Map<List<String>, Integer> lists = new HashMap<>();
+		int statusCount = workflow.getStatusCount();
+		int actionCount = workflow.getActionCount();
+		List<Transition<X>> transitions = IntStream.range(0, statusCount)
+				.mapToObj(s -> workflow.getTransitions(s).stream()).flatMap(t -> t).toList();
+
+		// Strings
+		int name = writeString(out, strings, workflow.getName());
+		int[] statusNames = new int[statusCount];
+		for (int s = 0; s < statusCount; s++) {
+			statusNames[s] = writeString(out, strings, workflow.getStatus(s).getName());
+		}
+		int[] actionNames = new int[actionCount];
+		for (int a = 0; a < actionCount; a++) {
+			actionNames[a] = writeString(out, strings, workflow.getActionName(a));
+		}
+
+		// Class name lists and routing tables
+		int[] records = new int[transitions.size() * MappedWorkflow.TRANSITION_SIZE / Integer.BYTES];
+		for (int t = 0; t < transitions.size(); t++) {
+			Transition<X> transition = transitions.get(t);
+			int record = t * MappedWorkflow.TRANSITION_SIZE / Integer.BYTES;
+			records[record] = transition.getActionOrdinal();
+			records[record + 1] = transition.getArrivalOrdinal();
+			records[record + 2] = writeList(out, strings, lists,
+					transition.getGuards().stream().map(g -> g.getClass().getName()).toList());
+			if (transition.isConditional()) {
+				records[record + 3] = MappedWorkflow.NONE;
+				records[record + 4] = writeString(out, strings, transition.getCondition().getClass().getName());
+				int[] processes = new int[transition.getRoutingCount()];
+				for (int i = 0; i < processes.length; i++) {
+					processes[i] = writeList(out, strings, lists,
+							transition.getProcesses(transition.getRoutingArrivalOrdinal(i)).stream()
+									.map(p -> p.getClass().getName()).toList());
+				}
+				records[record + 5] = out.size();
+				out.writeInt(processes.length);
+				for (int i = 0; i < processes.length; i++) {
+					out.writeInt(transition.getRoutingResult(i));
+					out.writeInt(transition.getRoutingArrivalOrdinal(i));
+					out.writeInt(processes[i]);
+				}
+			} else {
+				records[record + 3] = writeList(out, strings, lists,
+						transition.getProcesses(transition.getArrivalOrdinal()).stream()
+								.map(p -> p.getClass().getName()).toList());
+				records[record + 4] = MappedWorkflow.NONE;
+				records[record + 5] = MappedWorkflow.NONE;
+			}
+		}
+
+		// Names, indexes and transitions
+		int statusNamesOffset = writeInts(out, statusNames);
+		int actionNamesOffset = writeInts(out, actionNames);
+		int statusIndexOffset = writeInts(out, IntStream.range(0, statusCount).boxed()
+				.sorted(Comparator.comparing(s -> workflow.getStatus(s).getName())).mapToInt(Integer::intValue)
+				.toArray());
+		int actionIndexOffset = writeInts(out, IntStream.range(0, actionCount).boxed()
+				.sorted(Comparator.comparing(workflow::getActionName)).mapToInt(Integer::intValue).toArray());
+		int[] transitionOffsets = new int[statusCount + 1];
+		for (int s = 0; s < statusCount; s++) {
+			transitionOffsets[s + 1] = transitionOffsets[s] + workflow.getTransitions(s).size();
+		}
+		int transitionOffsetsOffset = writeInts(out, transitionOffsets);
+		int transitionsOffset = writeInts(out, records);
+		out.flush();
+
+		byte[] encoded = bytes.toByteArray();
+		ByteBuffer header = ByteBuffer.wrap(encoded);
+		header.putInt(MappedWorkflow.MAGIC_OFFSET, MappedWorkflow.MAGIC);
+		header.putShort(MappedWorkflow.VERSION_OFFSET, MappedWorkflow.FORMAT_VERSION);
+		header.putInt(MappedWorkflow.STATUS_COUNT_OFFSET, statusCount);
+		header.putInt(MappedWorkflow.ACTION_COUNT_OFFSET, actionCount);
+		header.putInt(MappedWorkflow.TRANSITION_COUNT_OFFSET, transitions.size());
+		header.putInt(MappedWorkflow.NAME_OFFSET, name);
+		header.putInt(MappedWorkflow.STATUS_NAMES_OFFSET, statusNamesOffset);
+		header.putInt(MappedWorkflow.ACTION_NAMES_OFFSET, actionNamesOffset);
+		header.putInt(MappedWorkflow.STATUS_INDEX_OFFSET, statusIndexOffset);
+		header.putInt(MappedWorkflow.ACTION_INDEX_OFFSET, actionIndexOffset);
+		header.putInt(MappedWorkflow.TRANSITION_OFFSETS_OFFSET, transitionOffsetsOffset);
+		header.putInt(MappedWorkflow.TRANSITIONS_OFFSET, transitionsOffset);
+		header.putInt(MappedWorkflow.FILE_SIZE_OFFSET, encoded.length);
+		return encoded;
+	}
+
+	/*
+	 * Strings and class name lists are written once, the transitions using the
+	 * same guards or processes share them.
+	 */
+	private static int writeString(DataOutputStream out, Map<String, Integer> strings, String string)
+			throws IOException {
+		Integer offset = strings.get(string);
+		if (offset == null) {
+			offset = out.size();
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+			strings.put(string, offset);
+		}
+		return offset;
+	}
+
+	private static int writeList(DataOutputStream out, Map<String, Integer> strings, Map<List<String>, Integer> lists,
+			List<String> list) throws IOException {
+		Integer offset = lists.get(list);
+		if (offset == null) {
+			int[] elements = new int[list.size()];
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = writeString(out, strings, list.get(i));
+			}
+			offset = out.size();
+			out.writeInt(elements.length);
+			for (int element : elements) {
+				out.writeInt(element);
+			}
+			lists.put(list, offset);
+		}
+		return offset;
+	}
+
+	private static int writeInts(DataOutputStream out, int[] ints) throws IOException {
+		int offset = out.size();
+		for (int i : ints) {
+			out.writeInt(i);
+		}
+		return offset;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,587 @@
+package finance.tradista.flow.store;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.Action;
+import finance.tradista.flow.model.Condition;
+import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.Guard;
+import finance.tradista.flow.model.Process;
+import finance.tradista.flow.model.PseudoStatus;
+import finance.tradista.flow.model.SimpleAction;
+import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Compact binary format of the workflow definitions, used to export workflows
+ * from an environment and to import them in another one. A workflow is encoded
+ * with its statuses, its simple and conditional actions, the routings of its
+ * conditional actions and the class names of its guards, conditions and
+ * processes. Guards, conditions and processes are instantiated with their
+ * no-arg constructors when the workflow is decoded. The names generated by the
+ * model, such as the names of the pseudo statuses of the conditional actions,
+ * are not encoded: they are generated again when the workflow is decoded.
+ * Each encoded workflow is a record made of a header (magic number, format
+ * version and payload length) followed by the payload, so several workflows
+ * can be written one after the other in a file or a channel. In the payload,
+ * integers are written as varints, and each string is written once, its next
+ * occurrences being references to the first one.
+ * Decoded workflows are new workflows, without ids, that can be saved with
+ * WorkflowManager.saveWorkflow. A WorkflowCodec is thread safe.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowCodec {
+
+	/**
+	 * Magic number of the encoded workflows, "TFWC" in ASCII.
+	 */
+	public static final int MAGIC = 0x54465743;
+
+	/**
+	 * Version of the format, incremented when the format changes.
+	 */
+	public static final short FORMAT_VERSION = 1;
+
+	/**
+	 * Size of the record header: magic number, format version, flags (unused)
+	 * and payload length.
+	 */
+	public static final int HEADER_SIZE = 12;
+
+	// Tags of the strings. A tag greater than NEW_STRING is a reference to the
+	// string of index tag - FIRST_REFERENCE.
+	private static final int NULL_STRING = 0;
+
+	private static final int NEW_STRING = 1;
+
+	private static final int FIRST_REFERENCE = 2;
+
+	private final ClassLoader classLoader;
+
+	private final Map<String, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a codec using the context class loader of the current thread to
+	 * load the guards, conditions and processes of the decoded workflows.
+	 */
+	public WorkflowCodec() {
+		this(Thread.currentThread().getContextClassLoader() != null ? Thread.currentThread().getContextClassLoader()
+				: WorkflowCodec.class.getClassLoader());
+	}
+
+	/**
+	 * Creates a codec.
+	 * 
+	 * @param classLoader the class loader of the guards, conditions and processes
+	 *                    of the decoded workflows
+	 */
+	public WorkflowCodec(ClassLoader classLoader) {
+		if (classLoader == null) {
+			throw new IllegalArgumentException("The class loader cannot be null.");
+		}
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Encodes a workflow.
+	 * 
+	 * @param workflow the workflow to encode
+	 * @return a buffer containing the encoded workflow, between its position and
+	 *         its limit
+	 */
+	public ByteBuffer encode(Workflow<? extends WorkflowObject> workflow) {
+		Output payload = encodePayload(workflow);
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.size);
+		payload.writeRecord(buffer);
+		return buffer.flip();
+	}
+
+	/**
+	 * Encodes a workflow in a buffer, from its current position. The position of
+	 * the buffer is advanced by the size of the encoded workflow.
+	 * 
+	 * @param workflow the workflow to encode
+	 * @param buffer   the buffer where the workflow is encoded
+	 * @throws BufferOverflowException if the remaining space of the buffer is not
+	 *                                 sufficient. In this case, the buffer is
+	 *                                 not modified.
+	 */
+	public void encode(Workflow<? extends WorkflowObject> workflow, ByteBuffer buffer) {
+		Output payload = encodePayload(workflow);
+		if (buffer.remaining() < HEADER_SIZE + payload.size) {
+			throw new BufferOverflowException();
+		}
+		payload.writeRecord(buffer);
+	}
+
+	/**
+	 * Encodes a workflow in a channel.
+	 * 
+	 * @param workflow the workflow to encode
+	 * @param channel  the channel where the workflow is written
+	 * @throws TradistaFlowTechnicalException if the channel cannot be written
+	 */
+	public void encode(Workflow<? extends WorkflowObject> workflow, WritableByteChannel channel) {
+		ByteBuffer buffer = encode(workflow);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+	}
+
+	/**
+	 * Encodes several workflows in a channel, one after the other.
+	 * 
+	 * @param workflows the workflows to encode
+	 * @param channel   the channel where the workflows are written
+	 * @throws TradistaFlowTechnicalException if the channel cannot be written
+	 */
+	public void encode(Iterable<? extends Workflow<? extends WorkflowObject>> workflows,
+			WritableByteChannel channel) {
+		for (Workflow<? extends WorkflowObject> workflow : workflows) {
+			encode(workflow, channel);
+		}
+	}
+
+	/**
+	 * Decodes a workflow from a buffer, from its current position. The position
+	 * of the buffer is advanced by the size of the encoded workflow.
+	 * 
+	 * @param buffer the buffer containing the encoded workflow
+	 * @return the decoded workflow
+	 * @throws TradistaFlowTechnicalException if the buffer doesn't contain an
+	 *                                        encoded workflow, if its format
+	 *                                        version is not supported, or if a
+	 *                                        guard, condition or process cannot
+	 *                                        be instantiated
+	 */
+	public <X extends WorkflowObject> Workflow<X> decode(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new TradistaFlowTechnicalException("The buffer doesn't contain an encoded workflow.");
+		}
+		int start = buffer.position();
+		int length = readHeader(buffer.slice(start, HEADER_SIZE));
+		if (buffer.remaining() - HEADER_SIZE < length) {
+			throw new TradistaFlowTechnicalException("The encoded workflow is truncated.");
+		}
+		ByteBuffer payload = buffer.slice(start + HEADER_SIZE, length);
+		buffer.position(start + HEADER_SIZE + length);
+		return decodePayload(payload);
+	}
+
+	/**
+	 * Decodes a workflow from a channel.
+	 * 
+	 * @param channel the channel from where the workflow is read
+	 * @return the decoded workflow, null if the end of the channel is reached
+	 * @throws TradistaFlowTechnicalException if the channel cannot be read, if it
+	 *                                        doesn't contain an encoded workflow,
+	 *                                        if its format version is not
+	 *                                        supported, or if a guard, condition
+	 *                                        or process cannot be instantiated
+	 */
+	public <X extends WorkflowObject> Workflow<X> decode(ReadableByteChannel channel) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (!readFully(channel, header)) {
+			return null;
+		}
+		ByteBuffer payload = ByteBuffer.allocate(readHeader(header.flip()));
+		if (!readFully(channel, payload)) {
+			throw new TradistaFlowTechnicalException("The encoded workflow is truncated.");
+		}
+		return decodePayload(payload.flip());
+	}
+
+	/**
+	 * Decodes all the workflows of a channel.
+	 * 
+	 * @param channel the channel from where the workflows are read
+	 * @return the decoded workflows, in the order they were encoded
+	 * @throws TradistaFlowTechnicalException in the cases where decode raises it
+	 */
+	public <X extends WorkflowObject> List<Workflow<X>> decodeAll(ReadableByteChannel channel) {
+		List<Workflow<X>> workflows = new ArrayList<>();
+		Workflow<X> workflow;
+		while ((workflow = decode(channel)) != null) {
+			workflows.add(workflow);
+		}
+		return workflows;
+	}
+
+	/*
+	 * Reads bytes until the buffer is full. Returns false if the end of the
+	 * channel was reached before any byte was read.
+	 */
+	private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) {
+		try {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) == -1) {
+					if (buffer.position() == 0) {
+						return false;
+					}
+					throw new TradistaFlowTechnicalException("The encoded workflow is truncated.");
+				}
+			}
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+		return true;
+	}
+
+	private static int readHeader(ByteBuffer header) {
+		header.order(ByteOrder.BIG_ENDIAN);
+		if (header.getInt() != MAGIC) {
+			throw new TradistaFlowTechnicalException("The buffer doesn't contain an encoded workflow.");
+		}
+		short version = header.getShort();
+		if (version != FORMAT_VERSION) {
+			throw new TradistaFlowTechnicalException(
+					String.format("The format version %d of the encoded workflow is not supported.", version));
+		}
+		header.getShort();
+		int length = header.getInt();
+		if (length < 0) {
+			throw new TradistaFlowTechnicalException("The encoded workflow is corrupted.");
+		}
+		return length;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Output encodePayload(Workflow<? extends WorkflowObject> workflow) {
+		if (workflow == null) {
+			throw new IllegalArgumentException("The workflow cannot be null.");
+		}
+		Output out = new Output();
+		out.writeString(workflow.getName());
+		out.writeString(workflow.getDescription());
+
+		// Statuses, sorted by name so they are referenced by their ordinal
+		List<Status> statuses = ((Set<Status>) (Set) workflow.getStatus()).stream()
+				.filter(s -> !(s instanceof PseudoStatus)).sorted(Comparator.comparing(Status::getName)).toList();
+		Map<String, Integer> ordinals = new HashMap<>(statuses.size() * 2);
+		out.writeVarint(statuses.size());
+		for (Status status : statuses) {
+			ordinals.put(status.getName(), ordinals.size());
+			out.writeString(status.getName());
+		}
+
+		List<SimpleAction> simpleActions = new ArrayList<>();
+		List<ConditionalAction> conditionalActions = new ArrayList<>();
+		for (Action action : workflow.getActions()) {
+			if (action instanceof ConditionalAction conditionalAction) {
+				conditionalActions.add(conditionalAction);
+			} else {
+				simpleActions.add((SimpleAction) action);
+			}
+		}
+		out.writeVarint(simpleActions.size());
+		for (SimpleAction action : simpleActions) {
+			out.writeString(action.getName());
+			out.writeVarint(ordinal(ordinals, action.getDepartureStatus(), workflow));
+			out.writeVarint(ordinal(ordinals, action.getArrivalStatus(), workflow));
+			out.writeClassNames(action.getGuards());
+			out.writeClassNames(action.getProcesses());
+		}
+
+		// Conditional actions: the branches to the pseudo status are written with
+		// their names and departure statuses, the branches from the pseudo status
+		// with their arrival statuses.
+		out.writeVarint(conditionalActions.size());
+		for (ConditionalAction action : conditionalActions) {
+			out.writeString(action.getName());
+			Status departureStatus = action.getDepartureStatus();
+			out.writeVarint(departureStatus != null ? ordinal(ordinals, departureStatus, workflow) + 1 : 0);
+			out.writeClassNames(action.getGuards());
+			out.writeString(action.getCondition() != null ? action.getCondition().getClass().getName() : null);
+			List<SimpleAction> departureActions = new ArrayList<>();
+			List<SimpleAction> arrivalActions = new ArrayList<>();
+			for (SimpleAction branch : (Set<SimpleAction>) action.getConditionalActions()) {
+				if (branch.getArrivalStatus() instanceof PseudoStatus) {
+					departureActions.add(branch);
+				} else {
+					arrivalActions.add(branch);
+				}
+			}
+			out.writeVarint(departureActions.size());
+			for (SimpleAction branch : departureActions) {
+				out.writeString(branch.getName());
+				out.writeVarint(ordinal(ordinals, branch.getDepartureStatus(), workflow));
+				out.writeClassNames(branch.getGuards());
+				out.writeClassNames(branch.getProcesses());
+			}
+			out.writeVarint(arrivalActions.size());
+			for (SimpleAction branch : arrivalActions) {
+				out.writeVarint(ordinal(ordinals, branch.getArrivalStatus(), workflow));
+				out.writeClassNames(branch.getGuards());
+				out.writeClassNames(branch.getProcesses());
+			}
+			Map<Integer, Status> routing = action.getConditionalRouting();
+			if (routing == null) {
+				routing = Map.of();
+			}
+			out.writeVarint(routing.size());
+			for (Map.Entry<Integer, Status> entry : routing.entrySet()) {
+				// Zigzag encoding, so small negative results are small varints
+				out.writeVarint((entry.getKey() << 1) ^ (entry.getKey() >> 31));
+				out.writeVarint(ordinal(ordinals, entry.getValue(), workflow));
+			}
+		}
+		return out;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static int ordinal(Map<String, Integer> ordinals, Status status, Workflow<?> workflow) {
+		Integer ordinal = status != null ? ordinals.get(status.getName()) : null;
+		if (ordinal == null) {
+			throw new IllegalArgumentException(
+					String.format("The status %s is not a status of the workflow %s.", status, workflow.getName()));
+		}
+		return ordinal;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private <X extends WorkflowObject> Workflow<X> decodePayload(ByteBuffer buffer) {
+		Input in = new Input(buffer);
+		try {
+			Workflow<X> workflow = new Workflow<>(in.readString());
+			String description = in.readString();
+			if (description != null) {
+				workflow.setDescription(description);
+			}
+			Status<X>[] statuses = new Status[in.readCount()];
+			for (int i = 0; i < statuses.length; i++) {
+				statuses[i] = new Status<>(workflow, in.readString());
+			}
+			int simpleActionCount = in.readCount();
+			for (int i = 0; i < simpleActionCount; i++) {
+				new SimpleAction<>(workflow, in.readString(), statuses[in.readVarint()], statuses[in.readVarint()],
+						newInstances(in, Guard.class), newInstances(in, Process.class));
+			}
+			int conditionalActionCount = in.readCount();
+			for (int i = 0; i < conditionalActionCount; i++) {
+				ConditionalAction<X> action = new ConditionalAction<>();
+				action.setWorkflow(workflow);
+				action.setName(in.readString());
+				int departureStatus = in.readVarint();
+				action.setDepartureStatus(departureStatus != 0 ? statuses[departureStatus - 1] : null);
+				action.setGuards(new LinkedHashSet<>(Arrays.asList(newInstances(in, Guard.class))));
+				String condition = in.readString();
+				action.setCondition(condition != null ? newInstance(condition, Condition.class) : null);
+				PseudoStatus<X> choicePseudoStatus = new PseudoStatus<>(workflow);
+				action.setChoicePseudoStatus(choicePseudoStatus);
+				int departureActionCount = in.readCount();
+				Set<SimpleAction> branches = new HashSet<>();
+				for (int j = 0; j < departureActionCount; j++) {
+					branches.add(new SimpleAction<>(workflow, in.readString(), statuses[in.readVarint()],
+							choicePseudoStatus, newInstances(in, Guard.class), newInstances(in, Process.class)));
+				}
+				int arrivalActionCount = in.readCount();
+				for (int j = 0; j < arrivalActionCount; j++) {
+					branches.add(new SimpleAction<>(workflow, UUID.randomUUID().toString(), choicePseudoStatus,
+							statuses[in.readVarint()], newInstances(in, Guard.class), newInstances(in, Process.class)));
+				}
+				action.setConditionalActions(branches);
+				int routingCount = in.readCount();
+				Map<Integer, Status> routing = new HashMap<>();
+				for (int j = 0; j < routingCount; j++) {
+					int result = in.readVarint();
+					routing.put((result >>> 1) ^ -(result & 1), statuses[in.readVarint()]);
+				}
+				action.setConditionalRouting(routing);
+				workflow.addAction(action);
+			}
+			return workflow;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new TradistaFlowTechnicalException("The encoded workflow is corrupted.");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T[] newInstances(Input in, Class<T> type) {
+		T[] instances = (T[]) Array.newInstance(type, in.readCount());
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = newInstance(in.readString(), type);
+		}
+		return instances;
+	}
+
+	/*
+	 * Guards, conditions and processes are entities, each action must have its
+	 * own instances, only their constructors are cached.
+	 */
+	private <T> T newInstance(String className, Class<T> type) {
+		try {
+			Constructor<?> constructor = constructors.get(className);
+			if (constructor == null) {
+				constructor = Class.forName(className, true, classLoader).getDeclaredConstructor();
+				constructors.put(className, constructor);
+			}
+			return type.cast(constructor.newInstance());
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			throw new TradistaFlowTechnicalException(String.format("%s cannot be instantiated: %s", className, e));
+		}
+	}
+
+	/**
+	 * Growable buffer where the payload of a record is written.
+	 */
+	private static final class Output {
+
+		private byte[] bytes = new byte[256];
+
+		private int size;
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private void ensureCapacity(int additional) {
+			if (size + additional > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+			}
+		}
+
+		private void writeVarint(int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		private void writeString(String string) {
+			if (string == null) {
+				writeVarint(NULL_STRING);
+				return;
+			}
+			Integer index = strings.get(string);
+			if (index != null) {
+				writeVarint(index + FIRST_REFERENCE);
+				return;
+			}
+			strings.put(string, strings.size());
+			byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+			writeVarint(NEW_STRING);
+			writeVarint(utf8.length);
+			ensureCapacity(utf8.length);
+			System.arraycopy(utf8, 0, bytes, size, utf8.length);
+			size += utf8.length;
+		}
+
+		private void writeClassNames(Collection<?> objects) {
+			if (objects == null) {
+				writeVarint(0);
+				return;
+			}
+			writeVarint(objects.size());
+			for (Object object : objects) {
+				writeString(object.getClass().getName());
+			}
+		}
+
+		private void writeRecord(ByteBuffer buffer) {
+			ByteOrder order = buffer.order();
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			buffer.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) 0).putInt(size).put(bytes, 0, size);
+			buffer.order(order);
+		}
+
+	}
+
+	/**
+	 * Reader of the payload of a record.
+	 */
+	private static final class Input {
+
+		private final ByteBuffer buffer;
+
+		private final List<String> strings = new ArrayList<>();
+
+		private Input(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		private int readVarint() {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				byte b = buffer.get();
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new TradistaFlowTechnicalException("The encoded workflow is corrupted.");
+		}
+
+		/*
+		 * Each element of a list takes at least one byte, so a count greater than
+		 * the remaining bytes is corrupted.
+		 */
+		private int readCount() {
+			int count = readVarint();
+			if (count < 0 || count > buffer.remaining()) {
+				throw new TradistaFlowTechnicalException("The encoded workflow is corrupted.");
+			}
+			return count;
+		}
+
+		private String readString() {
+			int tag = readVarint();
+			if (tag == NULL_STRING) {
+				return null;
+			}
+			if (tag != NEW_STRING) {
+				return strings.get(tag - FIRST_REFERENCE);
+			}
+			byte[] utf8 = new byte[readCount()];
+			buffer.get(utf8);
+			String string = new String(utf8, StandardCharsets.UTF_8);
+			strings.add(string);
+			return string;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package finance.tradista.flow.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.WorkflowObject;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Snapshot file of compiled workflows, used to warm the workflow cache of the
+ * engine at startup without reading the workflows from the database. The file
+ * starts with a header (magic number, format version, number of workflows and
+ * CRC32C checksum of the rest of the file). Each workflow is then written with
+ * its version, followed by its binary layout, described in MappedWorkflow.
+ * A snapshot whose checksum doesn't match its content is rejected as a whole.
+ * 
+ * @author Olivier Asuncion
+ *
+ */
+public final class WorkflowSnapshot {
+
+	/**
+	 * Magic number of the snapshot files, "TFWS" in ASCII.
+	 */
+	public static final int MAGIC = 0x54465753;
+
+	/**
+	 * Version of the snapshot format, incremented when the format changes.
+	 */
+	public static final short FORMAT_VERSION = 1;
+
+	static final int HEADER_SIZE = 16;
+
+	private static final int CHECKSUM_OFFSET = 12;
+
+	private WorkflowSnapshot() {
+	}
+
+	/**
+	 * Writes a snapshot of compiled workflows. The file is replaced atomically.
+	 * 
+	 * @param file      the snapshot file
+	 * @param workflows the compiled workflows to write
+	 * @throws TradistaFlowTechnicalException if the file cannot be written
+	 */
+	public static void write(Path file, Collection<? extends CompiledWorkflow<? extends WorkflowObject>> workflows) {
+		if (file == null) {
+			throw new IllegalArgumentException("The file cannot be null.");
+		}
+		if (workflows == null) {
+			throw new IllegalArgumentException("The workflows collection cannot be null.");
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(MAGIC);
+			out.writeShort(FORMAT_VERSION);
+			out.writeShort(0);
+			out.writeInt(workflows.size());
+			out.writeInt(0);
+			for (CompiledWorkflow<? extends WorkflowObject> workflow : workflows) {
+				byte[] encoded = MappedWorkflowStore.encode(workflow);
+				out.writeLong(workflow.getVersion());
+				out.writeInt(encoded.length);
+				out.write(encoded);
+			}
+			out.flush();
+			byte[] snapshot = bytes.toByteArray();
+			CRC32C checksum = new CRC32C();
+			checksum.update(snapshot, HEADER_SIZE, snapshot.length - HEADER_SIZE);
+			ByteBuffer.wrap(snapshot).putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path tmp = Files.createTempFile(directory, null, ".tmp");
+			try {
+				Files.write(tmp, snapshot);
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+	}
+
+	/**
+	 * Reads a snapshot, using the context class loader of the current thread to
+	 * load the guards, conditions and processes of the workflows.
+	 * 
+	 * @param file the snapshot file
+	 * @return the compiled workflows of the snapshot, with their versions
+	 * @throws TradistaFlowBusinessException  if the file doesn't exist
+	 * @throws TradistaFlowTechnicalException if the file cannot be read, if it is
+	 *                                        corrupted, or if a guard, condition
+	 *                                        or process cannot be instantiated
+	 */
+	public static List<CompiledWorkflow<? extends WorkflowObject>> read(Path file)
+			throws TradistaFlowBusinessException {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return read(file, classLoader != null ? classLoader : WorkflowSnapshot.class.getClassLoader());
+	}
+
+	/**
+	 * Reads a snapshot.
+	 * 
+	 * @param file        the snapshot file
+	 * @param classLoader the class loader of the guards, conditions and processes
+	 * @return the compiled workflows of the snapshot, with their versions
+	 * @throws TradistaFlowBusinessException  if the file doesn't exist
+	 * @throws TradistaFlowTechnicalException if the file cannot be read, if it is
+	 *                                        corrupted, or if a guard, condition
+	 *                                        or process cannot be instantiated
+	 */
+	public static List<CompiledWorkflow<? extends WorkflowObject>> read(Path file, ClassLoader classLoader)
+			throws TradistaFlowBusinessException {
+		if (file == null) {
+			throw new IllegalArgumentException("The file cannot be null.");
+		}
+		byte[] snapshot;
+		try {
+			snapshot = Files.readAllBytes(file);
+		} catch (NoSuchFileException _) {
+			throw new TradistaFlowBusinessException(String.format("The snapshot %s doesn't exist.", file));
+		} catch (IOException ioe) {
+			throw new TradistaFlowTechnicalException(ioe);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+		if (snapshot.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new TradistaFlowTechnicalException(String.format("The file %s is not a workflow snapshot.", file));
+		}
+		short version = buffer.getShort();
+		if (version != FORMAT_VERSION) {
+			throw new TradistaFlowTechnicalException(
+					String.format("The format version %d of the snapshot %s is not supported.", version, file));
+		}
+		buffer.getShort();
+		int count = buffer.getInt();
+		CRC32C checksum = new CRC32C();
+		checksum.update(snapshot, HEADER_SIZE, snapshot.length - HEADER_SIZE);
+		if (buffer.getInt() != (int) checksum.getValue() || count < 0) {
+			throw new TradistaFlowTechnicalException(String.format("The snapshot %s is corrupted.", file));
+		}
+		List<CompiledWorkflow<? extends WorkflowObject>> workflows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			if (buffer.remaining() < Long.BYTES + Integer.BYTES) {
+				throw new TradistaFlowTechnicalException(String.format("The snapshot %s is corrupted.", file));
+			}
+			long workflowVersion = buffer.getLong();
+			int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				throw new TradistaFlowTechnicalException(String.format("The snapshot %s is corrupted.", file));
+			}
+			MappedWorkflow workflow = new MappedWorkflow(buffer.slice(buffer.position(), length));
+			workflows.add(workflow.compile(classLoader, workflowVersion));
+			buffer.position(buffer.position() + length);
+		}
+		return workflows;
+	}
+
+}
\ No newline at end of file
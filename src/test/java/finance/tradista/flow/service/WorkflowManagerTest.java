@@ -4,26 +4,68 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import finance.tradista.flow.exception.TradistaFlowBusinessException;
 import finance.tradista.flow.exception.TradistaFlowTechnicalException;
+import finance.tradista.flow.metrics.InMemoryTransitionMetrics;
+import finance.tradista.flow.metrics.LatencyHistogram;
+import finance.tradista.flow.metrics.StepMetrics;
+import finance.tradista.flow.metrics.TransitionMetrics.Step;
+import finance.tradista.flow.model.Action;
+import finance.tradista.flow.model.CompiledWorkflow;
+import finance.tradista.flow.model.CompiledWorkflow.Transition;
 import finance.tradista.flow.model.Condition;
 import finance.tradista.flow.model.ConditionalAction;
+import finance.tradista.flow.model.CurrentStatus;
 import finance.tradista.flow.model.Guard;
 import finance.tradista.flow.model.Process;
+import finance.tradista.flow.model.PseudoStatus;
 import finance.tradista.flow.model.SimpleAction;
 import finance.tradista.flow.model.Status;
+import finance.tradista.flow.model.TradistaFlowObject;
+import finance.tradista.flow.model.TransitionEvent;
+import finance.tradista.flow.model.TransitionJournalEntry;
 import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.model.WorkflowInstance;
 import finance.tradista.flow.model.WorkflowObject;
+import finance.tradista.flow.store.MappedWorkflow;
+import finance.tradista.flow.store.MappedWorkflowStore;
+import finance.tradista.flow.store.WorkflowCodec;
+import finance.tradista.flow.store.WorkflowSnapshot;
+import finance.tradista.flow.test.InMemoryWorkflowRepository;
 import finance.tradista.flow.test.TestCondition;
 import finance.tradista.flow.test.TestConditionKORuntimeException;
 import finance.tradista.flow.test.TestGuardKO;
@@ -33,7 +75,13 @@ import finance.tradista.flow.test.TestProcessKOCheckedException;
 import finance.tradista.flow.test.TestProcessKORuntimeException;
 import finance.tradista.flow.test.TestProcessOKOne;
 import finance.tradista.flow.test.TestProcessOKTwo;
+import finance.tradista.flow.test.TestReadOnlyGuardOK;
+import finance.tradista.flow.test.TestReadOnlyGuardOKTwo;
 import finance.tradista.flow.test.WorkflowTestObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceException;
 
 /********************************************************************************
  * Copyright (c) 2023 Olivier Asuncion
@@ -666,6 +714,48 @@ public class WorkflowManagerTest {
 		Assertions.assertEquals(s1, obj.getStatus());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action with read-only guards OK - object cloned once")
+	void testApplyActionReadOnlyGuardsOK() {
+		String workflowName = "testApplyActionReadOnlyGuardsOK";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2,
+				new Guard[] { new TestReadOnlyGuardOK(), new TestReadOnlyGuardOKTwo() }, new TestProcessOKOne());
+		WorkflowTestObject obj = new WorkflowTestObject();
+		saveWorkflow(wkf);
+		obj.setStatus(s1);
+		obj.setWorkflow(workflowName);
+		WorkflowObject res = applyAction(obj, actionName);
+		Assertions.assertEquals(s2, res.getStatus());
+		Assertions.assertEquals("Wkf", res.getWorkflow());
+		Assertions.assertEquals(1, obj.getCloneCount());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action with read-only guard and guard OK - object cloned again after the guard")
+	void testApplyActionReadOnlyGuardAndGuardOK() {
+		String workflowName = "testApplyActionReadOnlyGuardAndGuardOK";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new TestReadOnlyGuardOK(),
+				new TestGuardOKUpdateObject());
+		WorkflowTestObject obj = new WorkflowTestObject();
+		saveWorkflow(wkf);
+		obj.setStatus(s1);
+		obj.setWorkflow(workflowName);
+		WorkflowObject res = applyAction(obj, actionName);
+		Assertions.assertEquals(s2, res.getStatus());
+		Assertions.assertEquals(workflowName, res.getWorkflow());
+		Assertions.assertEquals(2, obj.getCloneCount());
+	}
+
 	@Test
 	@DisplayName("Apply invalid action")
 	void testApplyInvalidAction() {
@@ -923,6 +1013,1148 @@ public class WorkflowManagerTest {
 		Assertions.assertNotEquals("Wkf", obj.getWorkflow());
 	}
 
+	@Test
+	@DisplayName("Apply action twice - workflow cache hit")
+	void testApplyActionWorkflowCacheHit() {
+		String workflowName = "testApplyActionWorkflowCacheHit";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		saveWorkflow(wkf);
+		obj.setStatus(s1);
+		obj.setWorkflow(workflowName);
+		WorkflowCache cache = WorkflowManager.getWorkflowCache();
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+		applyAction(obj, actionName);
+		Assertions.assertEquals(misses + 1, cache.getMissCount());
+		WorkflowObject res = applyAction(obj, actionName);
+		Assertions.assertEquals(hits + 1, cache.getHitCount());
+		Assertions.assertEquals(misses + 1, cache.getMissCount());
+		Assertions.assertEquals(s2, res.getStatus());
+	}
+
+	@Test
+	@DisplayName("Delete workflow - workflow cache invalidated")
+	void testDeleteWorkflowCacheInvalidated() {
+		String workflowName = "testDeleteWorkflowCacheInvalidated";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		saveWorkflow(wkf);
+		obj.setStatus(s1);
+		obj.setWorkflow(workflowName);
+		applyAction(obj, actionName);
+		assertDoesNotThrow(() -> WorkflowManager.deleteWorkflow(wkf.getId()));
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, actionName));
+	}
+
+	@Test
+	@DisplayName("Workflow cache - least recently used workflow evicted")
+	void testWorkflowCacheEviction() {
+		String workflowNameOne = "testWorkflowCacheEvictionOne";
+		String workflowNameTwo = "testWorkflowCacheEvictionTwo";
+		final String actionName = "a1";
+		Workflow<WorkflowTestObject> wkfOne = new Workflow<>(workflowNameOne);
+		Status<WorkflowTestObject> s1 = new Status<>(wkfOne, "s1");
+		new SimpleAction<WorkflowTestObject>(wkfOne, actionName, s1, new Status<>(wkfOne, "s2"));
+		saveWorkflow(wkfOne);
+		Workflow<WorkflowTestObject> wkfTwo = new Workflow<>(workflowNameTwo);
+		Status<WorkflowTestObject> s1Two = new Status<>(wkfTwo, "s1");
+		new SimpleAction<WorkflowTestObject>(wkfTwo, actionName, s1Two, new Status<>(wkfTwo, "s2"));
+		saveWorkflow(wkfTwo);
+		WorkflowCache cache = WorkflowManager.getWorkflowCache();
+		int maximumSize = cache.getMaximumSize();
+		try {
+			cache.setMaximumSize(1);
+			long evictions = cache.getEvictionCount();
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setStatus(s1);
+			obj.setWorkflow(workflowNameOne);
+			applyAction(obj, actionName);
+			obj.setStatus(s1Two);
+			obj.setWorkflow(workflowNameTwo);
+			applyAction(obj, actionName);
+			Assertions.assertEquals(1, cache.size());
+			Assertions.assertTrue(cache.getEvictionCount() > evictions);
+		} finally {
+			cache.setMaximumSize(maximumSize);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Compile workflow with simple and conditional actions")
+	void testCompileWorkflow() {
+		Workflow<WorkflowTestObject> wkf = new Workflow<>("testCompileWorkflow");
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		Status<WorkflowTestObject> s4 = new Status<>(wkf, "s4");
+		Guard<WorkflowTestObject> guardOK = new TestGuardOK();
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, guardOK);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s3);
+		conditionalRouting.put(2, s4);
+		new ConditionalAction<WorkflowTestObject>(wkf, s2, "a2", new TestCondition(), conditionalRouting, s3, s4);
+		CompiledWorkflow<WorkflowTestObject> compiledWkf = CompiledWorkflow.compile(wkf);
+		Transition<WorkflowTestObject> simple = compiledWkf.getTransition(s1, "a1");
+		Assertions.assertFalse(simple.isConditional());
+		Assertions.assertEquals(s2, simple.getArrivalStatus());
+		Assertions.assertEquals(List.of(guardOK), simple.getGuards());
+		Transition<WorkflowTestObject> conditional = compiledWkf.getTransition(s2, "a2");
+		Assertions.assertTrue(conditional.isConditional());
+		Assertions.assertEquals(s3, conditional.getArrivalStatusByResult(1));
+		Assertions.assertEquals(s4, conditional.getArrivalStatusByResult(2));
+		Assertions.assertNull(compiledWkf.getTransition(s1, "a2"));
+		Assertions.assertEquals(Set.of("a1"), compiledWkf.getAvailableActions(s1));
+		Assertions.assertEquals(Set.of("a2"), compiledWkf.getAvailableActions(s2));
+		Assertions.assertTrue(compiledWkf.getAvailableActions(s3).isEmpty());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Compiled workflow ordinals")
+	void testCompiledWorkflowOrdinals() {
+		Workflow<WorkflowTestObject> wkf = new Workflow<>("testCompiledWorkflowOrdinals");
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s3);
+		new ConditionalAction<WorkflowTestObject>(wkf, s2, "a2", new TestCondition(), conditionalRouting, s3);
+		CompiledWorkflow<WorkflowTestObject> compiledWkf = CompiledWorkflow.compile(wkf);
+		// The choice pseudo status of the conditional action doesn't get an ordinal.
+		Assertions.assertEquals(3, compiledWkf.getStatusCount());
+		Assertions.assertEquals(2, compiledWkf.getActionCount());
+		for (Status<WorkflowTestObject> status : List.of(s1, s2, s3)) {
+			int ordinal = compiledWkf.getStatusOrdinal(status.getName());
+			Assertions.assertEquals(status, compiledWkf.getStatus(ordinal));
+		}
+		int s1Ordinal = compiledWkf.getStatusOrdinal("s1");
+		int a1Ordinal = compiledWkf.getActionOrdinal("a1");
+		Transition<WorkflowTestObject> transition = compiledWkf.getTransition(s1Ordinal, a1Ordinal);
+		Assertions.assertSame(transition, compiledWkf.getTransition(s1, "a1"));
+		Assertions.assertEquals(compiledWkf.getStatusOrdinal("s2"), transition.getArrivalOrdinal());
+		Assertions.assertEquals(compiledWkf.getStatusOrdinal("s3"),
+				compiledWkf.getTransition(s2, "a2").getArrivalOrdinalByResult(1));
+		Assertions.assertEquals(-1, compiledWkf.getTransition(s2, "a2").getArrivalOrdinalByResult(2));
+		Assertions.assertEquals(-1, compiledWkf.getStatusOrdinal("unknown"));
+		Assertions.assertNull(compiledWkf.getTransition(s1Ordinal, compiledWkf.getActionOrdinal("a2")));
+
+		// A status with many actions: each pair of status and action gives its own
+		// transition
+		Workflow<WorkflowTestObject> hubWkf = new Workflow<>("testCompiledWorkflowOrdinalsHub");
+		Status<WorkflowTestObject> hub = new Status<>(hubWkf, "hub");
+		Status<WorkflowTestObject>[] spokes = new Status[200];
+		for (int i = 0; i < spokes.length; i++) {
+			spokes[i] = new Status<>(hubWkf, "spoke" + i);
+			new SimpleAction<WorkflowTestObject>(hubWkf, "to" + i, hub, spokes[i]);
+			new SimpleAction<WorkflowTestObject>(hubWkf, "back", spokes[i], hub);
+		}
+		CompiledWorkflow<WorkflowTestObject> compiledHub = CompiledWorkflow.compile(hubWkf);
+		int hubOrdinal = compiledHub.getStatusOrdinal("hub");
+		int backOrdinal = compiledHub.getActionOrdinal("back");
+		for (int i = 0; i < spokes.length; i++) {
+			int spokeOrdinal = compiledHub.getStatusOrdinal("spoke" + i);
+			int toOrdinal = compiledHub.getActionOrdinal("to" + i);
+			Assertions.assertEquals(spokeOrdinal, compiledHub.getTransition(hubOrdinal, toOrdinal).getArrivalOrdinal());
+			Assertions.assertEquals(hubOrdinal,
+					compiledHub.getTransition(spokeOrdinal, backOrdinal).getArrivalOrdinal());
+			Assertions.assertNull(compiledHub.getTransition(spokeOrdinal, toOrdinal));
+		}
+		Assertions.assertNull(compiledHub.getTransition(hubOrdinal, backOrdinal));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Frozen workflow")
+	void testFrozenWorkflow() {
+		Workflow<WorkflowTestObject> wkf = new Workflow<>("testFrozenWorkflow");
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		SimpleAction<WorkflowTestObject> a1 = new SimpleAction<>(wkf, "a1", s1, s2);
+		Assertions.assertNotSame(s1, wkf.getInitialStatus());
+		Assertions.assertNotSame(s1, a1.getDepartureStatus());
+		// A frozen clone is compiled, the workflow can still be modified
+		CompiledWorkflow.compile(wkf);
+		Assertions.assertFalse(wkf.isFrozen());
+		wkf.freeze();
+		Assertions.assertTrue(wkf.isFrozen());
+		Assertions.assertSame(s1, wkf.getInitialStatus());
+		Assertions.assertSame(s1, a1.getDepartureStatus());
+		Assertions.assertSame(s2, a1.getArrivalStatus());
+		Assertions.assertSame(s2, wkf.getTargetStatus(a1));
+		Assertions.assertSame(a1, wkf.getActionByDepartureStatusAndName(s1, "a1"));
+		assertThrows(UnsupportedOperationException.class, () -> wkf.getStatus().clear());
+		assertThrows(UnsupportedOperationException.class, () -> wkf.setDescription("description"));
+		assertThrows(UnsupportedOperationException.class, () -> new Status<>(wkf, "s3"));
+		assertThrows(UnsupportedOperationException.class, () -> s1.setName("s3"));
+		Workflow<WorkflowTestObject> clone = wkf.clone();
+		Assertions.assertFalse(clone.isFrozen());
+		assertDoesNotThrow(() -> clone.setDescription("description"));
+		// The clone has its own graph
+		Status<WorkflowTestObject> cloneS2 = clone.getStatus().stream().filter(s -> s.getName().equals("s2"))
+				.findAny().get();
+		new SimpleAction<>(clone, "a2", cloneS2, new Status<>(clone, "s3"));
+		Assertions.assertFalse(clone.isFinalStatus(cloneS2));
+		Assertions.assertTrue(wkf.isFinalStatus(s2));
+		Assertions.assertEquals(2, wkf.getStatus().size());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Apply junction action with same name from several status and a guard KO")
+	void testApplyJunctionActionSameNameWithGuardKO() {
+		String workflowName = "testApplyJunctionActionSameNameWithGuardKO";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s2b = new Status<>(wkf, "s2b");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		Status<WorkflowTestObject> s4 = new Status<>(wkf, "s4");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a1b", s1, s2b);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s3);
+		conditionalRouting.put(2, s4);
+		Set<SimpleAction<WorkflowTestObject>> actionsSet = new HashSet<>();
+		final String actionName = "a2";
+		actionsSet.add(new SimpleAction<WorkflowTestObject>(wkf, actionName, s2, new TestGuardKO()));
+		actionsSet.add(new SimpleAction<WorkflowTestObject>(wkf, actionName, s2b));
+		new ConditionalAction<WorkflowTestObject>(wkf, actionsSet, new TestCondition(), conditionalRouting, s3, s4);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		saveWorkflow(wkf);
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s2);
+		Assertions.assertEquals(s2, applyAction(obj, actionName).getStatus());
+		obj.setStatus(s2b);
+		Assertions.assertEquals(s4, applyAction(obj, actionName).getStatus());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action to a collection of objects - workflow resolved once per group")
+	void testApplyActionBulk() {
+		String workflowName = "testApplyActionBulk";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new TestProcessOKOne());
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s2, s3);
+		saveWorkflow(wkf);
+		List<WorkflowTestObject> objects = new ArrayList<>();
+		for (Status<WorkflowTestObject> status : List.of(s1, s2, s1, s3)) {
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(status);
+			objects.add(obj);
+		}
+		WorkflowManager.getWorkflowCache().invalidate(workflowName);
+		WorkflowManager.getWorkflowCache().resetStatistics();
+		List<TransitionResult<WorkflowTestObject>> results = assertDoesNotThrow(
+				() -> WorkflowManager.applyAction(objects, actionName));
+		Assertions.assertEquals(1, WorkflowManager.getWorkflowCache().getMissCount());
+		Assertions.assertEquals(0, WorkflowManager.getWorkflowCache().getHitCount());
+		Assertions.assertEquals(objects.size(), results.size());
+		Assertions.assertEquals(TransitionResult.Outcome.APPLIED, results.get(0).getOutcome());
+		Assertions.assertEquals(s2, results.get(0).getResult().getStatus());
+		Assertions.assertEquals("Wkf", results.get(0).getResult().getWorkflow());
+		Assertions.assertEquals(TransitionResult.Outcome.APPLIED, results.get(1).getOutcome());
+		Assertions.assertEquals(s3, results.get(1).getResult().getStatus());
+		Assertions.assertEquals(TransitionResult.Outcome.APPLIED, results.get(2).getOutcome());
+		Assertions.assertEquals(s2, results.get(2).getResult().getStatus());
+		Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(3).getOutcome());
+		Assertions.assertInstanceOf(TradistaFlowBusinessException.class, results.get(3).getError());
+		Assertions.assertSame(objects.get(3), results.get(3).getResult());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action to a collection of objects - failures don't abort the batch")
+	void testApplyActionBulkWithFailures() {
+		String workflowName = "testApplyActionBulkWithFailures";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new TestGuardKO());
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s2, s3, new TestProcessKORuntimeException());
+		saveWorkflow(wkf);
+		WorkflowTestObject objS1 = new WorkflowTestObject();
+		objS1.setWorkflow(workflowName);
+		objS1.setStatus(s1);
+		WorkflowTestObject objS2 = new WorkflowTestObject();
+		objS2.setWorkflow(workflowName);
+		objS2.setStatus(s2);
+		WorkflowTestObject objUnknownWkf = new WorkflowTestObject();
+		objUnknownWkf.setWorkflow("testApplyActionBulkUnknownWorkflow");
+		objUnknownWkf.setStatus(s1);
+		List<WorkflowTestObject> objects = Arrays.asList(objS1, null, objS2, objUnknownWkf);
+		List<TransitionResult<WorkflowTestObject>> results = assertDoesNotThrow(
+				() -> WorkflowManager.applyAction(objects, actionName));
+		Assertions.assertEquals(TransitionResult.Outcome.REJECTED, results.get(0).getOutcome());
+		Assertions.assertSame(objS1, results.get(0).getResult());
+		Assertions.assertEquals(s1, objS1.getStatus());
+		Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(1).getOutcome());
+		Assertions.assertInstanceOf(TradistaFlowBusinessException.class, results.get(1).getError());
+		Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(2).getOutcome());
+		Assertions.assertInstanceOf(TradistaFlowTechnicalException.class, results.get(2).getError());
+		Assertions.assertEquals(s2, objS2.getStatus());
+		Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(3).getOutcome());
+		Assertions.assertInstanceOf(TradistaFlowBusinessException.class, results.get(3).getError());
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowManager.applyAction((List<WorkflowTestObject>) null, actionName));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action to a collection of objects in parallel - results in input order")
+	void testBatchTransitionExecutor() {
+		String workflowName = "testBatchTransitionExecutor";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new TestGuardOK());
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3);
+		saveWorkflow(wkf);
+		List<WorkflowTestObject> objects = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(i % 5 == 0 ? s2 : s1);
+			objects.add(obj);
+		}
+		for (BatchTransitionExecutor executor : List.of(BatchTransitionExecutor.ofVirtualThreads(8),
+				BatchTransitionExecutor.ofForkJoinPool(4))) {
+			try (executor) {
+				BatchTransitionReport<WorkflowTestObject> report = assertDoesNotThrow(
+						() -> executor.execute(objects, actionName));
+				Assertions.assertEquals(objects.size(), report.getCount());
+				Assertions.assertEquals(40, report.getAppliedCount());
+				Assertions.assertEquals(0, report.getRejectedCount());
+				Assertions.assertEquals(10, report.getFailedCount());
+				for (int i = 0; i < objects.size(); i++) {
+					TransitionResult<WorkflowTestObject> result = report.getResults().get(i);
+					Assertions.assertSame(objects.get(i), result.getObject());
+					if (i % 5 == 0) {
+						Assertions.assertEquals(TransitionResult.Outcome.FAILED, result.getOutcome());
+					} else {
+						Assertions.assertEquals(s2, result.getResult().getStatus());
+					}
+				}
+				Assertions.assertTrue(report.getThroughput() > 0);
+			}
+		}
+
+		// An unexpected exception raised by an object is reported as a failure
+		WorkflowTestObject broken = new WorkflowTestObject() {
+			@Override
+			public String getWorkflow() {
+				throw new NullPointerException();
+			}
+		};
+		try (BatchTransitionExecutor executor = BatchTransitionExecutor.ofVirtualThreads(2)) {
+			BatchTransitionReport<WorkflowTestObject> report = assertDoesNotThrow(
+					() -> executor.execute(List.of(objects.get(1), broken), actionName));
+			Assertions.assertEquals(1, report.getAppliedCount());
+			Assertions.assertEquals(1, report.getFailedCount());
+			Assertions.assertInstanceOf(TradistaFlowTechnicalException.class, report.getResults().get(1).getError());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action asynchronously")
+	void testApplyActionAsync() {
+		String workflowName = "testApplyActionAsync";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		final String actionName = "a1";
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new TestProcessOKOne());
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s2, s3, new TestProcessKORuntimeException());
+		saveWorkflow(wkf);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s1);
+		WorkflowTestObject res = assertDoesNotThrow(() -> WorkflowManager.applyActionAsync(obj, actionName).get());
+		Assertions.assertEquals(s2, res.getStatus());
+		Assertions.assertEquals("Wkf", res.getWorkflow());
+		obj.setStatus(s2);
+		ExecutionException ee = assertThrows(ExecutionException.class,
+				() -> WorkflowManager.applyActionAsync(obj, actionName).get());
+		Assertions.assertInstanceOf(TradistaFlowTechnicalException.class, ee.getCause());
+		obj.setStatus(s3);
+		ee = assertThrows(ExecutionException.class, () -> WorkflowManager.applyActionAsync(obj, actionName).get());
+		Assertions.assertInstanceOf(TradistaFlowBusinessException.class, ee.getCause());
+		// An Error completes the future too
+		WorkflowTestObject broken = new WorkflowTestObject() {
+			@Override
+			public String getWorkflow() {
+				throw new AssertionError();
+			}
+		};
+		ee = assertThrows(ExecutionException.class,
+				() -> WorkflowManager.applyActionAsync(broken, actionName).get(10, TimeUnit.SECONDS));
+		Assertions.assertInstanceOf(AssertionError.class, ee.getCause());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Apply action with transition metrics")
+	void testApplyActionWithTransitionMetrics() {
+		String workflowName = "testApplyActionWithTransitionMetrics";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		final String actionName = "a1";
+		Guard<WorkflowTestObject> guard = new TestGuardOK();
+		Process<WorkflowTestObject> processOK = new TestProcessOKOne();
+		Process<WorkflowTestObject> processKO = new TestProcessKORuntimeException();
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s1, s2, new Guard[] { guard }, processOK);
+		new SimpleAction<WorkflowTestObject>(wkf, actionName, s2, s3, processKO);
+		saveWorkflow(wkf);
+		InMemoryTransitionMetrics metrics = new InMemoryTransitionMetrics();
+		WorkflowManager.setTransitionMetrics(metrics);
+		try {
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setStatus(s1);
+			obj.setWorkflow(workflowName);
+			applyAction(obj, actionName);
+			applyAction(obj, actionName);
+			obj.setStatus(s2);
+			assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.applyAction(obj, actionName));
+		} finally {
+			WorkflowManager.setTransitionMetrics(null);
+		}
+		StepMetrics lookup = metrics.getMetrics(workflowName, null, Step.WORKFLOW_LOOKUP, workflowName);
+		Assertions.assertEquals(3, lookup.getCount());
+		Assertions.assertEquals(0, lookup.getFailureCount());
+		StepMetrics guardMetrics = metrics.getMetrics(workflowName, actionName, Step.GUARD, guard.getName());
+		Assertions.assertEquals(2, guardMetrics.getCount());
+		Assertions.assertTrue(guardMetrics.getLatencies().getMax() > 0);
+		Assertions.assertEquals(2,
+				metrics.getMetrics(workflowName, actionName, Step.PROCESS, processOK.getName()).getCount());
+		StepMetrics processKOMetrics = metrics.getMetrics(workflowName, actionName, Step.PROCESS,
+				processKO.getName());
+		Assertions.assertEquals(1, processKOMetrics.getCount());
+		Assertions.assertEquals(1, processKOMetrics.getFailureCount());
+		Assertions.assertEquals(3, metrics.getMetrics(workflowName, actionName).size());
+	}
+
+	@Test
+	@DisplayName("Latency histogram percentiles")
+	void testLatencyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 10_000; i++) {
+			histogram.record(i * 1000);
+		}
+		Assertions.assertEquals(10_000, histogram.getCount());
+		Assertions.assertEquals(1000, histogram.getMin());
+		Assertions.assertEquals(10_000_000, histogram.getMax());
+		Assertions.assertEquals(5_000_500, histogram.getMean(), 0.1);
+		Assertions.assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 * 0.04);
+		Assertions.assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 * 0.04);
+		Assertions.assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+		histogram.reset();
+		Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Save several workflows in a single transaction")
+	void testSaveWorkflows() {
+		List<Workflow<WorkflowTestObject>> workflows = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			Workflow<WorkflowTestObject> wkf = new Workflow<>("testSaveWorkflows" + i);
+			Status<WorkflowTestObject> previous = new Status<>(wkf, "s0");
+			for (int j = 1; j < 20; j++) {
+				Status<WorkflowTestObject> status = new Status<>(wkf, "s" + j);
+				new SimpleAction<WorkflowTestObject>(wkf, "a" + j, previous, status, new Guard[] { new TestGuardOK() },
+						new TestProcessOKOne());
+				previous = status;
+			}
+			workflows.add(wkf);
+		}
+		WorkflowSaveReport report = assertDoesNotThrow(() -> WorkflowManager.saveWorkflows(workflows));
+		Assertions.assertEquals(2, report.getWorkflowIds().size());
+		Assertions.assertEquals(workflows.get(0).getId(), report.getWorkflowIds().get("testSaveWorkflows0"));
+		Assertions.assertEquals(50, report.getJdbcBatchSize());
+		Assertions.assertTrue(report.getStatementCountByType().get("INSERT") > 0, report.toString());
+		// Ids are allocated by blocks, the sequences are queried only once per
+		// entity hierarchy
+		Assertions.assertTrue(report.getStatementCountByType().getOrDefault("VALUES", 0L) <= 4, report.toString());
+		Workflow<WorkflowTestObject> loaded = loadWorkflow("testSaveWorkflows1");
+		Assertions.assertEquals(20, loaded.getStatus().size());
+		Assertions.assertTrue(loaded.isValid());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Save several workflows, one of them being invalid")
+	void testSaveWorkflowsInvalid() {
+		Workflow<WorkflowTestObject> validWkf = new Workflow<>("testSaveWorkflowsInvalidValid");
+		new SimpleAction<WorkflowTestObject>(validWkf, "a1", new Status<>(validWkf, "s1"),
+				new Status<>(validWkf, "s2"));
+		Workflow<WorkflowTestObject> invalidWkf = new Workflow<>("testSaveWorkflowsInvalid");
+		new Status<>(invalidWkf, "s1");
+		new Status<>(invalidWkf, "s2");
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowManager.saveWorkflows(List.of(validWkf, invalidWkf)));
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowManager.getWorkflowByName("testSaveWorkflowsInvalidValid"));
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowManager.saveWorkflows(List.of(validWkf, validWkf)));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Save a conditional workflow - ids allocated by blocks")
+	void testSaveWorkflowPooledIds() {
+		String workflowName = "testSaveWorkflowPooledIds";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		Status<WorkflowTestObject>[] arrivalStatuses = new Status[5];
+		for (int i = 0; i < arrivalStatuses.length; i++) {
+			arrivalStatuses[i] = new Status<>(wkf, "s" + (i + 2));
+			conditionalRouting.put(i + 1, arrivalStatuses[i]);
+		}
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "a1", new TestCondition(), conditionalRouting,
+				arrivalStatuses);
+		WorkflowSaveReport report = assertDoesNotThrow(() -> WorkflowManager.saveWorkflows(List.of(wkf)));
+		// A dozen of entities, a single block of ids (two sequence calls when the
+		// block is initialized)
+		Assertions.assertTrue(report.getStatementCountByType().getOrDefault("VALUES", 0L) <= 2, report.toString());
+		Assertions.assertNotNull(s1.getId());
+		Assertions.assertNotNull(wkf.getId());
+		Assertions.assertNotEquals(s1.getId(), wkf.getId());
+	}
+
+	@Test
+	@DisplayName("Shared sequence created above the existing ids - no id collision")
+	void testSharedSequenceMigration() {
+		// A separate database, in which ids were already allocated
+		Map<String, String> properties = new HashMap<>(Map.of("jakarta.persistence.jdbc.url",
+				"jdbc:derby:memory:TradistaFlowMigration;create=true", "hibernate.cache.use_second_level_cache",
+				"false", "hibernate.cache.use_query_cache", "false"));
+		long maxId = 0;
+		try (EntityManagerFactory factory = Persistence
+				.createEntityManagerFactory(JpaWorkflowRepository.DEFAULT_PERSISTENCE_UNIT_NAME, properties)) {
+			new JpaWorkflowRepository(factory).saveWorkflow(migrationWorkflow("testSharedSequenceMigration1"));
+			try (EntityManager entityManager = factory.createEntityManager()) {
+				for (Class<?> cls : List.of(Workflow.class, Status.class, Action.class, Guard.class, Condition.class,
+						Process.class)) {
+					Long max = entityManager
+							.createQuery("SELECT MAX(o.id) FROM " + cls.getSimpleName() + " o", Long.class)
+							.getSingleResult();
+					maxId = Math.max(maxId, max != null ? max : 0);
+				}
+				// Migration: the sequence is created again, as documented
+				entityManager.getTransaction().begin();
+				entityManager.createNativeQuery("DROP SEQUENCE " + TradistaFlowObject.ID_SEQUENCE + " RESTRICT")
+						.executeUpdate();
+				entityManager.createNativeQuery(String.format("CREATE SEQUENCE %s START WITH %d INCREMENT BY %d",
+						TradistaFlowObject.ID_SEQUENCE, maxId + TradistaFlowObject.ID_ALLOCATION_SIZE,
+						TradistaFlowObject.ID_ALLOCATION_SIZE)).executeUpdate();
+				entityManager.getTransaction().commit();
+			}
+		}
+		Assertions.assertTrue(maxId > 0);
+		// After a restart, the new ids are above the existing ones
+		properties.put("jakarta.persistence.schema-generation.database.action", "none");
+		try (EntityManagerFactory factory = Persistence
+				.createEntityManagerFactory(JpaWorkflowRepository.DEFAULT_PERSISTENCE_UNIT_NAME, properties)) {
+			Workflow<WorkflowTestObject> wkf = migrationWorkflow("testSharedSequenceMigration2");
+			new JpaWorkflowRepository(factory).saveWorkflow(wkf);
+			Assertions.assertTrue(wkf.getId() > maxId);
+			for (Status<WorkflowTestObject> status : wkf.getStatus()) {
+				Assertions.assertTrue(status.getId() > maxId);
+			}
+		}
+	}
+
+	private Workflow<WorkflowTestObject> migrationWorkflow(String workflowName) {
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		return wkf;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Get a workflow of 100 statuses - bounded number of statements")
+	void testGetWorkflowStatementCount() {
+		String workflowName = "testGetWorkflowStatementCount";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject>[] statuses = new Status[100];
+		for (int i = 0; i < statuses.length; i++) {
+			statuses[i] = new Status<>(wkf, "s" + i);
+		}
+		for (int i = 0; i < statuses.length - 1; i++) {
+			new SimpleAction<WorkflowTestObject>(wkf, "a" + i, statuses[i], statuses[i + 1],
+					new Guard[] { new TestGuardOK() }, new TestProcessOKOne());
+		}
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, statuses[2]);
+		conditionalRouting.put(2, statuses[3]);
+		new ConditionalAction<WorkflowTestObject>(wkf, statuses[1], "c1", new TestCondition(), conditionalRouting,
+				statuses[2], statuses[3]);
+		saveWorkflow(wkf);
+		Statistics statistics = entityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Workflow<WorkflowTestObject> loaded = loadWorkflow(workflowName);
+		long statementCount = statistics.getPrepareStatementCount();
+		// One statement for the workflow and its statuses, one for the actions
+		Assertions.assertEquals(2, statementCount);
+		Assertions.assertEquals(wkf.getStatus().size(), loaded.getStatus().size());
+		Assertions.assertEquals(wkf.getActions().size(), loaded.getActions().size());
+		Assertions.assertTrue(loaded.isValid());
+		CompiledWorkflow<WorkflowTestObject> compiled = CompiledWorkflow.compile(loaded);
+		Transition<WorkflowTestObject> transition = compiled.getTransition(statuses[10], "a10");
+		Assertions.assertEquals(1, transition.getGuards().size());
+		Assertions.assertEquals(1, transition.getProcesses(transition.getArrivalOrdinal()).size());
+		Assertions.assertTrue(compiled.getTransition(statuses[1], "c1").isConditional());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Get a workflow twice - second time from the second-level and query caches")
+	void testGetWorkflowSecondLevelCache() {
+		String workflowName = "testGetWorkflowSecondLevelCache";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		saveWorkflow(wkf);
+		Statistics statistics = entityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		loadWorkflow(workflowName);
+		statistics.clear();
+		Workflow<WorkflowTestObject> loaded = loadWorkflow(workflowName);
+		Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(1, statistics.getQueryCacheHitCount());
+		Assertions.assertEquals(2, loaded.getStatus().size());
+		Assertions.assertEquals(1, ((SimpleAction<WorkflowTestObject>) loaded.getActions().iterator().next())
+				.getProcesses().size());
+		// Saving a workflow doesn't evict the other cached entities of the
+		// persistence unit (the journal entries are cached by the test persistence
+		// unit, as application entities)
+		TransitionJournalEntry entry = new TransitionJournalEntry(workflowName, workflowName, "s1", "a1", "s2",
+				Instant.now(), 0);
+		try (EntityManager entityManager = entityManagerFactory().createEntityManager()) {
+			entityManager.getTransaction().begin();
+			entityManager.persist(entry);
+			entityManager.getTransaction().commit();
+		}
+		try (EntityManager entityManager = entityManagerFactory().createEntityManager()) {
+			entityManager.find(TransitionJournalEntry.class, entry.getId());
+		}
+		Assertions.assertTrue(entityManagerFactory().getCache().contains(TransitionJournalEntry.class, entry.getId()));
+		Workflow<WorkflowTestObject> other = new Workflow<>(workflowName + "Other");
+		new SimpleAction<WorkflowTestObject>(other, "a1", new Status<>(other, "s1"), new Status<>(other, "s2"));
+		saveWorkflow(other);
+		Assertions.assertTrue(entityManagerFactory().getCache().contains(TransitionJournalEntry.class, entry.getId()));
+		Assertions.assertFalse(entityManagerFactory().getCache().contains(Workflow.class, loaded.getId()));
+		// Deleting the workflow evicts it from the caches
+		assertDoesNotThrow(() -> WorkflowManager.deleteWorkflow(wkf.getId()));
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.getWorkflowByName(workflowName));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Get available actions by workflow and status names")
+	void testGetAvailableActionsByNames() {
+		String workflowName = "testGetAvailableActionsByNames";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s2b = new Status<>(wkf, "s2b");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		Status<WorkflowTestObject> s4 = new Status<>(wkf, "s4");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a1b", s1, s2b);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s3);
+		conditionalRouting.put(2, s4);
+		Set<SimpleAction<WorkflowTestObject>> actionsSet = new HashSet<>();
+		actionsSet.add(new SimpleAction<WorkflowTestObject>(wkf, "a2", s2));
+		actionsSet.add(new SimpleAction<WorkflowTestObject>(wkf, "a2", s2b));
+		new ConditionalAction<WorkflowTestObject>(wkf, actionsSet, new TestCondition(), conditionalRouting, s3, s4);
+		new SimpleAction<WorkflowTestObject>(wkf, "a3", s2, s3);
+		saveWorkflow(wkf);
+		WorkflowManager.getWorkflowCache().invalidate(workflowName);
+		Map<String, Set<String>> expected = new HashMap<>();
+		for (Status<WorkflowTestObject> status : List.of(s1, s2, s2b, s3, s4)) {
+			Set<String> actions = wkf.getAvailableActionsFromStatus(status);
+			expected.put(status.getName(), actions != null ? actions : Set.of());
+		}
+		Assertions.assertEquals(Set.of("a2", "a3"), expected.get("s2"));
+		// From the database, each call is a workflow cache miss
+		WorkflowCache cache = WorkflowManager.getWorkflowCache();
+		long misses = cache.getMissCount();
+		for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+			Assertions.assertEquals(entry.getValue(), assertDoesNotThrow(
+					() -> WorkflowManager.getAvailableActions(workflowName, entry.getKey())));
+		}
+		Assertions.assertEquals(misses + expected.size(), cache.getMissCount());
+		// From the workflow cache, without any statement
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s1);
+		applyAction(obj, "a1");
+		Statistics statistics = entityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+			Assertions.assertEquals(entry.getValue(), assertDoesNotThrow(
+					() -> WorkflowManager.getAvailableActions(workflowName, entry.getKey())));
+		}
+		Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(Set.of(),
+				assertDoesNotThrow(() -> WorkflowManager.getAvailableActions(workflowName, "s5")));
+		Assertions.assertEquals(Set.of(), assertDoesNotThrow(
+				() -> WorkflowManager.getAvailableActions("testGetAvailableActionsByNamesUnknown", "s1")));
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.getAvailableActions(workflowName, " "));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Stream all workflows and get their summaries")
+	void testStreamAllWorkflowsAndSummaries() {
+		String workflowName = "testStreamAllWorkflowsAndSummaries";
+		for (int i = 0; i < 3; i++) {
+			Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName + i);
+			Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+			Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+			Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+			Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+			conditionalRouting.put(1, s2);
+			conditionalRouting.put(2, s3);
+			new ConditionalAction<WorkflowTestObject>(wkf, s1, "a1", new TestCondition(), conditionalRouting, s2, s3);
+			saveWorkflow(wkf);
+		}
+		List<Workflow<WorkflowTestObject>> workflows;
+		try (Stream<Workflow<WorkflowTestObject>> stream = WorkflowManager.streamAllWorkflows(2)) {
+			workflows = stream.filter(w -> w.getName().startsWith(workflowName)).toList();
+		}
+		Assertions.assertEquals(3, workflows.size());
+		for (int i = 0; i < 3; i++) {
+			Workflow<WorkflowTestObject> wkf = workflows.get(i);
+			Assertions.assertEquals(workflowName + i, wkf.getName());
+			Assertions.assertTrue(wkf.isValid());
+			Assertions.assertEquals(1, wkf.getActions().size());
+		}
+		List<WorkflowSummary> summaries = WorkflowManager.getAllWorkflowSummaries().stream()
+				.filter(w -> w.getName().startsWith(workflowName)).toList();
+		Assertions.assertEquals(3, summaries.size());
+		for (int i = 0; i < 3; i++) {
+			WorkflowSummary summary = summaries.get(i);
+			Assertions.assertEquals(workflowName + i, summary.getName());
+			Assertions.assertEquals(workflows.get(i).getId(), summary.getId());
+			// The choice pseudo status is not counted
+			Assertions.assertEquals(3, summary.getStatusCount());
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Update a workflow - only the differences are written")
+	void testUpdateWorkflow() {
+		String workflowName = "testUpdateWorkflow";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(2, s3);
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "c1", new TestCondition(), conditionalRouting, s2, s3);
+		saveWorkflow(wkf);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s2);
+		obj = (WorkflowTestObject) applyAction(obj, "a2");
+		Assertions.assertEquals(s3, obj.getStatus());
+
+		// A status and an action are added to the loaded workflow
+		Workflow<WorkflowTestObject> loaded = loadWorkflow(workflowName);
+		long version = loaded.getVersion();
+		Status<WorkflowTestObject> loadedS3 = loaded.getStatus().stream().filter(s -> s.getName().equals("s3"))
+				.findAny().get();
+		Status<WorkflowTestObject> s4 = new Status<>(loaded, "s4");
+		new SimpleAction<WorkflowTestObject>(loaded, "a3", loadedS3, s4);
+		Statistics statistics = entityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		long newVersion = assertDoesNotThrow(() -> WorkflowManager.updateWorkflow(loaded));
+		Assertions.assertEquals(version + 1, newVersion);
+		Assertions.assertEquals(2, statistics.getEntityInsertCount());
+		Assertions.assertEquals(0, statistics.getEntityDeleteCount());
+		obj = (WorkflowTestObject) applyAction(obj, "a3");
+		Assertions.assertEquals(s4, obj.getStatus());
+
+		// The loaded workflow is now stale
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.updateWorkflow(loaded));
+
+		// The new action and status are removed, the process of a1 is replaced
+		Workflow<WorkflowTestObject> newWkf = new Workflow<>(workflowName);
+		s1 = new Status<>(newWkf, "s1");
+		s2 = new Status<>(newWkf, "s2");
+		s3 = new Status<>(newWkf, "s3");
+		new SimpleAction<WorkflowTestObject>(newWkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKTwo());
+		new SimpleAction<WorkflowTestObject>(newWkf, "a2", s2, s3);
+		conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(2, s3);
+		new ConditionalAction<WorkflowTestObject>(newWkf, s1, "c1", new TestCondition(), conditionalRouting, s2,
+				s3);
+		statistics.clear();
+		newVersion = assertDoesNotThrow(() -> WorkflowManager.updateWorkflow(newWkf));
+		Assertions.assertEquals(version + 2, newVersion);
+		// a3, s4 and the process of a1 are deleted, the new process of a1 is inserted
+		Assertions.assertEquals(3, statistics.getEntityDeleteCount());
+		Assertions.assertEquals(1, statistics.getEntityInsertCount());
+		Workflow<WorkflowTestObject> updated = loadWorkflow(workflowName);
+		Assertions.assertEquals(newVersion, updated.getVersion());
+		Assertions.assertTrue(updated.isValid());
+		Assertions.assertEquals(newWkf.getStatus().size(), updated.getStatus().size());
+		Assertions.assertEquals(newWkf.getActions().size(), updated.getActions().size());
+		SimpleAction<WorkflowTestObject> a1 = (SimpleAction<WorkflowTestObject>) updated
+				.getActionByDepartureStatusAndName(s1, "a1");
+		Assertions.assertEquals(Set.of(new TestProcessOKTwo()), a1.getProcesses());
+		Assertions.assertEquals(Set.of(new TestGuardOK()), a1.getGuards());
+		Assertions.assertEquals(Set.of("a1", "c1"), updated.getAvailableActionsFromStatus(s1));
+		obj.setStatus(s1);
+		obj = (WorkflowTestObject) applyAction(obj, "c1");
+		Assertions.assertEquals(s2, obj.getStatus());
+	}
+
+	@Test
+	@DisplayName("Record the applied transitions in the transition journal")
+	void testTransitionJournal() {
+		String workflowName = "testTransitionJournal";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3, new TestGuardKO());
+		saveWorkflow(wkf);
+		try (TransitionJournal journal = new TransitionJournal(entityManagerFactory(), 10,
+				Duration.ofSeconds(30), TransitionJournal.Durability.ASYNC, 100)) {
+			WorkflowManager.setTransitionJournal(journal);
+			for (int i = 0; i < 25; i++) {
+				WorkflowTestObject obj = new WorkflowTestObject();
+				obj.setWorkflow(workflowName);
+				obj.setStatus(s1);
+				obj.setObjectKey(workflowName + i);
+				obj = (WorkflowTestObject) applyAction(obj, "a1");
+				// Rejected by the guard, not recorded
+				applyAction(obj, "a2");
+			}
+			// Two full batches are written, the last entries wait for the flush
+			journal.flush();
+			Assertions.assertEquals(25, journal.getWrittenCount());
+			Assertions.assertEquals(0, journal.getFailedCount());
+			List<TransitionJournalEntry> history = journal.getHistory(workflowName + 3);
+			Assertions.assertEquals(1, history.size());
+			TransitionJournalEntry entry = history.get(0);
+			Assertions.assertEquals(workflowName, entry.getWorkflowName());
+			Assertions.assertEquals("s1", entry.getFromStatus());
+			Assertions.assertEquals("a1", entry.getActionName());
+			Assertions.assertEquals("s2", entry.getToStatus());
+			Assertions.assertNotNull(entry.getTransitionTime());
+			Assertions.assertTrue(entry.getDurationNanos() > 0);
+
+			// The queued entries are written when the journal is closed
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			obj.setObjectKey(workflowName + "Closed");
+			applyAction(obj, "a1");
+			Assertions.assertEquals(1, journal.getPendingCount());
+			journal.close();
+			Assertions.assertEquals(1, journal.getHistory(workflowName + "Closed").size());
+			assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+		} finally {
+			WorkflowManager.setTransitionJournal(null);
+		}
+
+		// With the SYNC durability, the entries are written when the transition is
+		// applied
+		try (TransitionJournal journal = new TransitionJournal(entityManagerFactory(), 10,
+				Duration.ofSeconds(30), TransitionJournal.Durability.SYNC, 100)) {
+			WorkflowManager.setTransitionJournal(journal);
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			obj.setObjectKey(workflowName + "Sync");
+			applyAction(obj, "a1");
+			Assertions.assertEquals(1, journal.getHistory(workflowName + "Sync").size());
+		} finally {
+			WorkflowManager.setTransitionJournal(null);
+		}
+
+		// An Error stops the writer: the waiting transition fails, then the journal
+		// rejects the next transitions instead of blocking them
+		EntityManagerFactory brokenFactory = (EntityManagerFactory) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] { EntityManagerFactory.class }, (_, _, _) -> {
+					throw new AssertionError();
+				});
+		try (TransitionJournal journal = new TransitionJournal(brokenFactory, 10, Duration.ofSeconds(30),
+				TransitionJournal.Durability.SYNC, 1)) {
+			WorkflowManager.setTransitionJournal(journal);
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			obj.setObjectKey(workflowName + "Broken");
+			assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+			Assertions.assertTrue(journal.isBroken());
+			Assertions.assertEquals(1, journal.getFailedCount());
+			Assertions.assertEquals(0, journal.getPendingCount());
+			Assertions.assertInstanceOf(AssertionError.class, journal.getLastError().getCause().getCause());
+			for (int i = 0; i < 3; i++) {
+				assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+			}
+			Assertions.assertEquals(1, journal.getFailedCount());
+		} finally {
+			WorkflowManager.setTransitionJournal(null);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Apply actions using workflows read from a memory-mapped workflow store")
+	void testMappedWorkflowStore(@TempDir Path directory) throws TradistaFlowBusinessException {
+		String workflowName = "testMappedWorkflowStore/é";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(2, s3);
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "c1", new TestCondition(), conditionalRouting, s2, s3);
+		MappedWorkflowStore store = new MappedWorkflowStore(directory);
+		store.write(CompiledWorkflow.compile(wkf));
+		Assertions.assertEquals(Set.of(workflowName), store.getWorkflowNames());
+
+		// The stored workflow is read without creating entities
+		MappedWorkflow mapped = store.open(workflowName);
+		Assertions.assertEquals(workflowName, mapped.getName());
+		Assertions.assertEquals(3, mapped.getStatusCount());
+		Assertions.assertEquals(-1, mapped.getStatusOrdinal("s4"));
+		Assertions.assertEquals(Set.of("a1", "c1"), mapped.getAvailableActions("s1"));
+		Assertions.assertEquals(Set.of(), mapped.getAvailableActions("s2"));
+		int s1Ordinal = mapped.getStatusOrdinal("s1");
+		int a1 = mapped.getTransition(s1Ordinal, mapped.getActionOrdinal("a1"));
+		Assertions.assertFalse(mapped.isConditional(a1));
+		Assertions.assertEquals("s2", mapped.getStatusName(mapped.getTransitionArrivalOrdinal(a1)));
+		Assertions.assertEquals(List.of(TestGuardOK.class.getName()), mapped.getTransitionGuards(a1));
+		Assertions.assertEquals(List.of(TestProcessOKOne.class.getName()), mapped.getTransitionProcesses(a1));
+		int c1 = mapped.getTransition(s1Ordinal, mapped.getActionOrdinal("c1"));
+		Assertions.assertTrue(mapped.isConditional(c1));
+		Assertions.assertEquals(TestCondition.class.getName(), mapped.getTransitionCondition(c1));
+		Assertions.assertEquals(Map.of(1, mapped.getStatusOrdinal("s2"), 2, mapped.getStatusOrdinal("s3")),
+				mapped.getTransitionRouting(c1));
+		Assertions.assertEquals(-1, mapped.getTransition(mapped.getStatusOrdinal("s2"), mapped.getActionOrdinal("a1")));
+
+		// The WorkflowManager reads the workflow from the store, it is not in the
+		// database
+		try {
+			WorkflowManager.setWorkflowStore(store);
+			WorkflowCache cache = WorkflowManager.getWorkflowCache();
+			long misses = cache.getMissCount();
+			long hits = cache.getHitCount();
+			Assertions.assertEquals(Set.of("a1", "c1"), WorkflowManager.getAvailableActions(workflowName, "s1"));
+			// The stored workflow is compiled and cached at the first call only
+			Assertions.assertTrue(cache.getAll().containsKey(workflowName));
+			Assertions.assertEquals(Set.of(), WorkflowManager.getAvailableActions(workflowName, "s2"));
+			Assertions.assertEquals(misses + 1, cache.getMissCount());
+			Assertions.assertEquals(hits + 1, cache.getHitCount());
+			Assertions.assertEquals(Set.of(), WorkflowManager.getAvailableActions("testMappedWorkflowStoreKO", "s1"));
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			WorkflowTestObject res = (WorkflowTestObject) applyAction(obj, "c1");
+			Assertions.assertEquals(s2, res.getStatus());
+			res = (WorkflowTestObject) applyAction(obj, "a1");
+			Assertions.assertEquals(s2, res.getStatus());
+			// TestProcessOKOne was executed
+			Assertions.assertEquals("Wkf", res.getWorkflow());
+			// The workflow is not in the repository but it is not removed from the
+			// cache, the store is the source of the workflows
+			CompiledWorkflow<? extends WorkflowObject> cached = WorkflowManager.getWorkflowCache()
+					.getIfPresent(workflowName);
+			Assertions.assertNotNull(cached);
+			Assertions.assertEquals(0, WorkflowManager.refreshWorkflowCache());
+			Assertions.assertSame(cached, WorkflowManager.getWorkflowCache().getIfPresent(workflowName));
+			obj.setWorkflow("testMappedWorkflowStoreKO");
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+		} finally {
+			WorkflowManager.setWorkflowStore(null);
+		}
+		Assertions.assertTrue(store.delete(workflowName));
+		assertThrows(TradistaFlowBusinessException.class, () -> store.open(workflowName));
+	}
+
+	@Test
+	@DisplayName("Workflow repository")
+	void testWorkflowRepository() throws TradistaFlowBusinessException {
+		// The default repository is the JPA one, its entity manager factory is
+		// created when first needed
+		WorkflowRepository defaultRepository = WorkflowManager.getWorkflowRepository();
+		Assertions.assertInstanceOf(JpaWorkflowRepository.class, defaultRepository);
+		JpaWorkflowRepository lazyRepository = new JpaWorkflowRepository("testWorkflowRepositoryUnit");
+		Assertions.assertFalse(lazyRepository.isInitialized());
+		assertThrows(PersistenceException.class, lazyRepository::getEntityManagerFactory);
+		assertThrows(IllegalArgumentException.class, () -> new JpaWorkflowRepository((String) null));
+
+		String workflowName = "testWorkflowRepository";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new TestProcessOKOne());
+		try {
+			WorkflowManager.setWorkflowRepository(new InMemoryWorkflowRepository());
+			long id = WorkflowManager.saveWorkflow(wkf);
+			Assertions.assertEquals(List.of(workflowName),
+					WorkflowManager.getAllWorkflowSummaries().stream().map(WorkflowSummary::getName).toList());
+			Assertions.assertEquals(Set.of("s1", "s2"), WorkflowManager.getStatusesByWorkflowNames(workflowName));
+			Assertions.assertEquals(Set.of("a1"), WorkflowManager.getAvailableActions(workflowName, "s1"));
+			Assertions.assertEquals(Set.of(), WorkflowManager.getAvailableActions("testWorkflowRepositoryKO", "s1"));
+			try (Stream<Workflow<WorkflowTestObject>> workflows = WorkflowManager.streamAllWorkflows()) {
+				Assertions.assertEquals(List.of(workflowName), workflows.map(Workflow::getName).toList());
+			}
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			WorkflowTestObject res = WorkflowManager.applyAction(obj, "a1");
+			Assertions.assertEquals(s2, res.getStatus());
+			WorkflowManager.deleteWorkflow(id);
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.getWorkflowByName(workflowName));
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+		} finally {
+			WorkflowManager.setWorkflowRepository(defaultRepository);
+		}
+		// The workflow was not saved in the database
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.getWorkflowByName(workflowName));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Workflow codec")
+	void testWorkflowCodec() throws TradistaFlowBusinessException, IOException {
+		String workflowName = "testWorkflowCodec";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		wkf.setDescription("Exported workflow");
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		Status<WorkflowTestObject> s4 = new Status<>(wkf, "s4");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s4, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(-2, s3);
+		Map<Status, Set<Process>> conditionalProcesses = new HashMap<Status, Set<Process>>();
+		conditionalProcesses.put(s2, Set.of(new TestProcessOKTwo()));
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "c1", new TestCondition(), conditionalRouting,
+				new Guard[] { new TestReadOnlyGuardOK() }, conditionalProcesses, s2, s3);
+		WorkflowCodec codec = new WorkflowCodec();
+		ByteBuffer encoded = codec.encode(wkf);
+
+		// The decoded workflow is a new workflow, that can be saved and used
+		Workflow<WorkflowTestObject> decoded = codec.decode(encoded.duplicate());
+		Assertions.assertNull(decoded.getId());
+		Assertions.assertEquals(workflowName, decoded.getName());
+		Assertions.assertEquals("Exported workflow", decoded.getDescription());
+		Assertions.assertTrue(decoded.isValid());
+		Status<WorkflowTestObject> decodedS1 = decoded.getStatus().stream().filter(s -> s.getName().equals("s1"))
+				.findFirst().get();
+		Assertions.assertEquals(Set.of("a1", "c1"), decoded.getAvailableActionsFromStatus(decodedS1));
+		ConditionalAction<WorkflowTestObject> c1 = (ConditionalAction<WorkflowTestObject>) decoded.getActions()
+				.stream().filter(a -> a instanceof ConditionalAction).findFirst().get();
+		Assertions.assertEquals(Set.of(TestReadOnlyGuardOK.class),
+				c1.getGuards().stream().map(Object::getClass).collect(Collectors.toSet()));
+		Assertions.assertEquals(s3, c1.getArrivalStatusByResult(-2));
+		Assertions.assertEquals(Set.of(TestProcessOKTwo.class),
+				c1.getProcessesByStatusName("s2").stream().map(Object::getClass).collect(Collectors.toSet()));
+		WorkflowManager.saveWorkflow(decoded);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s1);
+		WorkflowTestObject res = WorkflowManager.applyAction(obj, "c1");
+		Assertions.assertEquals(s2, res.getStatus());
+		// TestProcessOKTwo was executed
+		Assertions.assertEquals("Wkf", res.getWorkflow());
+		res = WorkflowManager.applyAction(obj, "a1");
+		Assertions.assertEquals(s4, res.getStatus());
+
+		// Several workflows can be written in a channel
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(bytes)) {
+			codec.encode(List.of(wkf, WorkflowManager.getWorkflowByName(workflowName)), channel);
+		}
+		List<Workflow<WorkflowTestObject>> workflows = codec
+				.decodeAll(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+		Assertions.assertEquals(2, workflows.size());
+		for (Workflow<WorkflowTestObject> workflow : workflows) {
+			Assertions.assertEquals(Set.of("s1", "s2", "s3", "s4"), workflow.getStatus().stream()
+					.filter(s -> !(s instanceof PseudoStatus)).map(Status::getName).collect(Collectors.toSet()));
+		}
+
+		// The encoded workflow is at least 10 times smaller than the serialized one.
+		// The workflow has no guards or processes: those of the tests are lambdas,
+		// which cannot be serialized.
+		Workflow<WorkflowTestObject> chain = new Workflow<>("testWorkflowCodecChain");
+		Status<WorkflowTestObject> previous = new Status<>(chain, "s0");
+		for (int i = 1; i < 100; i++) {
+			Status<WorkflowTestObject> next = new Status<>(chain, "s" + i);
+			new SimpleAction<WorkflowTestObject>(chain, "next", previous, next);
+			previous = next;
+		}
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+			out.writeObject(chain);
+		}
+		Assertions.assertTrue(codec.encode(chain).remaining() * 10 < serialized.size());
+
+		// Invalid buffers
+		ByteBuffer buffer = ByteBuffer.allocate(encoded.remaining() - 1);
+		assertThrows(BufferOverflowException.class, () -> codec.encode(wkf, buffer));
+		Assertions.assertEquals(0, buffer.position());
+		ByteBuffer truncated = encoded.duplicate().limit(encoded.limit() - 1);
+		assertThrows(TradistaFlowTechnicalException.class, () -> codec.decode(truncated));
+		ByteBuffer unsupported = codec.encode(wkf).putShort(Integer.BYTES, (short) (WorkflowCodec.FORMAT_VERSION + 1));
+		assertThrows(TradistaFlowTechnicalException.class, () -> codec.decode(unsupported));
+		assertThrows(TradistaFlowTechnicalException.class,
+				() -> codec.decode(ByteBuffer.allocate(WorkflowCodec.HEADER_SIZE)));
+		Assertions.assertNull(codec.decode(Channels.newChannel(new ByteArrayInputStream(new byte[0]))));
+	}
+
 	private void saveWorkflow(Workflow<WorkflowTestObject> wkf) {
 		try {
 			WorkflowManager.saveWorkflow(wkf);
@@ -950,4 +2182,466 @@ public class WorkflowManagerTest {
 		return obj;
 	}
 
-}
\ No newline at end of file
+	@Test
+	@DisplayName("Workflow cache snapshot - loaded at startup, then validated against the repository")
+	void testWorkflowCacheSnapshot(@TempDir Path directory) throws TradistaFlowBusinessException, IOException {
+		String workflowName = "testWorkflowCacheSnapshot";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2, new Guard[] { new TestGuardOK() },
+				new TestProcessOKOne());
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(2, s3);
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "c1", new TestCondition(), conditionalRouting, s2, s3);
+		saveWorkflow(wkf);
+		long version = loadWorkflow(workflowName).getVersion();
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s1);
+		applyAction(obj, "a1");
+
+		// The cached workflows are written with their versions
+		Path file = directory.resolve("workflows.snapshot");
+		Assertions.assertTrue(WorkflowManager.writeSnapshot(file) >= 1);
+		CompiledWorkflow<? extends WorkflowObject> snapshotWorkflow = WorkflowSnapshot.read(file).stream()
+				.filter(w -> w.getName().equals(workflowName)).findAny().get();
+		Assertions.assertEquals(version, snapshotWorkflow.getVersion());
+
+		// At startup, the workflows are read from the snapshot, the up-to-date ones
+		// are kept
+		WorkflowCache cache = WorkflowManager.getWorkflowCache();
+		cache.invalidateAll();
+		WorkflowManager.loadSnapshot(file).join();
+		CompiledWorkflow<? extends WorkflowObject> cached = cache.getIfPresent(workflowName);
+		Assertions.assertNotNull(cached);
+		Assertions.assertEquals(version, cached.getVersion());
+		cache.resetStatistics();
+		WorkflowTestObject res = (WorkflowTestObject) applyAction(obj, "c1");
+		Assertions.assertEquals(s2, res.getStatus());
+		res = (WorkflowTestObject) applyAction(obj, "a1");
+		Assertions.assertEquals(s2, res.getStatus());
+		// TestProcessOKOne was executed
+		Assertions.assertEquals("Wkf", res.getWorkflow());
+		Assertions.assertEquals(0, cache.getMissCount());
+		Assertions.assertSame(cached, cache.getIfPresent(workflowName));
+
+		// The workflow is updated, the snapshot is now stale: its workflow is
+		// replaced by the new version
+		Workflow<WorkflowTestObject> loaded = loadWorkflow(workflowName);
+		Status<WorkflowTestObject> loadedS3 = loaded.getStatus().stream().filter(s -> s.getName().equals("s3"))
+				.findAny().get();
+		new SimpleAction<WorkflowTestObject>(loaded, "a2", loadedS3, new Status<>(loaded, "s4"));
+		long newVersion = WorkflowManager.updateWorkflow(loaded);
+		List<Runnable> tasks = new ArrayList<>();
+		try {
+			WorkflowManager.setAsyncExecutor(tasks::add);
+			CompletableFuture<Integer> refreshed = WorkflowManager.loadSnapshot(file);
+			// Until the validation is done, the snapshot workflow is used
+			Assertions.assertEquals(Set.of(), WorkflowManager.getAvailableActions(workflowName, "s3"));
+			tasks.forEach(Runnable::run);
+			Assertions.assertTrue(refreshed.join() >= 1);
+		} finally {
+			WorkflowManager.setAsyncExecutor(null);
+		}
+		Assertions.assertEquals(newVersion, cache.getIfPresent(workflowName).getVersion());
+		Assertions.assertEquals(Set.of("a2"), WorkflowManager.getAvailableActions(workflowName, "s3"));
+
+		// Missing and corrupted snapshots
+		Assertions.assertEquals(0, WorkflowManager.loadSnapshot(directory.resolve("missing.snapshot")).join());
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowSnapshot.read(directory.resolve("missing.snapshot")));
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+		assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.loadSnapshot(file));
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertThrows(TradistaFlowTechnicalException.class, () -> WorkflowManager.loadSnapshot(file));
+	}
+
+	@Test
+	@DisplayName("Workflow instance store - transitions committed with compare-and-set updates")
+	void testWorkflowInstanceStore() throws TradistaFlowBusinessException, CloneNotSupportedException {
+		String workflowName = "testWorkflowInstanceStore";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3);
+		saveWorkflow(wkf);
+		WorkflowInstanceStore store = new WorkflowInstanceStore(entityManagerFactory(), 2);
+		WorkflowTestObject obj = new WorkflowTestObject();
+		obj.setWorkflow(workflowName);
+		obj.setStatus(s1);
+		obj.setObjectKey(workflowName + "-1");
+		try {
+			WorkflowManager.setWorkflowInstanceStore(store);
+			// The object must be registered first
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+			WorkflowInstance instance = store.register(obj);
+			Assertions.assertEquals("s1", instance.getStatusName());
+			Assertions.assertEquals(0, instance.getVersion());
+			assertThrows(TradistaFlowBusinessException.class, () -> store.register(obj));
+
+			// Objects without a stable key are rejected
+			WorkflowTestObject noKey = obj.clone();
+			noKey.setObjectKey(null);
+			assertThrows(TradistaFlowBusinessException.class, () -> store.register(noKey));
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(noKey, "a1"));
+			// As with the default getObjectKey
+			WorkflowTestObject defaultKey = new WorkflowTestObject() {
+				@Override
+				public String getObjectKey() {
+					throw new UnsupportedOperationException();
+				}
+			};
+			defaultKey.setWorkflow(workflowName);
+			defaultKey.setStatus(s1);
+			assertThrows(TradistaFlowBusinessException.class, () -> store.register(defaultKey));
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(defaultKey, "a1"));
+			Assertions.assertEquals(TransitionResult.Outcome.FAILED,
+					WorkflowManager.applyAction(List.of(defaultKey), "a1").get(0).getOutcome());
+			Assertions.assertEquals("s1", store.getInstance(obj.getObjectKey()).getStatusName());
+
+			// The new status and version are committed
+			obj.setInstanceVersion(instance.getVersion());
+			WorkflowTestObject res = (WorkflowTestObject) applyAction(obj, "a1");
+			Assertions.assertEquals(s2, res.getStatus());
+			Assertions.assertEquals(1, res.getInstanceVersion());
+			instance = store.getInstance(obj.getObjectKey());
+			Assertions.assertEquals("s2", instance.getStatusName());
+			Assertions.assertEquals(1, instance.getVersion());
+
+			// Another transition from the stale object is detected
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+			Assertions.assertEquals("s2", store.getInstance(obj.getObjectKey()).getStatusName());
+			// Right status, stale version
+			WorkflowTestObject stale = res.clone();
+			stale.setInstanceVersion(0);
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(stale, "a2"));
+			// Unknown version, only the status is checked
+			stale.setInstanceVersion(WorkflowInstanceStore.ANY_VERSION);
+			res = (WorkflowTestObject) applyAction(stale, "a2");
+			Assertions.assertEquals(s3, res.getStatus());
+			Assertions.assertEquals(WorkflowInstanceStore.ANY_VERSION, res.getInstanceVersion());
+			Assertions.assertEquals(2, store.getInstance(obj.getObjectKey()).getVersion());
+
+			// Bulk variant: the objects are committed together, the one moved
+			// concurrently is reported as failed
+			List<WorkflowTestObject> objects = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				WorkflowTestObject o = new WorkflowTestObject();
+				o.setWorkflow(workflowName);
+				o.setStatus(s1);
+				o.setObjectKey(workflowName + "-bulk-" + i);
+				o.setInstanceVersion(i % 2 == 0 ? 0 : WorkflowInstanceStore.ANY_VERSION);
+				store.register(o);
+				objects.add(o);
+			}
+			Assertions.assertTrue(store.compareAndSet(workflowName + "-bulk-4", "s1", 0, "s2"));
+			Assertions.assertFalse(store.compareAndSet(workflowName + "-bulk-4", "s1", 0, "s2"));
+			List<TransitionResult<WorkflowTestObject>> results = WorkflowManager.applyAction(objects, "a1");
+			for (int i = 0; i < 4; i++) {
+				Assertions.assertTrue(results.get(i).isApplied());
+				Assertions.assertEquals(s2, results.get(i).getResult().getStatus());
+				Assertions.assertEquals(i % 2 == 0 ? 1 : WorkflowInstanceStore.ANY_VERSION,
+						results.get(i).getResult().getInstanceVersion());
+				Assertions.assertEquals("s2", store.getInstance(workflowName + "-bulk-" + i).getStatusName());
+				Assertions.assertEquals(1, store.getInstance(workflowName + "-bulk-" + i).getVersion());
+			}
+			Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(4).getOutcome());
+			Assertions.assertInstanceOf(TradistaFlowBusinessException.class, results.get(4).getError());
+			Assertions.assertEquals(1, store.getInstance(workflowName + "-bulk-4").getVersion());
+
+			// Bulk compare-and-set, mixing version and status checks
+			boolean[] applied = store.compareAndSet(List.of(
+					new WorkflowInstanceStore.StatusUpdate(workflowName + "-bulk-0", "s2", 1, "s3"),
+					new WorkflowInstanceStore.StatusUpdate(workflowName + "-bulk-1", "s2", 0, "s3"),
+					new WorkflowInstanceStore.StatusUpdate(workflowName + "-bulk-2", "s2",
+							WorkflowInstanceStore.ANY_VERSION, "s3"),
+					new WorkflowInstanceStore.StatusUpdate(workflowName + "-bulk-3", "s1",
+							WorkflowInstanceStore.ANY_VERSION, "s3"),
+					new WorkflowInstanceStore.StatusUpdate(workflowName + "-unknown", "s1",
+							WorkflowInstanceStore.ANY_VERSION, "s3")));
+			Assertions.assertArrayEquals(new boolean[] { true, false, true, false, false }, applied);
+			Assertions.assertTrue(store.delete(workflowName + "-bulk-0"));
+			Assertions.assertFalse(store.delete(workflowName + "-bulk-0"));
+			Assertions.assertNull(store.getInstance(workflowName + "-bulk-0"));
+		} finally {
+			WorkflowManager.setWorkflowInstanceStore(null);
+		}
+	}
+
+	@Test
+	@DisplayName("Apply an action to all the objects in a status with a single set-based update")
+	void testApplyActionToAll() throws TradistaFlowBusinessException {
+		String workflowName = "testApplyActionToAll";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3, new TestGuardOK());
+		new SimpleAction<WorkflowTestObject>(wkf, "a3", s1, s3, new Guard[0], new TestProcessOKOne());
+		saveWorkflow(wkf);
+		WorkflowInstanceStore store = new WorkflowInstanceStore(entityManagerFactory());
+		for (int i = 0; i < 4; i++) {
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(i < 3 ? s1 : s2);
+			obj.setObjectKey(workflowName + i);
+			store.register(obj);
+		}
+		// A workflow instance store is needed
+		assertThrows(TradistaFlowBusinessException.class,
+				() -> WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+		try {
+			WorkflowManager.setWorkflowInstanceStore(store);
+			// Only the actions just moving the objects can be applied
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.applyActionToAll(workflowName, "s2", "a2"));
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.applyActionToAll(workflowName, "s1", "a3"));
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.applyActionToAll(workflowName, "s2", "a1"));
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.applyActionToAll(workflowName + "KO", "s1", "a1"));
+
+			Assertions.assertEquals(3, WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+			for (int i = 0; i < 4; i++) {
+				WorkflowInstance instance = store.getInstance(workflowName + i);
+				Assertions.assertEquals("s2", instance.getStatusName());
+				Assertions.assertEquals(i < 3 ? 1 : 0, instance.getVersion());
+			}
+			Assertions.assertEquals(0, WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+
+			// The transitions are recorded in the journal with a single statement
+			for (int i = 4; i < 6; i++) {
+				WorkflowTestObject obj = new WorkflowTestObject();
+				obj.setWorkflow(workflowName);
+				obj.setStatus(s1);
+				obj.setObjectKey(workflowName + i);
+				store.register(obj);
+			}
+			try (TransitionJournal journal = new TransitionJournal(entityManagerFactory())) {
+				WorkflowManager.setTransitionJournal(journal);
+				Assertions.assertEquals(2, WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+				List<TransitionJournalEntry> history = journal.getHistory(workflowName + 5);
+				Assertions.assertEquals(1, history.size());
+				TransitionJournalEntry entry = history.get(0);
+				Assertions.assertEquals(workflowName, entry.getWorkflowName());
+				Assertions.assertEquals("s1", entry.getFromStatus());
+				Assertions.assertEquals("a1", entry.getActionName());
+				Assertions.assertEquals("s2", entry.getToStatus());
+				Assertions.assertNotNull(entry.getTransitionTime());
+				Assertions.assertTrue(journal.getHistory(workflowName + 0).isEmpty());
+				Assertions.assertEquals(2, journal.getWrittenCount());
+			} finally {
+				WorkflowManager.setTransitionJournal(null);
+			}
+			Assertions.assertEquals("s2", store.getInstance(workflowName + 5).getStatusName());
+
+			// The entries cannot be written with a single statement in the database of
+			// a journal using another entity manager factory
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			obj.setObjectKey(workflowName + 6);
+			store.register(obj);
+			try (EntityManagerFactory otherFactory = Persistence.createEntityManagerFactory(
+					JpaWorkflowRepository.DEFAULT_PERSISTENCE_UNIT_NAME,
+					Map.of("jakarta.persistence.schema-generation.database.action", "none",
+							"hibernate.cache.use_second_level_cache", "false", "hibernate.cache.use_query_cache",
+							"false"));
+					TransitionJournal journal = new TransitionJournal(otherFactory)) {
+				WorkflowManager.setTransitionJournal(journal);
+				assertThrows(TradistaFlowBusinessException.class,
+						() -> WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+				Assertions.assertEquals("s1", store.getInstance(workflowName + 6).getStatusName());
+			} finally {
+				WorkflowManager.setTransitionJournal(null);
+			}
+		} finally {
+			WorkflowManager.setWorkflowInstanceStore(null);
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	@DisplayName("Transition event store - states rebuilt from snapshots and events, replay")
+	void testTransitionEventStore() throws TradistaFlowBusinessException, InterruptedException {
+		String workflowName = "testTransitionEventStore";
+		Workflow<WorkflowTestObject> wkf = new Workflow<>(workflowName);
+		Status<WorkflowTestObject> s1 = new Status<>(wkf, "s1");
+		Status<WorkflowTestObject> s2 = new Status<>(wkf, "s2");
+		Status<WorkflowTestObject> s3 = new Status<>(wkf, "s3");
+		Status<WorkflowTestObject> s4 = new Status<>(wkf, "s4");
+		new SimpleAction<WorkflowTestObject>(wkf, "a1", s1, s2);
+		new SimpleAction<WorkflowTestObject>(wkf, "a2", s2, s3);
+		new SimpleAction<WorkflowTestObject>(wkf, "a3", s3, s4);
+		Map<Integer, Status> conditionalRouting = new HashMap<Integer, Status>();
+		conditionalRouting.put(1, s2);
+		conditionalRouting.put(2, s3);
+		new ConditionalAction<WorkflowTestObject>(wkf, s1, "c1", new TestCondition(), conditionalRouting, s2, s3);
+		saveWorkflow(wkf);
+		String objectKey = workflowName + "-1";
+		assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.replayEvents(objectKey));
+		TransitionEventStore store = new TransitionEventStore(entityManagerFactory(), 2);
+		try {
+			WorkflowManager.setTransitionEventStore(store);
+			WorkflowTestObject obj = new WorkflowTestObject();
+			obj.setWorkflow(workflowName);
+			obj.setStatus(s1);
+			obj.setObjectKey(objectKey);
+			Instant beforeFirstEvent = Instant.now();
+			Thread.sleep(10);
+			WorkflowTestObject res = (WorkflowTestObject) applyAction(obj, "a1");
+			Thread.sleep(10);
+			Instant afterFirstEvent = Instant.now();
+			Thread.sleep(10);
+			res = (WorkflowTestObject) applyAction(res, "a2");
+			Thread.sleep(10);
+			Instant afterSecondEvent = Instant.now();
+			Thread.sleep(10);
+			res = (WorkflowTestObject) applyAction(res, "a3");
+
+			// The events are appended in sequence, a snapshot is taken every 2 events
+			List<TransitionEvent> history = store.getHistory(objectKey);
+			Assertions.assertEquals(List.of(1L, 2L, 3L),
+					history.stream().map(TransitionEvent::getSequenceNumber).toList());
+			Assertions.assertEquals(List.of("s2", "s3", "s4"),
+					history.stream().map(TransitionEvent::getToStatus).toList());
+			Assertions.assertEquals("a2", history.get(1).getActionName());
+			try (EntityManager entityManager = entityManagerFactory().createEntityManager()) {
+				Assertions.assertEquals(List.of(2L),
+						entityManager.createQuery(
+								"Select s.sequenceNumber from StatusSnapshot s where s.objectKey = :objectKey",
+								Long.class).setParameter("objectKey", objectKey).getResultList());
+			}
+
+			// Current state and states at a given time
+			ObjectState state = store.getState(objectKey);
+			Assertions.assertEquals("s4", state.getStatusName());
+			Assertions.assertEquals(workflowName, state.getWorkflowName());
+			Assertions.assertEquals(3, state.getSequenceNumber());
+			Assertions.assertNull(store.getStateAt(objectKey, beforeFirstEvent));
+			Assertions.assertEquals("s2", store.getStateAt(objectKey, afterFirstEvent).getStatusName());
+			Assertions.assertEquals(2, store.getStateAt(objectKey, afterSecondEvent).getSequenceNumber());
+			Assertions.assertEquals("s3", store.getStateAt(objectKey, afterSecondEvent).getStatusName());
+			Assertions.assertNull(store.getState(workflowName + "-unknown"));
+			// The current state is read from a single row, updated with each event
+			try (EntityManager entityManager = entityManagerFactory().createEntityManager()) {
+				CurrentStatus current = entityManager.createQuery(
+						"Select c from CurrentStatus c where c.objectKey = :objectKey", CurrentStatus.class)
+						.setParameter("objectKey", objectKey).getSingleResult();
+				Assertions.assertEquals("s4", current.getStatusName());
+				Assertions.assertEquals(3, current.getSequenceNumber());
+			}
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> store.append(objectKey, workflowName, "s3", "a3", "s4"));
+			Assertions.assertEquals(3, store.getState(objectKey).getSequenceNumber());
+
+			// A transition from a stale object is detected
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(obj, "a1"));
+			Assertions.assertEquals(3, store.getHistory(objectKey).size());
+			// Transitions are not applied in bulk without events
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.applyActionToAll(workflowName, "s1", "a1"));
+
+			// Conditional transitions are replayed with their recorded arrival status
+			WorkflowTestObject other = new WorkflowTestObject();
+			other.setWorkflow(workflowName);
+			other.setStatus(s1);
+			other.setObjectKey(workflowName + "-2");
+			applyAction(other, "c1");
+			ReplayResult replay = WorkflowManager.replayEvents(workflowName + "-2");
+			Assertions.assertTrue(replay.isValid());
+			Assertions.assertEquals("s2", replay.getState().getStatusName());
+
+			// Replay with the current definition
+			replay = WorkflowManager.replayEvents(objectKey);
+			Assertions.assertTrue(replay.isValid());
+			Assertions.assertEquals("s4", replay.getState().getStatusName());
+			Assertions.assertEquals(3, replay.getState().getSequenceNumber());
+			assertThrows(TradistaFlowBusinessException.class,
+					() -> WorkflowManager.replayEvents(workflowName + "-unknown"));
+
+			// Replay with a new definition: a2 now leads to s4, so a3 is not valid
+			Workflow<WorkflowTestObject> newWkf = new Workflow<>(workflowName);
+			Status<WorkflowTestObject> newS1 = new Status<>(newWkf, "s1");
+			Status<WorkflowTestObject> newS2 = new Status<>(newWkf, "s2");
+			Status<WorkflowTestObject> newS3 = new Status<>(newWkf, "s3");
+			Status<WorkflowTestObject> newS4 = new Status<>(newWkf, "s4");
+			new SimpleAction<WorkflowTestObject>(newWkf, "a1", newS1, newS2);
+			new SimpleAction<WorkflowTestObject>(newWkf, "a2", newS2, newS4);
+			new SimpleAction<WorkflowTestObject>(newWkf, "a3", newS3, newS4);
+			replay = store.replay(objectKey, CompiledWorkflow.compile(newWkf));
+			Assertions.assertFalse(replay.isValid());
+			Assertions.assertEquals(3, replay.getInvalidEvent().getSequenceNumber());
+			Assertions.assertEquals("s4", replay.getState().getStatusName());
+			Assertions.assertEquals(2, replay.getState().getSequenceNumber());
+			// The events are not modified
+			Assertions.assertEquals("s4", store.getState(objectKey).getStatusName());
+
+			// With a workflow instance store, a transition whose event cannot be
+			// appended is not committed in the instance store either
+			WorkflowInstanceStore instanceStore = new WorkflowInstanceStore(entityManagerFactory());
+			String conflictKey = workflowName + "-3";
+			WorkflowTestObject third = new WorkflowTestObject();
+			third.setWorkflow(workflowName);
+			third.setStatus(s1);
+			third.setObjectKey(conflictKey);
+			instanceStore.register(third);
+			// The object already left s1 in the event store
+			store.append(conflictKey, workflowName, "s1", "a1", "s2");
+			WorkflowManager.setWorkflowInstanceStore(instanceStore);
+			assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(third, "a1"));
+			Assertions.assertEquals("s1", instanceStore.getInstance(conflictKey).getStatusName());
+			Assertions.assertEquals(0, instanceStore.getInstance(conflictKey).getVersion());
+			// Same with stores using different entity manager factories: the status
+			// update is reverted. The other factory doesn't share the cache manager,
+			// which is closed with it.
+			try (EntityManagerFactory otherFactory = Persistence.createEntityManagerFactory(
+					JpaWorkflowRepository.DEFAULT_PERSISTENCE_UNIT_NAME,
+					Map.of("jakarta.persistence.schema-generation.database.action", "none",
+							"hibernate.cache.use_second_level_cache", "false", "hibernate.cache.use_query_cache",
+							"false"))) {
+				WorkflowManager.setTransitionEventStore(new TransitionEventStore(otherFactory, 2));
+				assertThrows(TradistaFlowBusinessException.class, () -> WorkflowManager.applyAction(third, "a1"));
+				Assertions.assertEquals("s1", instanceStore.getInstance(conflictKey).getStatusName());
+				Assertions.assertEquals(0, instanceStore.getInstance(conflictKey).getVersion());
+			} finally {
+				WorkflowManager.setTransitionEventStore(store);
+			}
+			Assertions.assertEquals(1, store.getHistory(conflictKey).size());
+
+			// Bulk variant: the transitions are committed together, the one whose
+			// event cannot be appended is reported as failed and not committed
+			WorkflowTestObject fourth = new WorkflowTestObject();
+			fourth.setWorkflow(workflowName);
+			fourth.setStatus(s1);
+			fourth.setObjectKey(workflowName + "-4");
+			instanceStore.register(fourth);
+			List<TransitionResult<WorkflowTestObject>> results = WorkflowManager.applyAction(List.of(third, fourth),
+					"a1");
+			Assertions.assertEquals(TransitionResult.Outcome.FAILED, results.get(0).getOutcome());
+			Assertions.assertInstanceOf(TradistaFlowBusinessException.class, results.get(0).getError());
+			Assertions.assertEquals(TransitionResult.Outcome.APPLIED, results.get(1).getOutcome());
+			Assertions.assertEquals("s1", instanceStore.getInstance(conflictKey).getStatusName());
+			Assertions.assertEquals(1, store.getHistory(conflictKey).size());
+			Assertions.assertEquals("s2", instanceStore.getInstance(workflowName + "-4").getStatusName());
+			Assertions.assertEquals("s2", store.getState(workflowName + "-4").getStatusName());
+		} finally {
+			WorkflowManager.setTransitionEventStore(null);
+			WorkflowManager.setWorkflowInstanceStore(null);
+		}
+	}
+
+	private static EntityManagerFactory entityManagerFactory() {
+		return ((JpaWorkflowRepository) WorkflowManager.getWorkflowRepository()).getEntityManagerFactory();
+	}
+
+}
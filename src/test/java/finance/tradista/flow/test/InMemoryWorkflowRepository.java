@@ -0,0 +1,97 @@
+package finance.tradista.flow.test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import finance.tradista.flow.exception.TradistaFlowBusinessException;
+import finance.tradista.flow.model.PseudoStatus;
+import finance.tradista.flow.model.Workflow;
+import finance.tradista.flow.model.WorkflowObject;
+import finance.tradista.flow.service.WorkflowRepository;
+import finance.tradista.flow.service.WorkflowSummary;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+/**
+ * Workflow repository Test Class. This test repository keeps the workflows in
+ * memory.
+ * 
+ * @author OA
+ *
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class InMemoryWorkflowRepository implements WorkflowRepository {
+
+	private final Map<String, Workflow> workflows = new ConcurrentHashMap<>();
+
+	private final AtomicLong ids = new AtomicLong();
+
+	@Override
+	public long saveWorkflow(Workflow<? extends WorkflowObject> workflow) {
+		workflow.setId(ids.incrementAndGet());
+		workflows.put(workflow.getName(), workflow);
+		return workflow.getId();
+	}
+
+	@Override
+	public long updateWorkflow(Workflow<? extends WorkflowObject> workflow) throws TradistaFlowBusinessException {
+		Workflow stored = workflows.get(workflow.getName());
+		if (stored == null) {
+			throw new TradistaFlowBusinessException(
+					String.format("The workflow named %s doesn't exist.", workflow.getName()));
+		}
+		workflow.setId(stored.getId());
+		workflows.put(workflow.getName(), workflow);
+		return 0;
+	}
+
+	@Override
+	public String deleteWorkflow(long id) throws TradistaFlowBusinessException {
+		Workflow workflow = workflows.values().stream().filter(w -> w.getId() == id).findFirst()
+				.orElseThrow(() -> new TradistaFlowBusinessException(
+						String.format("The workflow %s doesn't exist.", id)));
+		workflows.remove(workflow.getName());
+		return workflow.getName();
+	}
+
+	@Override
+	public <X extends WorkflowObject> Workflow<X> getWorkflowByName(String name) throws TradistaFlowBusinessException {
+		Workflow<X> workflow = workflows.get(name);
+		if (workflow == null) {
+			throw new TradistaFlowBusinessException(String.format("The workflow named %s doesn't exist.", name));
+		}
+		return workflow;
+	}
+
+	@Override
+	public <X extends WorkflowObject> Set<Workflow<X>> getAllWorkflows() {
+		return new HashSet(workflows.values());
+	}
+
+	@Override
+	public List<WorkflowSummary> getAllWorkflowSummaries() {
+		return workflows.values().stream()
+				.map(w -> new WorkflowSummary(w.getId(), w.getName(), w.getVersion(),
+						((Set<?>) w.getStatus()).stream().filter(s -> !(s instanceof PseudoStatus)).count()))
+				.sorted(Comparator.comparing(WorkflowSummary::getName)).toList();
+	}
+
+}
\ No newline at end of file
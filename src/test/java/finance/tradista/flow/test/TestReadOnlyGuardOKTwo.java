@@ -0,0 +1,40 @@
+package finance.tradista.flow.test;
+
+import finance.tradista.flow.model.Guard;
+import finance.tradista.flow.model.ReadOnlyGuard;
+import jakarta.persistence.Entity;
+
+/********************************************************************************
+ * Copyright (c) 2026 Olivier Asuncion
+ * 
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+/**
+ * Guard Test Class. This read-only test guard return true, so never blocks.
+ * 
+ * @author OA
+ *
+ */
+@Entity
+public class TestReadOnlyGuardOKTwo extends Guard<WorkflowTestObject> implements ReadOnlyGuard {
+
+	private static final long serialVersionUID = -3305046208941950226L;
+
+	public TestReadOnlyGuardOKTwo() {
+		setPredicate(obj -> {
+			return true;
+		});
+	}
+
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package finance.tradista.flow.test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import finance.tradista.flow.model.Status;
 import finance.tradista.flow.model.WorkflowObject;
 
@@ -31,6 +33,13 @@ public class WorkflowTestObject implements WorkflowObject {
 
 	private String workflow;
 
+	private String objectKey;
+
+	private long instanceVersion = -1;
+
+	// Shared by an object and its clones
+	private AtomicInteger cloneCount = new AtomicInteger();
+
 	@Override
 	public void setStatus(Status<? extends WorkflowObject> status) {
 		this.status = status;
@@ -53,7 +62,31 @@ public class WorkflowTestObject implements WorkflowObject {
 
 	@Override
 	public WorkflowTestObject clone() throws CloneNotSupportedException {
+		cloneCount.incrementAndGet();
 		return (WorkflowTestObject) super.clone();
 	}
 
+	@Override
+	public String getObjectKey() {
+		return objectKey;
+	}
+
+	public void setObjectKey(String objectKey) {
+		this.objectKey = objectKey;
+	}
+
+	@Override
+	public long getInstanceVersion() {
+		return instanceVersion;
+	}
+
+	@Override
+	public void setInstanceVersion(long instanceVersion) {
+		this.instanceVersion = instanceVersion;
+	}
+
+	public int getCloneCount() {
+		return cloneCount.get();
+	}
+
 }
\ No newline at end of file